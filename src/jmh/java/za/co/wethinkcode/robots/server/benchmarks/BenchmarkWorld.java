@@ -0,0 +1,73 @@
+package za.co.wethinkcode.robots.server.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import za.co.wethinkcode.robots.server.world.Obstacle;
+import za.co.wethinkcode.robots.server.world.Robot;
+import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark fixture: a world of the given size, obstacle density and robot population.
+ * Obstacles are single-cell mountains and lakes placed from a fixed seed, so every run of a
+ * parameter combination sees the same layout. Pits are left out because robots stepping into
+ * them would change the population mid-measurement.
+ * Rebuilt every iteration so fire damage and moves from earlier iterations do not accumulate.
+ */
+@State(Scope.Thread)
+public class BenchmarkWorld {
+    private static final long SEED = 42L;
+
+    @Param({"50", "200", "1000"})
+    public int worldSize;
+
+    @Param({"0.0", "0.05", "0.2"})
+    public double obstacleDensity;
+
+    @Param({"1", "50", "500"})
+    public int robotCount;
+
+    public World world;
+    public Robot hero;
+    public int launched; // names for robots launched by the addRobot benchmark
+
+    @Setup(Level.Iteration)
+    public void build() {
+        Random random = new Random(SEED);
+        WorldConfig config = new WorldConfig(
+                worldSize, 10, 0, 0,
+                Map.of("Sniper", new int[]{5, 5, 5}),
+                obstacles(random)
+        );
+        world = new World(config);
+
+        for (int i = 0; i < robotCount; i++) {
+            world.addRobot(new Robot("Bot" + i, "Sniper", 5, 5, 5));
+        }
+        hero = world.getRobot("Bot0");
+    }
+
+    private List<Obstacle> obstacles(Random random) {
+        int half = worldSize / 2;
+        int cells = (2 * half + 1) * (2 * half + 1);
+        int count = (int) (cells * obstacleDensity);
+        List<Obstacle> obstacles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Obstacle.ObstacleType type = random.nextBoolean()
+                    ? Obstacle.ObstacleType.MOUNTAIN
+                    : Obstacle.ObstacleType.LAKE;
+            int x = random.nextInt(2 * half + 1) - half;
+            int y = random.nextInt(2 * half + 1) - half;
+            obstacles.add(new Obstacle(type, x, y, 0));
+        }
+        return obstacles;
+    }
+}
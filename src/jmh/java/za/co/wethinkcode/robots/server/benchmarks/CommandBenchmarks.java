@@ -0,0 +1,106 @@
+package za.co.wethinkcode.robots.server.benchmarks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import za.co.wethinkcode.robots.server.Json;
+import za.co.wethinkcode.robots.server.commands.ClientCommands;
+import za.co.wethinkcode.robots.server.commands.Command;
+import za.co.wethinkcode.robots.server.commands.FireCommand;
+import za.co.wethinkcode.robots.server.commands.ForwardCommand;
+import za.co.wethinkcode.robots.server.commands.LookCommand;
+import za.co.wethinkcode.robots.server.commands.StreamingCommand;
+import za.co.wethinkcode.robots.server.world.Robot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-path benchmarks for the commands a busy server runs most.
+ * Run with: mvn -Pbench compile exec:exec@bench
+ * Each benchmark leaves the world as it found it where it can, so repeated calls measure
+ * the same work rather than a robot drifting into a wall.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandBenchmarks {
+    private static final ObjectMapper MAPPER = Json.mapper();
+    private static final ArrayNode ONE_STEP = MAPPER.createArrayNode().add("1");
+    private static final ArrayNode NO_ARGS = MAPPER.createArrayNode();
+    private static final byte[] STATE_REQUEST =
+            "{\"robot\":\"Bot0\",\"command\":\"state\",\"arguments\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * One step forward and one step back, so the robot stays put across invocations.
+     */
+    @Benchmark
+    public JsonNode forwardAndBack(BenchmarkWorld state) {
+        new ForwardCommand("Bot0", ONE_STEP, state.world).execute();
+        return new ForwardCommand("Bot0", ONE_STEP, state.world, true).execute();
+    }
+
+    @Benchmark
+    public JsonNode look(BenchmarkWorld state) {
+        return new LookCommand("Bot0", state.world).execute();
+    }
+
+    /**
+     * Fires once with a full magazine; reload is instant so it is not part of the cost.
+     */
+    @Benchmark
+    public JsonNode fire(BenchmarkWorld state) {
+        state.hero.reload();
+        return new FireCommand("Bot0", NO_ARGS, state.world).execute();
+    }
+
+    /**
+     * Launches a robot into a random free cell and removes it again, keeping the population fixed.
+     */
+    @Benchmark
+    public boolean addRobot(BenchmarkWorld state) {
+        String name = "Launch" + (state.launched++);
+        boolean added = state.world.addRobot(new Robot(name, "Sniper", 5, 5, 5));
+        state.world.removeOneRobot(name);
+        return added;
+    }
+
+    /**
+     * A full request as the network front ends see it: parse, dispatch, execute, serialize.
+     */
+    @Benchmark
+    public byte[] stateRoundTrip(BenchmarkWorld state) throws IOException {
+        JsonNode request = Json.reader().readTree(STATE_REQUEST);
+        JsonNode response = ClientCommands.create(request, state.world, "Bot0").execute();
+        return Json.writer().writeValueAsBytes(response);
+    }
+
+    /**
+     * The same request on the streaming path: the response goes straight into a generator.
+     */
+    @Benchmark
+    public boolean stateStreamed(BenchmarkWorld state) throws IOException {
+        JsonNode request = Json.reader().readTree(STATE_REQUEST);
+        Command command = ClientCommands.create(request, state.world, "Bot0");
+        try (JsonGenerator out = MAPPER.createGenerator(OutputStream.nullOutputStream())) {
+            return ((StreamingCommand) command).writeResponse(out);
+        }
+    }
+
+    @Benchmark
+    public JsonNode worldState(BenchmarkWorld state) {
+        return state.world.getWorldState();
+    }
+}
@@ -4,6 +4,8 @@ import za.co.wethinkcode.robots.client.connection.ServerConnection;
 import picocli.CommandLine;
 import picocli.CommandLine.Option;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -27,6 +29,12 @@ public class ClientMain {
 
         @Option(names = {"--port"}, description = "Server port", defaultValue = "5000")
         private int port;
+
+        @Option(names = {"--binary"}, description = "Use binary Smile frames if the server supports them")
+        private boolean binary;
+
+        @Option(names = {"--raw"}, description = "Print the server's JSON as is instead of formatting it")
+        private boolean raw;
     }
 
     /**
@@ -39,7 +47,8 @@ public class ClientMain {
 
         ClientMain client = new ClientMain();
         try {
-            client.connection = new ServerConnection(command.host, command.port);
+            client.connection = new ServerConnection(command.host, command.port, command.binary);
+            client.connection.setRaw(command.raw);
             System.out.println("Connected to server at " + command.host + ":" + command.port);
             client.run();
         } catch (Exception e) {
@@ -76,25 +85,53 @@ public class ClientMain {
      */
     private boolean handleUserInput(String input) {
         try {
+            // "forward 5; look" sends both commands at once and prints both answers
+            if (input.contains(";")) {
+                return handleSeveral(input);
+            }
             String response = connection.sendCommand(input);
-            System.out.println(response);
+            return show(input, response);
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            return false; // stop on error
+        }
+    }
 
-            // if the server says YOU DIED then stop
-            if (response.toUpperCase().contains("YOU DIED")) {
-                System.out.println("Game over, closing...");
+    /**
+     * send all ;-separated commands without waiting in between, then show each answer
+     */
+    private boolean handleSeveral(String input) throws Exception {
+        List<String> commands = new ArrayList<>();
+        for (String part : input.split(";")) {
+            if (!part.isBlank()) commands.add(part.trim());
+        }
+        List<String> responses = connection.sendCommands(commands);
+        for (int i = 0; i < responses.size(); i++) {
+            if (!show(commands.get(i), responses.get(i))) {
                 return false;
             }
+        }
+        return true;
+    }
 
-            // quit if user typed quit
-            if (input.equalsIgnoreCase("quit")) {
-                return false;
-            }
+    /**
+     * print one response, returns false if we should stop running
+     */
+    private boolean show(String input, String response) {
+        System.out.println(response);
 
-            return true; // keep running
-        } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
-            return false; // stop on error
+        // if the server says YOU DIED then stop (raw JSON just says dead)
+        if (response.toUpperCase().contains("YOU DIED") || response.contains("\"dead\":true")) {
+            System.out.println("Game over, closing...");
+            return false;
         }
+
+        // quit if user typed quit
+        if (input.equalsIgnoreCase("quit")) {
+            return false;
+        }
+
+        return true; // keep running
     }
 
     /**
@@ -49,6 +49,10 @@ public class CommandBuilder {
                     BackCommandBuilder backBuilder = new BackCommandBuilder();
                     return backBuilder.build(parts);
 
+                case "navigate":
+                    NavigateCommandBuilder navigateBuilder = new NavigateCommandBuilder();
+                    return navigateBuilder.build(parts);
+
                 case "turn":
                     TurnCommandBuilder turnBuilder = new TurnCommandBuilder();
                     return turnBuilder.build(parts);
@@ -0,0 +1,38 @@
+package za.co.wethinkcode.robots.client.command;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Builds a "navigate" command JSON request for the robot.
+ */
+public class NavigateCommandBuilder {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /**
+     * Build the navigate command JSON.
+     * @param parts the command split by space (e.g., ["navigate", "10", "-4"])
+     * @return JsonNode representing the command or an error
+     */
+    public JsonNode build(String[] parts) {
+        if (parts.length != 3) {
+            return new ErrorState("Usage: navigate <x> <y>").toJson();
+        }
+
+        ObjectNode request = mapper.createObjectNode();
+        request.put("command", "navigate");
+        ArrayNode arguments = mapper.createArrayNode();
+
+        try {
+            arguments.add(Integer.parseInt(parts[1]));
+            arguments.add(Integer.parseInt(parts[2]));
+        } catch (NumberFormatException e) {
+            return new ErrorState("Invalid number format for position").toJson();
+        }
+
+        request.set("arguments", arguments);
+        return request;
+    }
+}
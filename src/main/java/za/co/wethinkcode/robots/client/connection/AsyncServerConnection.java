@@ -0,0 +1,232 @@
+package za.co.wethinkcode.robots.client.connection;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import za.co.wethinkcode.robots.client.command.CommandBuilder;
+import za.co.wethinkcode.robots.server.networking.LineFramer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking connection to the server: every send returns a CompletableFuture right away,
+ * so a caller can have many requests in flight on one connection.
+ * <p>
+ * The server answers each connection's requests in order, so responses are matched to
+ * requests first-in, first-out. A message with an "event" field, or one that arrives while
+ * nothing is pending, is a server push and goes to the optional event listener instead.
+ * <p>
+ * Channel I/O runs on the shared ClientEventLoop thread, which also completes the futures;
+ * callers that block in a dependent stage should use the *Async variants of CompletableFuture.
+ * Speaks newline-delimited JSON only. The class is final because its constructor registers
+ * the connection with the event loop, which could otherwise call into a half-built subclass.
+ */
+public final class AsyncServerConnection implements AutoCloseable {
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_LINE_LENGTH = 16 * 1024 * 1024; // room for a full dump
+
+    private final SocketChannel channel;
+    private final ClientEventLoop loop;
+    private final ObjectMapper mapper;
+    private final CommandBuilder commandBuilder;
+    private final Consumer<JsonNode> events;
+    private final ReentrantLock sending; // keeps pending and writes in the same order
+    private final Queue<CompletableFuture<JsonNode>> pending;
+    private final Queue<ByteBuffer> writes;
+    private final AtomicBoolean flushScheduled;
+    private final LineFramer framer; // loop thread only
+    private final ByteBuffer readBuffer; // loop thread only
+    private SelectionKey key; // loop thread only
+    private volatile boolean closed;
+
+    /**
+     * Connects to the server.
+     */
+    public AsyncServerConnection(String host, int port) throws IOException {
+        this(host, port, null);
+    }
+
+    /**
+     * Connects to the server and passes pushed messages to a listener.
+     *
+     * @param events Called on the I/O thread with each server-pushed message; may be null.
+     *               An exception it throws is logged and the message dropped.
+     */
+    public AsyncServerConnection(String host, int port, Consumer<JsonNode> events) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        this.loop = ClientEventLoop.shared();
+        this.mapper = new ObjectMapper();
+        this.commandBuilder = new CommandBuilder();
+        this.events = events;
+        this.sending = new ReentrantLock();
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.writes = new ConcurrentLinkedQueue<>();
+        this.flushScheduled = new AtomicBoolean(false);
+        this.framer = new LineFramer(MAX_LINE_LENGTH);
+        this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        loop.register(channel, this);
+    }
+
+    /**
+     * Builds a command from user input and sends it.
+     *
+     * @return the server's response; fails with IllegalArgumentException if the input
+     *         does not build a command, or IOException if the connection is lost.
+     */
+    public CompletableFuture<JsonNode> send(String input) {
+        JsonNode request = commandBuilder.buildCommand(input);
+        if (request == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid command format"));
+        }
+        return send(request);
+    }
+
+    /**
+     * Sends a request without waiting for earlier ones to be answered.
+     *
+     * @return the server's response to this request.
+     */
+    public CompletableFuture<JsonNode> send(JsonNode request) {
+        byte[] json;
+        try {
+            json = mapper.writeValueAsBytes(request);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+
+        CompletableFuture<JsonNode> response = new CompletableFuture<>();
+        sending.lock();
+        try {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IOException("Connection closed"));
+            }
+            pending.add(response);
+            writes.add(line);
+        } finally {
+            sending.unlock();
+        }
+        // One flush task covers every request queued before it runs
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.execute(this::flush);
+        }
+        return response;
+    }
+
+    /**
+     * Returns the number of requests sent but not yet answered.
+     */
+    public int inFlight() {
+        return pending.size();
+    }
+
+    /**
+     * Closes the connection; requests still in flight fail.
+     */
+    @Override
+    public void close() {
+        fail(new IOException("Connection closed"));
+    }
+
+    // Loop thread: called by the loop once the channel is registered
+    void attach(SelectionKey key) {
+        this.key = key;
+        if (closed) {
+            key.cancel();
+        }
+    }
+
+    // Loop thread
+    void onReadable() {
+        try {
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                fail(new IOException("Server disconnected"));
+                return;
+            }
+            readBuffer.flip();
+            framer.feed(readBuffer, this::deliver);
+            readBuffer.clear();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    // Loop thread
+    void onWritable() {
+        flush();
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        if (key == null || !key.isValid()) {
+            return; // closed; registration always runs before the first flush task
+        }
+        try {
+            ByteBuffer buffer;
+            while ((buffer = writes.peek()) != null) {
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return; // socket buffer full, wait for OP_WRITE
+                }
+                writes.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void deliver(byte[] frame) {
+        JsonNode message;
+        try {
+            message = mapper.readTree(frame);
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        CompletableFuture<JsonNode> waiting = message.has("event") ? null : pending.poll();
+        if (waiting != null) {
+            waiting.complete(message);
+        } else if (events != null) {
+            try {
+                events.accept(message);
+            } catch (RuntimeException e) {
+                // A broken listener must not stop the responses behind this message
+                System.err.println("Event listener error: " + e);
+            }
+        }
+    }
+
+    /**
+     * Closes the channel and fails every pending request. Safe from any thread.
+     */
+    void fail(IOException cause) {
+        sending.lock();
+        try {
+            if (closed) return;
+            closed = true;
+        } finally {
+            sending.unlock();
+        }
+        try {
+            channel.close(); // also cancels the key
+        } catch (IOException ignored) {
+        }
+        CompletableFuture<JsonNode> waiting;
+        while ((waiting = pending.poll()) != null) {
+            waiting.completeExceptionally(cause);
+        }
+        writes.clear();
+    }
+}
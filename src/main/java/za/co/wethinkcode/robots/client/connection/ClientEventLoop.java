@@ -0,0 +1,108 @@
+package za.co.wethinkcode.robots.client.connection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * One selector thread shared by every AsyncServerConnection in the process.
+ * All channel I/O happens on this thread; connections hand work to it with
+ * {@link #execute(Runnable)}, so thousands of connections cost one thread, not one each.
+ * <p>
+ * A task or callback that throws is logged and skipped: the thread is shared by every
+ * connection in the process, so it must outlive any one of them misbehaving.
+ */
+class ClientEventLoop implements Runnable {
+    private final Selector selector;
+    private final Queue<Runnable> tasks;
+
+    private ClientEventLoop() throws IOException {
+        this.selector = Selector.open();
+        this.tasks = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Returns the process-wide loop, starting its daemon thread on first use.
+     */
+    static ClientEventLoop shared() {
+        return Holder.LOOP;
+    }
+
+    // Lazy, thread-safe start without locking: the JVM initialises the holder once
+    private static class Holder {
+        static final ClientEventLoop LOOP = start();
+
+        private static ClientEventLoop start() {
+            try {
+                ClientEventLoop loop = new ClientEventLoop();
+                Thread thread = new Thread(loop, "client-event-loop");
+                thread.setDaemon(true);
+                thread.start();
+                return loop;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Registers a connected channel for reads; its connection receives readiness callbacks.
+     */
+    void register(SocketChannel channel, AsyncServerConnection connection) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                connection.attach(channel.register(selector, SelectionKey.OP_READ, connection));
+            } catch (IOException e) {
+                connection.fail(e);
+            }
+        });
+    }
+
+    /**
+     * Queues a task to run on the loop thread and wakes the selector.
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                System.err.println("Client event loop error: " + e.getMessage());
+                return;
+            }
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Client event loop error: " + e);
+                }
+            }
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                AsyncServerConnection connection = (AsyncServerConnection) key.attachment();
+                if (!key.isValid()) continue;
+                try {
+                    if (key.isReadable()) connection.onReadable();
+                    if (key.isValid() && key.isWritable()) connection.onWritable();
+                } catch (RuntimeException e) {
+                    System.err.println("Client event loop error: " + e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package za.co.wethinkcode.robots.client.connection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns a server response into the client's readable layout in one streaming pass.
+ * Tokens go from a JsonParser straight to a pretty-printing JsonGenerator: fields the
+ * client shows are renamed and copied, everything else is skipped, and no tree is built
+ * for either the response or the output. A dump of a big world costs one pass over its
+ * tokens instead of a parsed tree plus a rebuilt copy.
+ * <p>
+ * Fields come out in the order the server sent them. A field the layout always shows,
+ * like a robot's status, gets its default at the end of its object if the server left it out.
+ */
+public class ResponseFormatter {
+    // Generators must not close the caller's writer
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    private static final String RELOAD_HINT = "Please reload before firing again";
+    private static final String GAME_OVER = "YOU DIED! Game Over. Disconnecting...";
+
+    private enum Kind { NUMBER, TEXT, FLAG, POINT, OBJECT, LIST, DEATH }
+
+    /**
+     * One field the client shows: its name in the server's response, its name in the output,
+     * how to copy its value, and what to write when the server leaves it out (null for nothing).
+     */
+    private record Field(String name, String label, Kind kind, Object fallback, Schema schema) {
+    }
+
+    /** The fields shown for one kind of object, looked up by their server names. */
+    private static final class Schema {
+        final Field[] fields;
+        final Map<String, Integer> positions = new HashMap<>();
+
+        Schema(Field... fields) {
+            if (fields.length > Long.SIZE) {
+                throw new IllegalArgumentException("Too many fields for one schema");
+            }
+            this.fields = fields;
+            for (int i = 0; i < fields.length; i++) {
+                positions.put(fields[i].name(), i);
+            }
+        }
+    }
+
+    // data.message is also checked for the reload hint
+    private static final Field MESSAGE = text("message", "message", null);
+
+    private static final Schema MAKE = new Schema(
+            text("make", "make", null),
+            number("shots", "shots", null),
+            number("shields", "shields", null),
+            number("maxshot", "maxShots", null));
+
+    private static final Schema ROBOT = new Schema(
+            text("name", "name", "Unknown"),
+            point("position", "position"),
+            text("direction", "direction", "Unknown"),
+            number("shields", "shields", 0),
+            number("shots", "shots", 0),
+            text("status", "status", "Unknown"));
+
+    private static final Schema CORNER = new Schema(
+            number("x", "x", null),
+            number("y", "y", null));
+
+    private static final Schema CORNERS = new Schema(
+            object("topLeft", "topLeft", CORNER),
+            object("topRight", "topRight", CORNER),
+            object("bottomLeft", "bottomLeft", CORNER),
+            object("bottomRight", "bottomRight", CORNER));
+
+    private static final Schema OBSTACLE = new Schema(
+            text("obstacleType", "type", "Unknown"),
+            object("corners", "corners", CORNERS),
+            flag("canKillYou", "canKillYou", null),
+            flag("canWalkThrough", "canWalkThrough", null),
+            flag("canSeePast", "canSeePast", null));
+
+    private static final Schema END = new Schema(
+            number("x", "x", -1),
+            number("y", "y", -1));
+
+    private static final Schema COMMAND = new Schema(
+            text("command", "command", null),
+            text("description", "description", null));
+
+    private static final Schema SEEN = new Schema(
+            text("type", "type", "Unknown"),
+            text("direction", "direction", "Unknown"),
+            number("distance", "distance", 0));
+
+    private static final Schema DATA = new Schema(
+            list("robots", "Robots", ROBOT),
+            list("obstacles", "Obstacles", OBSTACLE),
+            number("maxDistance", "maxDistance", null),
+            number("distanceTraveled", "distanceTraveled", null),
+            number("startShots", "startShots", null),
+            number("shotsUsed", "shotsUsed", null),
+            number("remainingShots", "remainingShots", null),
+            number("steps", "steps", null),
+            number("visibility", "visibility", null),
+            number("reload", "reload", null),
+            number("repair", "repair", null),
+            number("shields", "shields", null),
+            text("target", "target", null),
+            text("outcome", "outcome", null),
+            text("world", "world", null),
+            MESSAGE,
+            text("robotName", "robotName", null),
+            text("oldDirection", "oldDirection", null),
+            text("newDirection", "newDirection", null),
+            text("turn", "turn", null),
+            flag("fired", "fired", null),
+            object("start", "Start", END),
+            object("end", "End", END),
+            list("path", "Path", CORNER),
+            list("commands", "Commands", COMMAND),
+            point("position", "Position"),
+            list("objects", "Objects", SEEN));
+
+    private static final Schema STATE = new Schema(
+            point("position", "Position"),
+            text("direction", "Direction", "Unknown"),
+            number("shields", "Shields", 0),
+            number("shots", "Shots", 0),
+            number("maxShots", "MaxShots", 0),
+            text("status", "Status", "Unknown"),
+            new Field("dead", "Dead", Kind.DEATH, false, null));
+
+    private static final Schema RESPONSE = new Schema(
+            text("result", "Result", "Unknown"),
+            list("available_makes", "AvailableMakes", MAKE),
+            object("data", "Data", DATA),
+            object("state", "State", STATE));
+
+    /**
+     * Formats one response for people to read.
+     *
+     * @param in Parser positioned before the response object.
+     */
+    public String format(JsonParser in) throws IOException {
+        StringWriter text = new StringWriter();
+        format(in, text);
+        return text.toString();
+    }
+
+    /**
+     * Formats one response for people to read, writing it as it is parsed.
+     *
+     * @param in  Parser positioned before the response object.
+     * @param out Where the formatted response goes; it is flushed but not closed.
+     */
+    public void format(JsonParser in, Writer out) throws IOException {
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.useDefaultPrettyPrinter();
+            new Pass(in, generator).response();
+        }
+    }
+
+    /**
+     * Copies one response as compact JSON, unchanged, for programs that read it themselves.
+     * Only needed when the response is not already JSON text, such as a Smile frame.
+     */
+    public String copy(JsonParser in) throws IOException {
+        StringWriter text = new StringWriter();
+        try (JsonGenerator generator = JSON.createGenerator(text)) {
+            in.nextToken();
+            generator.copyCurrentStructure(in);
+        }
+        return text.toString();
+    }
+
+    /** State of one formatting pass. */
+    private static final class Pass {
+        private final JsonParser in;
+        private final JsonGenerator out;
+        private boolean reloadHint;
+
+        Pass(JsonParser in, JsonGenerator out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        void response() throws IOException {
+            if (in.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(in, "Expected a JSON object from the server");
+            }
+            out.writeStartObject();
+            fields(RESPONSE);
+            if (reloadHint) {
+                out.writeStringField("ActionRequired", RELOAD_HINT);
+            }
+            out.writeEndObject();
+        }
+
+        // Parser is just past START_OBJECT; leaves it on the matching END_OBJECT
+        private void fields(Schema schema) throws IOException {
+            long seen = 0; // bit i set once fields[i] has been written
+            while (in.nextToken() == JsonToken.FIELD_NAME) {
+                Integer position = schema.positions.get(in.currentName());
+                JsonToken token = in.nextToken();
+                if (position == null) {
+                    in.skipChildren();
+                } else if (value(schema.fields[position], token)) {
+                    seen |= 1L << position;
+                }
+            }
+            for (int i = 0; i < schema.fields.length; i++) {
+                Field field = schema.fields[i];
+                if ((seen & 1L << i) == 0 && field.fallback() != null) {
+                    fallback(field);
+                }
+            }
+        }
+
+        // Copies the value under the current token; returns false if it is the wrong shape to show
+        private boolean value(Field field, JsonToken token) throws IOException {
+            switch (field.kind()) {
+                case NUMBER -> out.writeNumberField(field.label(), in.getValueAsInt());
+                case FLAG -> out.writeBooleanField(field.label(), in.getValueAsBoolean());
+                case TEXT -> {
+                    String text = in.getValueAsString("");
+                    out.writeStringField(field.label(), text);
+                    if (field == MESSAGE && text.toLowerCase().contains("reload")) {
+                        reloadHint = true;
+                    }
+                }
+                case DEATH -> {
+                    boolean dead = in.getValueAsBoolean();
+                    out.writeBooleanField(field.label(), dead);
+                    if (dead) {
+                        out.writeStringField("GameOverMessage", GAME_OVER);
+                    }
+                }
+                case POINT -> {
+                    if (token != JsonToken.START_ARRAY) return skip();
+                    out.writeArrayFieldStart(field.label());
+                    for (int i = 0; in.nextToken() != JsonToken.END_ARRAY; i++) {
+                        if (i < 2) {
+                            out.writeNumber(in.getValueAsInt());
+                        }
+                        in.skipChildren();
+                    }
+                    out.writeEndArray();
+                    return true;
+                }
+                case OBJECT -> {
+                    if (token != JsonToken.START_OBJECT) return skip();
+                    out.writeObjectFieldStart(field.label());
+                    fields(field.schema());
+                    out.writeEndObject();
+                    return true;
+                }
+                case LIST -> {
+                    if (token != JsonToken.START_ARRAY) return skip();
+                    out.writeArrayFieldStart(field.label());
+                    while (in.nextToken() != JsonToken.END_ARRAY) {
+                        if (in.currentToken() == JsonToken.START_OBJECT) {
+                            out.writeStartObject();
+                            fields(field.schema());
+                            out.writeEndObject();
+                        } else {
+                            in.skipChildren();
+                        }
+                    }
+                    out.writeEndArray();
+                    return true;
+                }
+            }
+            in.skipChildren(); // a scalar shown from an object or array still has to be stepped over
+            return true;
+        }
+
+        private boolean skip() throws IOException {
+            in.skipChildren();
+            return false;
+        }
+
+        private void fallback(Field field) throws IOException {
+            switch (field.fallback()) {
+                case Integer number -> out.writeNumberField(field.label(), number);
+                case Boolean flag -> out.writeBooleanField(field.label(), flag);
+                default -> out.writeStringField(field.label(), field.fallback().toString());
+            }
+        }
+    }
+
+    private static Field number(String name, String label, Integer fallback) {
+        return new Field(name, label, Kind.NUMBER, fallback, null);
+    }
+
+    private static Field text(String name, String label, String fallback) {
+        return new Field(name, label, Kind.TEXT, fallback, null);
+    }
+
+    private static Field flag(String name, String label, Boolean fallback) {
+        return new Field(name, label, Kind.FLAG, fallback, null);
+    }
+
+    private static Field point(String name, String label) {
+        return new Field(name, label, Kind.POINT, null, null);
+    }
+
+    private static Field object(String name, String label, Schema schema) {
+        return new Field(name, label, Kind.OBJECT, null, schema);
+    }
+
+    private static Field list(String name, String label, Schema schema) {
+        return new Field(name, label, Kind.LIST, null, schema);
+    }
+}
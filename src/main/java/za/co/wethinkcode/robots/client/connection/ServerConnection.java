@@ -1,14 +1,25 @@
 package za.co.wethinkcode.robots.client.connection;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
 
 import za.co.wethinkcode.robots.client.command.CommandBuilder;
 
@@ -17,14 +28,26 @@ import za.co.wethinkcode.robots.client.command.CommandBuilder;
  * - opens a socket
  * - sends commands
  * - gets responses
- * - formats responses to be easier to read
+ * - formats responses to be easier to read, streaming them so no tree is built
+ * - can switch to binary Smile frames if the server supports them
  */
 public class ServerConnection implements AutoCloseable {
+    // Smile without its per-message header, since every frame carries a length prefix
+    private static final ObjectMapper SMILE = new ObjectMapper(SmileFactory.builder()
+            .disable(SmileGenerator.Feature.WRITE_HEADER)
+            .disable(SmileParser.Feature.REQUIRE_HEADER)
+            .build());
+    private static final int MAX_FRAME_LENGTH = 1024 * 1024;
+
     private final Socket socket;
     private final PrintWriter out;
     private final BufferedReader in;
     private final ObjectMapper mapper;
     private final CommandBuilder commandBuilder;
+    private final ResponseFormatter formatter = new ResponseFormatter();
+    private boolean raw;
+    private DataInputStream binaryIn;   // set once binary frames are negotiated
+    private DataOutputStream binaryOut;
 
     /**
      * connect to the server using host + port
@@ -37,6 +60,17 @@ public class ServerConnection implements AutoCloseable {
         this.commandBuilder = new CommandBuilder();
     }
 
+    /**
+     * connect and ask the server for binary frames if binary is true
+     * falls back to JSON if the server says no
+     */
+    public ServerConnection(String host, int port, boolean binary) throws Exception {
+        this(host, port);
+        if (binary) {
+            negotiateBinary();
+        }
+    }
+
     // test constructor - inject mocks
     public ServerConnection(Socket socket, CommandBuilder builder, BufferedReader in, PrintWriter out) {
         this.socket = socket;
@@ -47,291 +81,193 @@ public class ServerConnection implements AutoCloseable {
     }
 
     /**
-     * take user input -> build command -> send to server -> return formatted response
+     * ask the server to switch this connection to length-prefixed Smile frames
+     * must be called before any other command, while nothing else is in flight
+     *
+     * @return true if the server agreed, false if we stay on newline JSON
      */
-    public String sendCommand(String input) throws Exception {
-        JsonNode request = commandBuilder.buildCommand(input);
-        if (request == null) {
-            return "Invalid command format";
-        }
-
-        // send to server
+    public final boolean negotiateBinary() throws Exception {
+        ObjectNode request = mapper.createObjectNode().put("command", "protocol");
+        request.putArray("arguments").add("smile");
         out.println(mapper.writeValueAsString(request));
 
-        // wait for server reply
-        String response = in.readLine();
-        if (response == null) {
+        String reply = in.readLine();
+        if (reply == null) {
             throw new Exception("Server disconnected");
         }
+        JsonNode response = mapper.readTree(reply);
+        if (!"OK".equals(response.path("result").asText())
+                || !"smile".equals(response.path("data").path("protocol").asText())) {
+            return false; // older server, it answered with an error
+        }
 
-        // turn raw json into pretty string
-        return formatResponse(mapper.readTree(response));
+        // the server sends nothing until we do, so the reader has nothing buffered past the reply
+        binaryIn = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        binaryOut = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        return true;
     }
 
     /**
-     * format the response from server
-     * splits into smaller helpers so its not one long mess
+     * raw mode skips formatting: responses come back as the server's compact JSON
+     * for programs that read them, not people
      */
-    public String formatResponse(JsonNode response) {
-        ObjectNode resultNode = mapper.createObjectNode();
-
-        addResultInfo(response, resultNode);
-        addAvailableMakes(response, resultNode);
-        addDataSection(response, resultNode);
-        addStateSection(response, resultNode);
-
-        try {
-            return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(resultNode);
-        } catch (Exception e) {
-            return response.toString();
-        }
+    public void setRaw(boolean raw) {
+        this.raw = raw;
     }
 
+    public boolean isRaw() {
+        return raw;
+    }
 
-    /**
-     * adds the main "Result" info from server response
-     * also checks for special hints like "reload" messages
-     */
-    private void addResultInfo(JsonNode response, ObjectNode resultNode) {
-        String result = response.has("result") ? response.get("result").asText() : "Unknown";
-        resultNode.put("Result", result);
-
-        // if there's a message and it says reload, add extra note
-        if (response.has("data") && response.get("data").has("message")) {
-            String msg = response.get("data").get("message").asText().toLowerCase();
-            if (msg.contains("reload")) {
-                resultNode.put("ActionRequired", "Please reload before firing again");
-            }
-        }
+    /** true once binary frames are in use */
+    public boolean isBinary() {
+        return binaryOut != null;
     }
 
     /**
-     * adds the "available_makes" list if server sent it
-     * includes shots, shields, maxShots info
+     * take user input -> build command -> send to server -> return formatted response
      */
-    private void addAvailableMakes(JsonNode response, ObjectNode resultNode) {
-        if (response.has("available_makes") && response.get("available_makes").isArray()) {
-            ArrayNode makesArray = mapper.createArrayNode();
-            for (JsonNode make : response.get("available_makes")) {
-                ObjectNode makeNode = mapper.createObjectNode();
-                makeNode.put("make", make.get("make").asText());
-                makeNode.put("shots", make.get("shots").asInt());
-                makeNode.put("shields", make.get("shields").asInt());
-                makeNode.put("maxShots", make.get("maxshot").asInt());
-                makesArray.add(makeNode);
-            }
-            resultNode.set("AvailableMakes", makesArray);
+    public String sendCommand(String input) throws Exception {
+        JsonNode request = commandBuilder.buildCommand(input);
+        if (request == null) {
+            return "Invalid command format";
         }
+
+        write(request);
+        flush();
+        // turn raw json into pretty string, unless raw mode is on
+        return respond();
     }
 
     /**
-     * formats the "data" section from server into readable nodes
+     * take user input -> build command -> send to server -> return the server's JSON as is
+     * for programs like the load generator that read the result themselves
+     *
+     * @return the response, or null if the input does not build a command
      */
-    private void addDataSection(JsonNode response, ObjectNode resultNode) {
-        if (!response.has("data")) return;
-
-        ObjectNode dataNode = mapper.createObjectNode();
-        JsonNode data = response.get("data");
-
-        // break data down into smaller pieces
-        addRobots(data, dataNode);
-        addObstacles(data, dataNode);
-        addNumbers(data, dataNode);
-        addTexts(data, dataNode);
-        addBooleans(data, dataNode);
-        addStartEnd(data, dataNode);
-        addCommands(data, dataNode);
-        addPosition(data, dataNode);
-        addObjects(data, dataNode);
-
-        resultNode.set("Data", dataNode);
+    public JsonNode sendRequest(String input) throws Exception {
+        JsonNode request = commandBuilder.buildCommand(input);
+        if (request == null) {
+            return null;
+        }
+        return exchange(request);
     }
 
     /**
-     * formats the "state" section from server (your robot's info)
-     * includes position, direction, shields, shots, dead status
+     * send several commands without waiting between them (pipelining)
+     * the server answers in order, so responses line up with the inputs
+     * inputs that don't build a command get "Invalid command format" and are not sent
      */
-    private void addStateSection(JsonNode response, ObjectNode resultNode) {
-        if (!response.has("state")) return;
-
-        ObjectNode stateNode = mapper.createObjectNode();
-        JsonNode state = response.get("state");
-
-        // position
-        if (state.has("position") && state.get("position").isArray()) {
-            ArrayNode pos = mapper.createArrayNode();
-            pos.add(state.get("position").get(0).asInt());
-            pos.add(state.get("position").get(1).asInt());
-            stateNode.set("Position", pos);
+    public List<String> sendCommands(List<String> inputs) throws Exception {
+        List<JsonNode> requests = new ArrayList<>();
+        for (String input : inputs) {
+            requests.add(commandBuilder.buildCommand(input));
         }
 
-        stateNode.put("Direction", state.has("direction") ? state.get("direction").asText() : "Unknown");
-        stateNode.put("Shields", state.has("shields") ? state.get("shields").asInt() : 0);
-        stateNode.put("Shots", state.has("shots") ? state.get("shots").asInt() : 0);
-        stateNode.put("MaxShots", state.has("maxShots") ? state.get("maxShots").asInt() : 0);
-        stateNode.put("Status", state.has("status") ? state.get("status").asText() : "Unknown");
-
-        // if robot is dead
-        if (state.has("dead") && state.get("dead").asBoolean()) {
-            stateNode.put("Dead", true);
-            stateNode.put("GameOverMessage", "YOU DIED! Game Over. Disconnecting...");
-        } else {
-            stateNode.put("Dead", false);
+        // write everything first, then read the answers
+        for (JsonNode request : requests) {
+            if (request != null) write(request);
         }
+        flush();
 
-        resultNode.set("State", stateNode);
-    }
-
-
-    /** adds each robot in "robots" array from server */
-    private void addRobots(JsonNode data, ObjectNode dataNode) {
-        if (!data.has("robots") || !data.get("robots").isArray()) return;
-        ArrayNode robotsArray = mapper.createArrayNode();
-
-        for (JsonNode robot : data.get("robots")) {
-            ObjectNode robotNode = mapper.createObjectNode();
-            robotNode.put("name", robot.has("name") ? robot.get("name").asText() : "Unknown");
-
-            if (robot.has("position") && robot.get("position").isArray()) {
-                ArrayNode pos = mapper.createArrayNode();
-                pos.add(robot.get("position").get(0).asInt());
-                pos.add(robot.get("position").get(1).asInt());
-                robotNode.set("position", pos);
-            }
-
-            robotNode.put("direction", robot.has("direction") ? robot.get("direction").asText() : "Unknown");
-            robotNode.put("shields", robot.has("shields") ? robot.get("shields").asInt() : 0);
-            robotNode.put("shots", robot.has("shots") ? robot.get("shots").asInt() : 0);
-            robotNode.put("status", robot.has("status") ? robot.get("status").asText() : "Unknown");
-            robotsArray.add(robotNode);
+        List<String> responses = new ArrayList<>();
+        for (JsonNode request : requests) {
+            responses.add(request == null ? "Invalid command format" : respond());
         }
-        dataNode.set("Robots", robotsArray);
+        return responses;
     }
 
-    /** adds obstacles info to data section */
-    private void addObstacles(JsonNode data, ObjectNode dataNode) {
-        if (!data.has("obstacles") || !data.get("obstacles").isArray()) return;
-        ArrayNode obsArray = mapper.createArrayNode();
-
-        for (JsonNode obs : data.get("obstacles")) {
-            ObjectNode obsNode = mapper.createObjectNode();
-            obsNode.put("type", obs.has("obstacleType") ? obs.get("obstacleType").asText() : "Unknown");
-
-            if (obs.has("corners")) {
-                ObjectNode cornersNode = mapper.createObjectNode();
-                JsonNode corners = obs.get("corners");
-                addCorner(corners, "topLeft", cornersNode);
-                addCorner(corners, "topRight", cornersNode);
-                addCorner(corners, "bottomLeft", cornersNode);
-                addCorner(corners, "bottomRight", cornersNode);
-                obsNode.set("corners", cornersNode);
-            }
-
-            obsNode.put("canKillYou", obs.get("canKillYou").asBoolean());
-            obsNode.put("canWalkThrough", obs.get("canWalkThrough").asBoolean());
-            obsNode.put("canSeePast", obs.get("canSeePast").asBoolean());
-            obsArray.add(obsNode);
-        }
-        dataNode.set("Obstacles", obsArray);
+    /**
+     * send one request and wait for its response, in whichever format was negotiated
+     */
+    private JsonNode exchange(JsonNode request) throws Exception {
+        write(request);
+        flush();
+        return read();
     }
 
-    /** helper to add one corner of obstacle */
-    private void addCorner(JsonNode corners, String name, ObjectNode cornersNode) {
-        if (corners.has(name)) {
-            ObjectNode corner = mapper.createObjectNode();
-            corner.put("x", corners.get(name).get("x").asInt());
-            corner.put("y", corners.get(name).get("y").asInt());
-            cornersNode.set(name, corner);
+    private void write(JsonNode request) throws Exception {
+        if (binaryOut != null) {
+            byte[] payload = SMILE.writeValueAsBytes(request);
+            binaryOut.writeInt(payload.length);
+            binaryOut.write(payload);
+        } else {
+            // send to server
+            out.println(mapper.writeValueAsString(request));
         }
     }
 
-    /** adds numeric fields like shots, steps, shields */
-    private void addNumbers(JsonNode data, ObjectNode dataNode) {
-        String[] intFields = {
-                "maxDistance", "distanceTraveled", "startShots", "shotsUsed",
-                "remainingShots", "steps", "visibility", "reload", "repair", "shields"
-        };
-        for (String field : intFields) {
-            if (data.has(field)) dataNode.put(field, data.get(field).asInt());
+    private void flush() throws Exception {
+        if (binaryOut != null) {
+            binaryOut.flush();
         }
     }
 
-    /** adds text fields like outcome, message, robotName */
-    private void addTexts(JsonNode data, ObjectNode dataNode) {
-        String[] textFields = {
-                "target", "outcome", "world", "message", "robotName",
-                "oldDirection", "newDirection", "turn"
-        };
-        for (String field : textFields) {
-            if (data.has(field)) dataNode.put(field, data.get(field).asText());
+    private JsonNode read() throws Exception {
+        if (binaryIn != null) {
+            return SMILE.readTree(readFrame());
         }
+        return mapper.readTree(readLine());
     }
 
-    /** adds booleans like "fired" */
-    private void addBooleans(JsonNode data, ObjectNode dataNode) {
-        if (data.has("fired")) {
-            dataNode.put("fired", data.get("fired").asBoolean());
+    /**
+     * read one response and format it straight off the wire, without building a tree
+     * in raw mode JSON comes back exactly as the server sent it
+     */
+    private String respond() throws Exception {
+        if (binaryIn != null) {
+            try (JsonParser parser = SMILE.createParser(readFrame())) {
+                return raw ? formatter.copy(parser) : formatter.format(parser);
+            }
         }
-    }
-
-    /** adds start and end positions */
-    private void addStartEnd(JsonNode data, ObjectNode dataNode) {
-        if (data.has("start") && data.get("start").isObject()) {
-            ObjectNode startNode = mapper.createObjectNode();
-            startNode.put("x", data.get("start").has("x") ? data.get("start").get("x").asInt() : -1);
-            startNode.put("y", data.get("start").has("y") ? data.get("start").get("y").asInt() : -1);
-            dataNode.set("Start", startNode);
+        String line = readLine();
+        if (raw) {
+            return line;
         }
-        if (data.has("end") && data.get("end").isObject()) {
-            ObjectNode endNode = mapper.createObjectNode();
-            endNode.put("x", data.get("end").has("x") ? data.get("end").get("x").asInt() : -1);
-            endNode.put("y", data.get("end").has("y") ? data.get("end").get("y").asInt() : -1);
-            dataNode.set("End", endNode);
+        try (JsonParser parser = mapper.createParser(line)) {
+            return formatter.format(parser);
         }
     }
 
-    /** adds commands list */
-    private void addCommands(JsonNode data, ObjectNode dataNode) {
-        if (!data.has("commands") || !data.get("commands").isArray()) return;
-        ArrayNode commandsArray = mapper.createArrayNode();
-
-        for (JsonNode cmd : data.get("commands")) {
-            ObjectNode cmdNode = mapper.createObjectNode();
-            cmdNode.put("command", cmd.get("command").asText());
-            cmdNode.put("description", cmd.get("description").asText());
-            commandsArray.add(cmdNode);
+    private byte[] readFrame() throws Exception {
+        int length;
+        try {
+            length = binaryIn.readInt();
+        } catch (EOFException e) {
+            throw new Exception("Server disconnected");
+        }
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new Exception("Bad frame length from server: " + length);
         }
-        dataNode.set("Commands", commandsArray);
+        byte[] frame = new byte[length];
+        binaryIn.readFully(frame);
+        return frame;
     }
 
-    /** adds robot position */
-    private void addPosition(JsonNode data, ObjectNode dataNode) {
-        if (data.has("position") && data.get("position").isArray()) {
-            ArrayNode pos = mapper.createArrayNode();
-            pos.add(data.get("position").get(0).asInt());
-            pos.add(data.get("position").get(1).asInt());
-            dataNode.set("Position", pos);
+    private String readLine() throws Exception {
+        // wait for server reply
+        String response = in.readLine();
+        if (response == null) {
+            throw new Exception("Server disconnected");
         }
+        return response;
     }
 
-    /** adds objects info in view */
-    private void addObjects(JsonNode data, ObjectNode dataNode) {
-        if (!data.has("objects") || !data.get("objects").isArray()) return;
-        ArrayNode objsArray = mapper.createArrayNode();
-
-        for (JsonNode obj : data.get("objects")) {
-            ObjectNode objNode = mapper.createObjectNode();
-            objNode.put("type", obj.has("type") ? obj.get("type").asText() : "Unknown");
-            objNode.put("direction", obj.has("direction") ? obj.get("direction").asText() : "Unknown");
-            objNode.put("distance", obj.has("distance") ? obj.get("distance").asInt() : 0);
-            objsArray.add(objNode);
+    /**
+     * format a response that was already parsed, for callers that hold a JsonNode
+     */
+    public String formatResponse(JsonNode response) {
+        try (JsonParser parser = response.traverse()) {
+            return formatter.format(parser);
+        } catch (Exception e) {
+            return response.toString();
         }
-        dataNode.set("Objects", objsArray);
     }
 
     /** close everything nice */
     @Override
     public void close() {
+        try { if (binaryOut != null) binaryOut.close(); } catch (Exception ignored) {}
         try { in.close(); } catch (Exception ignored) {}
         try { out.close(); } catch (Exception ignored) {}
         try { socket.close(); } catch (Exception ignored) {}
@@ -0,0 +1,87 @@
+package za.co.wethinkcode.robots.client.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Weighted mix of robot commands for load-generator bots.
+ * Parsed from a spec like "forward=3,turn=2,look=3,fire=1,repair=1"; each pick returns a
+ * command line ready for the CommandBuilder, e.g. "forward 1" or "turn left".
+ */
+public class CommandMix {
+    public static final String DEFAULT = "forward=3,turn=2,look=3,fire=1,repair=1";
+
+    private static final List<String> COMMANDS = List.of(
+            "forward", "back", "turn", "look", "state", "fire", "repair", "reload", "orientation");
+
+    private final List<String> names;
+    private final int[] cumulative; // running total of weights, one per name
+    private final int total;
+
+    private CommandMix(List<String> names, int[] cumulative) {
+        this.names = names;
+        this.cumulative = cumulative;
+        this.total = cumulative[cumulative.length - 1];
+    }
+
+    /**
+     * Parses a mix spec.
+     *
+     * @param spec Comma-separated command=weight pairs with positive integer weights.
+     * @throws IllegalArgumentException if the spec names an unknown command or a bad weight.
+     */
+    public static CommandMix parse(String spec) {
+        List<String> names = new ArrayList<>();
+        List<Integer> totals = new ArrayList<>();
+        int total = 0;
+        for (String part : spec.split(",")) {
+            if (part.isBlank()) continue;
+            String[] pair = part.trim().split("=");
+            String name = pair[0].trim().toLowerCase();
+            if (!COMMANDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown command in mix: '" + name + "'. Use one of " + COMMANDS);
+            }
+            int weight;
+            try {
+                weight = pair.length == 2 ? Integer.parseInt(pair[1].trim()) : 1;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Bad weight for " + name + ": '" + pair[1].trim() + "'");
+            }
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weight for " + name + " must be positive: " + weight);
+            }
+            total += weight;
+            names.add(name);
+            totals.add(total);
+        }
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("Command mix is empty");
+        }
+        return new CommandMix(names, totals.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Picks the next command line, with probability proportional to its weight.
+     */
+    public String next(RandomGenerator random) {
+        int ticket = random.nextInt(total);
+        int i = 0;
+        while (cumulative[i] <= ticket) {
+            i++;
+        }
+        return lineFor(names.get(i), random);
+    }
+
+    private static String lineFor(String name, RandomGenerator random) {
+        return switch (name) {
+            case "forward", "back" -> name + " 1";
+            case "turn" -> random.nextBoolean() ? "turn left" : "turn right";
+            default -> name;
+        };
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+}
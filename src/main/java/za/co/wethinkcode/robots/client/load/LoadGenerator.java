@@ -0,0 +1,195 @@
+package za.co.wethinkcode.robots.client.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import picocli.CommandLine;
+import picocli.CommandLine.Option;
+import za.co.wethinkcode.robots.client.connection.ServerConnection;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless load generator: a swarm of scripted bots, each on its own virtual thread with its
+ * own ServerConnection, sending a weighted command mix at a fixed total rate.
+ * <p>
+ * Bots are open-loop: each one has a schedule of send times and measures latency from the
+ * time a request was due, not from when it was actually sent, so a stalled server shows up
+ * as latency instead of silently lowering the request rate. A bot whose robot dies or whose
+ * connection drops reconnects and launches a new robot at its next slot.
+ */
+public class LoadGenerator {
+    private final String host;
+    private final int port;
+    private final int bots;
+    private final double rate;
+    private final Duration duration;
+    private final CommandMix mix;
+    private final String make;
+    private final boolean binary;
+    private final LoadReport report;
+    private long elapsedNanos;
+
+    @CommandLine.Command(name = "load", description = "Robot World load generator")
+    static class LoadCommand {
+        @Option(names = {"--host"}, description = "Server host", defaultValue = "127.0.0.1")
+        private String host;
+
+        @Option(names = {"--port"}, description = "Server port", defaultValue = "5000")
+        private int port;
+
+        @Option(names = {"--bots"}, description = "Number of concurrent bots", defaultValue = "100")
+        private int bots;
+
+        @Option(names = {"--rate"}, description = "Total requests per second across all bots", defaultValue = "1000")
+        private double rate;
+
+        @Option(names = {"--duration"}, description = "Length of the run in seconds", defaultValue = "30")
+        private int seconds;
+
+        @Option(names = {"--mix"}, description = "Command weights, e.g. " + CommandMix.DEFAULT,
+                defaultValue = CommandMix.DEFAULT)
+        private String mix;
+
+        @Option(names = {"--make"}, description = "Make of robot every bot launches", defaultValue = "sniper")
+        private String make;
+
+        @Option(names = {"--binary"}, description = "Use binary Smile frames if the server supports them")
+        private boolean binary;
+    }
+
+    public LoadGenerator(String host, int port, int bots, double rate, Duration duration,
+                         CommandMix mix, String make, boolean binary) {
+        if (bots <= 0 || rate <= 0) {
+            throw new IllegalArgumentException("Bots and rate must be positive");
+        }
+        this.host = host;
+        this.port = port;
+        this.bots = bots;
+        this.rate = rate;
+        this.duration = duration;
+        this.mix = mix;
+        this.make = make;
+        this.binary = binary;
+        this.report = new LoadReport();
+    }
+
+    public static void main(String[] args) {
+        LoadCommand command = new LoadCommand();
+        new CommandLine(command).parseArgs(args);
+
+        LoadGenerator generator;
+        try {
+            generator = new LoadGenerator(command.host, command.port, command.bots, command.rate,
+                    Duration.ofSeconds(command.seconds), CommandMix.parse(command.mix), command.make, command.binary);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        System.out.println("Running " + command.bots + " bots at " + command.rate + " req/s for "
+                + command.seconds + "s against " + command.host + ":" + command.port);
+        LoadReport report = generator.run();
+        System.out.print(report.format(generator.getElapsedNanos()));
+    }
+
+    /**
+     * Runs every bot until the duration is up and waits for them to finish.
+     *
+     * @return the shared report.
+     */
+    public LoadReport run() {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        long interval = (long) (bots * 1e9 / rate); // each bot's share of the rate
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < bots; i++) {
+                int id = i;
+                long first = start + interval * i / bots; // stagger bots across one interval
+                executor.execute(() -> runBot(id, first, interval, deadline));
+            }
+        } // close() waits for every bot
+        elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private void runBot(int id, long first, long interval, long deadline) {
+        SplittableRandom random = new SplittableRandom(id);
+        ServerConnection connection = null;
+        int lives = 0;
+        try {
+            // Slow commands (repair, reload) leave a bot behind schedule; stop at the deadline anyway
+            for (long due = first; due < deadline && System.nanoTime() < deadline; due += interval) {
+                LockSupport.parkNanos(due - System.nanoTime());
+
+                if (connection == null) {
+                    connection = launch("bot" + id + "-" + lives++, due);
+                    continue;
+                }
+
+                String line = mix.next(random);
+                String command = line.split(" ")[0];
+                try {
+                    JsonNode response = connection.sendRequest(line);
+                    report.record(command, System.nanoTime() - due, !"OK".equals(response.path("result").asText()));
+                    if ("DEAD".equals(response.path("state").path("status").asText())) {
+                        close(connection);
+                        connection = null;
+                    }
+                } catch (Exception e) {
+                    report.record(command, System.nanoTime() - due, true);
+                    close(connection);
+                    connection = null;
+                }
+            }
+        } finally {
+            if (connection != null) {
+                try {
+                    connection.sendRequest("quit");
+                } catch (Exception ignored) {
+                }
+                close(connection);
+            }
+        }
+    }
+
+    /**
+     * Connects and launches a robot.
+     *
+     * @return the connection, or null if the connection or launch failed.
+     */
+    private ServerConnection launch(String name, long due) {
+        ServerConnection connection = null;
+        try {
+            connection = new ServerConnection(host, port, binary);
+            JsonNode response = connection.sendRequest("launch " + make + " " + name);
+            boolean ok = "OK".equals(response.path("result").asText());
+            report.record("launch", System.nanoTime() - due, !ok);
+            if (ok) {
+                return connection;
+            }
+        } catch (Exception e) {
+            report.record("launch", System.nanoTime() - due, true);
+        }
+        close(connection);
+        return null;
+    }
+
+    private static void close(ServerConnection connection) {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    public LoadReport getReport() {
+        return report;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
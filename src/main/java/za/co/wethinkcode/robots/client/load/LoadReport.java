@@ -0,0 +1,87 @@
+package za.co.wethinkcode.robots.client.load;
+
+import za.co.wethinkcode.robots.server.stats.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-command results of a load run: a latency histogram and an error count for each command.
+ * Recording is lock-free, so every bot records straight into one shared report.
+ */
+public class LoadReport {
+    private final Map<String, CommandResults> results = new ConcurrentHashMap<>();
+
+    /**
+     * Records one request.
+     *
+     * @param command Command name, e.g. "look".
+     * @param nanos   Latency in nanoseconds.
+     * @param failed  True if the server answered with an error or the connection dropped.
+     */
+    public void record(String command, long nanos, boolean failed) {
+        CommandResults r = results.computeIfAbsent(command, name -> new CommandResults());
+        r.latencies.record(nanos / 1_000);
+        if (failed) {
+            r.errors.increment();
+        }
+    }
+
+    public long count(String command) {
+        CommandResults r = results.get(command);
+        return r == null ? 0 : r.latencies.count();
+    }
+
+    public long errors(String command) {
+        CommandResults r = results.get(command);
+        return r == null ? 0 : r.errors.sum();
+    }
+
+    /**
+     * Returns the latency at a percentile, in microseconds.
+     */
+    public long percentile(String command, double percentile) {
+        CommandResults r = results.get(command);
+        return r == null ? 0 : r.latencies.valueAtPercentile(percentile);
+    }
+
+    /**
+     * Formats a table with one row per command plus a total.
+     *
+     * @param elapsedNanos Length of the run, for throughput.
+     */
+    public String format(long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-12s %10s %8s %7s %10s %10s %10s %10s %10s%n",
+                "command", "requests", "errors", "err%", "req/s", "p50 us", "p90 us", "p99 us", "max us"));
+
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<String, CommandResults> entry : new TreeMap<>(results).entrySet()) {
+            LatencyHistogram latencies = entry.getValue().latencies;
+            long count = latencies.count();
+            long failed = entry.getValue().errors.sum();
+            requests += count;
+            errors += failed;
+            table.append(String.format("%-12s %10d %8d %6.2f%% %10.1f %10d %10d %10d %10d%n",
+                    entry.getKey(), count, failed, percent(failed, count), count / seconds,
+                    latencies.valueAtPercentile(50), latencies.valueAtPercentile(90),
+                    latencies.valueAtPercentile(99), latencies.valueAtPercentile(100)));
+        }
+        table.append(String.format("%-12s %10d %8d %6.2f%% %10.1f%n",
+                "total", requests, errors, percent(errors, requests), requests / seconds));
+        return table.toString();
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    private static class CommandResults {
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+    }
+}
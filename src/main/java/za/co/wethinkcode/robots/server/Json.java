@@ -0,0 +1,100 @@
+package za.co.wethinkcode.robots.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The server's single, shared Jackson configuration.
+ * ObjectMapper is thread-safe once configured and expensive to create (each one builds its
+ * own serializer caches), so every command, the world and the network front ends share
+ * this one. The pre-built reader and writers skip the per-call configuration lookup.
+ */
+public final class Json {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader READER = MAPPER.readerFor(JsonNode.class);
+    private static final ObjectWriter WRITER = MAPPER.writer();
+    private static final ObjectWriter PRETTY_WRITER = MAPPER.writerWithDefaultPrettyPrinter();
+    // Frames are length-prefixed, so the 4-byte Smile header on every message is dropped
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(SmileFactory.builder()
+            .disable(SmileGenerator.Feature.WRITE_HEADER)
+            .disable(SmileParser.Feature.REQUIRE_HEADER)
+            .build());
+    private static final ObjectReader SMILE_READER = SMILE_MAPPER.readerFor(JsonNode.class);
+
+    private Json() {
+    }
+
+    /**
+     * Writes JSON into a generator; lets streaming code also produce trees.
+     */
+    public interface Writer {
+        void write(JsonGenerator out) throws IOException;
+    }
+
+    /**
+     * Runs a streaming writer and captures its output as a tree.
+     *
+     * @param writer Code that writes exactly one JSON value.
+     * @return the value as a JsonNode.
+     */
+    public static JsonNode toTree(Writer writer) {
+        try (TokenBuffer buffer = new TokenBuffer(MAPPER, false)) {
+            writer.write(buffer);
+            return MAPPER.readTree(buffer.asParser());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the shared mapper, for building nodes. Do not reconfigure it.
+     */
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * Returns a reader that parses requests into JsonNode trees.
+     */
+    public static ObjectReader reader() {
+        return READER;
+    }
+
+    /**
+     * Returns a writer for compact, single-line responses.
+     */
+    public static ObjectWriter writer() {
+        return WRITER;
+    }
+
+    /**
+     * Returns a writer for indented output, e.g. on the admin console.
+     */
+    public static ObjectWriter prettyWriter() {
+        return PRETTY_WRITER;
+    }
+
+    /**
+     * Returns the mapper for Smile (binary JSON) frames, used once a client negotiates it.
+     */
+    public static ObjectMapper smileMapper() {
+        return SMILE_MAPPER;
+    }
+
+    /**
+     * Returns a reader that parses Smile frames into JsonNode trees.
+     */
+    public static ObjectReader smileReader() {
+        return SMILE_READER;
+    }
+}
@@ -6,20 +6,27 @@ import picocli.CommandLine.Option;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.Scanner;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import za.co.wethinkcode.flow.Recorder;
 import za.co.wethinkcode.robots.server.commands.Command;
 import za.co.wethinkcode.robots.server.commands.ServerCommands;
+import za.co.wethinkcode.robots.server.commands.StreamingCommand;
 import za.co.wethinkcode.robots.server.networking.ClientHandler;
+import za.co.wethinkcode.robots.server.networking.NioServer;
+import za.co.wethinkcode.robots.server.world.SimulationLoop;
 import za.co.wethinkcode.robots.server.world.World;
 import za.co.wethinkcode.robots.server.world.WorldConfig;
 
@@ -28,7 +35,7 @@ import za.co.wethinkcode.robots.server.world.WorldConfig;
  * Responsibilities:
  * 1. Parse command-line arguments for port and config path.
  * 2. Load world configuration.
- * 3. Accept client connections and delegate to ClientHandler.
+ * 3. Accept client connections and delegate to ClientHandler (or the NIO event loops).
  * 4. Handle console input for server admin commands.
  */
 public class Server {
@@ -40,40 +47,91 @@ public class Server {
 
         @Option(names = {"-c", "--config"}, description = "Path to world config file")
         private String configPath;
+
+        @Option(names = {"--nio"}, description = "Serve clients from non-blocking selector threads")
+        private boolean nio;
+
+        @Option(names = {"--virtual-threads"}, description = "Run each client handler on its own virtual thread")
+        private boolean virtualThreads;
+
+        @Option(names = {"--event-loops"}, description = "Number of selector threads in NIO mode")
+        private int eventLoops = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        @Option(names = {"--tick-ms"}, description = "Apply commands on one simulation thread every N ms (0 = off)")
+        private int tickMillis;
+
+        @Option(names = {"--seed"}, description = "Seed for obstacles and launch positions (overrides world.seed)")
+        private Long seed;
     }
 
     public static void main(String[] args) {
-        ServerCommand command = new ServerCommand();
-        new CommandLine(command).parseArgs(args);
+        ServerCommand command;
+        try {
+            command = parseOptions(args);
+        } catch (CommandLine.ParameterException e) {
+            System.err.println(e.getMessage());
+            e.getCommandLine().usage(System.err);
+            return;
+        }
 
         try {
             String configPath = resolveConfigPath(command.configPath);
-            WorldConfig config = WorldConfig.loadFromFile(configPath);
+            WorldConfig config = WorldConfig.loadFromFile(configPath, command.seed);
             World gameWorld = new World(config);
+            System.out.println("World seed: " + config.getSeed());
 
-            startServer(command.port, gameWorld);
+            SimulationLoop loop = null;
+            if (command.tickMillis > 0) {
+                loop = new SimulationLoop(command.tickMillis);
+                loop.start(gameWorld);
+                System.out.println("Single-writer simulation ticking every " + command.tickMillis + " ms");
+            }
+
+            if (command.nio) {
+                startNioServer(command.port, command.eventLoops, gameWorld, loop);
+            } else {
+                startServer(command.port, gameWorld, command.virtualThreads, loop);
+            }
         } catch (Exception e) {
             System.err.println("Failed to start server: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Parses the command line and rejects flags that cannot be used together.
+     *
+     * @param args Command-line arguments.
+     * @return the parsed options.
+     * @throws CommandLine.ParameterException if an option is malformed, or --virtual-threads
+     *         is combined with --nio, whose selector threads it would not apply to.
+     */
+    static ServerCommand parseOptions(String... args) {
+        ServerCommand command = new ServerCommand();
+        CommandLine commandLine = new CommandLine(command);
+        commandLine.parseArgs(args);
+        if (command.nio && command.virtualThreads) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "--virtual-threads cannot be used with --nio: NIO mode serves clients from selector threads");
+        }
+        return command;
+    }
+
     /**
      * Starts the server: listens for clients and handles console input.
      *
-     * @param port      TCP port to listen on.
-     * @param gameWorld The game world instance.
+     * @param port           TCP port to listen on.
+     * @param gameWorld      The game world instance.
+     * @param virtualThreads If true, handlers run on virtual threads instead of a cached platform pool.
+     * @param loop           The simulation loop that owns the world, or null.
      * @throws IOException If ServerSocket fails.
      */
-    private static void startServer(int port, World gameWorld) throws IOException {
-        ExecutorService executor = Executors.newCachedThreadPool();
+    private static void startServer(int port, World gameWorld, boolean virtualThreads, SimulationLoop loop)
+            throws IOException {
+        ExecutorService executor = createHandlerExecutor(virtualThreads);
         try (ServerSocket serverSocket = new ServerSocket(port)) {
-            System.out.println("Server started on port " + port);
-
-            // Start console input thread
-            Thread consoleThread = new Thread(() -> handleConsoleInput(gameWorld));
-            consoleThread.setDaemon(true);
-            consoleThread.start();
+            System.out.println("Server started on port " + port + (virtualThreads ? " (virtual threads)" : ""));
+            startConsoleThread(gameWorld, loop);
 
             // Accept client connections
             while (true) {
@@ -86,6 +144,49 @@ public class Server {
         }
     }
 
+    /**
+     * Creates the executor that runs ClientHandlers.
+     * With virtual threads a handler blocked in readLine or parked in a timed command
+     * releases its carrier thread, so idle clients no longer cost an OS thread each.
+     *
+     * @param virtualThreads true for one virtual thread per client.
+     * @return the handler executor.
+     */
+    static ExecutorService createHandlerExecutor(boolean virtualThreads) {
+        return virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Starts the non-blocking server: a fixed number of selector and worker threads
+     * serve every client, instead of one thread per connection.
+     *
+     * @param port       TCP port to listen on.
+     * @param eventLoops Number of selector threads.
+     * @param gameWorld  The game world instance.
+     * @param loop       The simulation loop that owns the world, or null.
+     * @throws IOException If the server channel fails.
+     */
+    private static void startNioServer(int port, int eventLoops, World gameWorld, SimulationLoop loop)
+            throws IOException {
+        startConsoleThread(gameWorld, loop);
+        int workers = Runtime.getRuntime().availableProcessors();
+        new NioServer(port, gameWorld, eventLoops, workers).serve();
+    }
+
+    /**
+     * Starts the daemon thread that reads server admin commands.
+     *
+     * @param gameWorld The game world instance.
+     * @param loop      The simulation loop that owns the world, or null.
+     */
+    private static void startConsoleThread(World gameWorld, SimulationLoop loop) {
+        Thread consoleThread = new Thread(() -> handleConsoleInput(gameWorld, loop));
+        consoleThread.setDaemon(true);
+        consoleThread.start();
+    }
+
     /**
      * Resolves the path to Config.json using several strategies.
      *
@@ -156,10 +257,12 @@ public class Server {
      * Handles console input for server admin commands.
      *
      * @param gameWorld The game world instance.
+     * @param loop      The simulation loop that owns the world, or null; stats reports its ticks.
      */
-    private static void handleConsoleInput(World gameWorld) {
+    private static void handleConsoleInput(World gameWorld, SimulationLoop loop) {
         Scanner scanner = new Scanner(System.in);
-        System.out.println("Enter server commands (quit, robots, dump)");
+        System.out.println("Enter server commands (quit, robots, dump, stats)");
+        JsonGenerator console = createConsoleGenerator();
 
         while (true) {
             try {
@@ -168,9 +271,16 @@ public class Server {
                 if (input.isEmpty()) continue;
 
                 JsonNode request = createServerCommandRequest(input);
-                Command command = ServerCommands.create(request, gameWorld);
-                JsonNode response = command.execute();
-                System.out.println(response.toPrettyString());
+                Command command = ServerCommands.create(request, gameWorld, loop);
+                if (command instanceof StreamingCommand streaming) {
+                    // Dumps only read the world, so they stream on this thread instead of holding a tree
+                    streaming.writeResponse(console);
+                    console.flush();
+                    System.out.println();
+                } else {
+                    JsonNode response = gameWorld.submit(command::executeAsync).join();
+                    System.out.println(Json.prettyWriter().writeValueAsString(response));
+                }
 
                 if (input.equalsIgnoreCase("quit")) {
                     System.exit(0);
@@ -182,17 +292,33 @@ public class Server {
         }
     }
 
+    private static JsonGenerator createConsoleGenerator() {
+        try {
+            JsonGenerator console = Json.mapper().getFactory().createGenerator(System.out);
+            console.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            console.setPrettyPrinter(new DefaultPrettyPrinter());
+            return console;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Converts raw console input into a JSON request for ServerCommands.
+     * The first word is the command; any further words become the arguments.
      *
      * @param input Raw console input.
      * @return JSON request node.
      */
     static JsonNode createServerCommandRequest(String input) {
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = Json.mapper();
         ObjectNode request = mapper.createObjectNode();
-        request.put("command", input.toLowerCase());
-        request.set("arguments", mapper.createArrayNode());
+        String[] words = input.trim().split("\\s+");
+        request.put("command", words[0].toLowerCase());
+        ArrayNode arguments = request.putArray("arguments");
+        for (int i = 1; i < words.length; i++) {
+            arguments.add(words[i]);
+        }
         return request;
     }
 
@@ -1,9 +1,12 @@
 package za.co.wethinkcode.robots.server.commands;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import za.co.wethinkcode.robots.server.world.World;
 
-public class BackCommand extends ClientCommands {
+import java.io.IOException;
+
+public class BackCommand extends ClientCommands implements StreamingCommand {
     private final String robotName;
     private final JsonNode arguments;
 
@@ -17,4 +20,9 @@ public class BackCommand extends ClientCommands {
     public JsonNode execute() {
         return new ForwardCommand(robotName, arguments, getWorld(), true).execute();
     }
+
+    @Override
+    public boolean writeResponse(JsonGenerator out) throws IOException {
+        return new ForwardCommand(robotName, arguments, getWorld(), true).writeResponse(out);
+    }
 }
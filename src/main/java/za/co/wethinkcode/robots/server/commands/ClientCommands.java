@@ -2,6 +2,7 @@ package za.co.wethinkcode.robots.server.commands;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import za.co.wethinkcode.robots.server.Json;
 import za.co.wethinkcode.robots.server.world.World;
 
 /**
@@ -11,7 +12,6 @@ import za.co.wethinkcode.robots.server.world.World;
  */
 public abstract class ClientCommands implements Command {
     private String argument;
-    private final ObjectMapper mapper;
     private final World gameWorld;
     private final String robotName;
 
@@ -21,7 +21,6 @@ public abstract class ClientCommands implements Command {
     /** Constructor for commands with no arguments */
     public ClientCommands(String robotName, World gameWorld) {
         this.argument = "";
-        this.mapper = new ObjectMapper();
         this.gameWorld = gameWorld;
         this.robotName = robotName;
     }
@@ -44,7 +43,7 @@ public abstract class ClientCommands implements Command {
 
     /** Get the ObjectMapper for building JSON responses */
     protected ObjectMapper getMapper() {
-        return this.mapper;
+        return Json.mapper();
     }
 
     /** Get reference to the game world */
@@ -52,6 +51,21 @@ public abstract class ClientCommands implements Command {
         return this.gameWorld;
     }
 
+    /**
+     * Blocks until a timed command's response is ready.
+     * Refused under a SimulationLoop: there the wait would stall every tick, and the timer
+     * hands its change to the loop, so a wait on the loop's own thread would never end.
+     *
+     * @throws IllegalStateException if a SimulationLoop owns the world; use executeAsync instead.
+     */
+    protected JsonNode awaitTimed() {
+        if (gameWorld.isSingleWriter()) {
+            throw new IllegalStateException(getClass().getSimpleName()
+                    + " waits for the world timer; use executeAsync under a SimulationLoop");
+        }
+        return executeAsync().join();
+    }
+
     /**
      * Factory method to create a concrete command object from a JSON request.
      *
@@ -102,6 +116,7 @@ public abstract class ClientCommands implements Command {
             case "launch" -> new LaunchCommand(robotName, arguments, gameWorld);
             case "forward" -> new ForwardCommand(robotName, arguments, gameWorld);
             case "back" -> new BackCommand(robotName, arguments, gameWorld);
+            case "navigate" -> new NavigateCommand(robotName, arguments, gameWorld);
             case "turn" -> {
                 if (arguments == null || !arguments.isArray() || arguments.size() < 1 || !arguments.get(0).isTextual()) {
                     yield new ErrorResponse("Usage: turn <left|right>", robotName, gameWorld);
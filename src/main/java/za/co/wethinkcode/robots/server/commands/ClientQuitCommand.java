@@ -1,7 +1,6 @@
 package za.co.wethinkcode.robots.server.commands;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import za.co.wethinkcode.robots.server.world.World;
 
@@ -12,7 +11,6 @@ import za.co.wethinkcode.robots.server.world.World;
 public class ClientQuitCommand extends ClientCommands {
     private final World gameWorld;
     private final String robotName;
-    private final ObjectMapper mapper;
 
     /**
      * Constructor
@@ -24,7 +22,6 @@ public class ClientQuitCommand extends ClientCommands {
         super(robotName, gameWorld);
         this.gameWorld = gameWorld;
         this.robotName = robotName;
-        this.mapper = new ObjectMapper();
     }
 
     /**
@@ -38,7 +35,7 @@ public class ClientQuitCommand extends ClientCommands {
         gameWorld.removeOneRobot(robotName);
 
         // Build response
-        ObjectNode response = mapper.createObjectNode();
+        ObjectNode response = getMapper().createObjectNode();
         response.put("result", "OK");
         response.putObject("data").put("message", "Robot shutting down and exiting the world.");
         response.put("exitWorld", "TRUE");
@@ -2,6 +2,18 @@ package za.co.wethinkcode.robots.server.commands;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface Command {
     JsonNode execute();
-}
\ No newline at end of file
+
+    /**
+     * Executes the command without blocking the caller.
+     * Timed commands override this and complete the future when their timer fires.
+     *
+     * @return a future holding the JSON response.
+     */
+    default CompletableFuture<JsonNode> executeAsync() {
+        return CompletableFuture.completedFuture(execute());
+    }
+}
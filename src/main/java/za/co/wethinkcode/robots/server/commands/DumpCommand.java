@@ -1,17 +1,36 @@
 package za.co.wethinkcode.robots.server.commands;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import za.co.wethinkcode.robots.server.Json;
+import za.co.wethinkcode.robots.server.world.DumpFilter;
 import za.co.wethinkcode.robots.server.world.World;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
 /**
  * Command to dump the current state of the world.
- * Returns all relevant world data in a JSON object.
+ * Returns all relevant world data in a JSON object. The dump can be limited with a
+ * {@link DumpFilter} and sent to a file or a host:port socket instead of the response,
+ * in which case it streams straight to the destination without building a tree.
  */
-public class DumpCommand extends ServerCommands {
-    private final ObjectMapper mapper;
+public class DumpCommand extends ServerCommands implements StreamingCommand {
+    public static final String USAGE =
+            "Usage: dump [robots|obstacles] [x1 y1 x2 y2] [> file | > host:port]";
+    private static final Pattern SOCKET_TARGET = Pattern.compile("^[\\w.-]+:\\d+$");
+
     private final World gameWorld;
+    private final DumpFilter filter;
+    private final String target;
 
     /**
      * Constructor
@@ -19,9 +38,72 @@ public class DumpCommand extends ServerCommands {
      * @param gameWorld reference to the world object
      */
     public DumpCommand(World gameWorld) {
+        this(gameWorld, DumpFilter.ALL, null);
+    }
+
+    /**
+     * Constructor for filtered dumps.
+     *
+     * @param gameWorld reference to the world object
+     * @param filter    which robots and obstacles to include
+     * @param target    file path or host:port to write the world state to, or null for the response
+     */
+    public DumpCommand(World gameWorld, DumpFilter filter, String target) {
         super(gameWorld);
         this.gameWorld = gameWorld;
-        this.mapper = new ObjectMapper();
+        this.filter = filter;
+        this.target = target;
+    }
+
+    /**
+     * Builds a dump command from console arguments.
+     *
+     * @param gameWorld reference to the world object
+     * @param arguments JSON array of argument strings, may be null
+     * @return the configured command
+     * @throws IllegalArgumentException if the arguments do not match {@link #USAGE}
+     */
+    public static DumpCommand parse(World gameWorld, JsonNode arguments) {
+        List<String> tokens = new ArrayList<>();
+        if (arguments != null) {
+            for (JsonNode argument : arguments) {
+                tokens.add(argument.asText());
+            }
+        }
+
+        DumpFilter filter = DumpFilter.ALL;
+        boolean kindGiven = false; // robots and obstacles are alternatives, not a list
+        String target = null;
+        List<Integer> box = new ArrayList<>();
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.startsWith(">")) {
+                target = token.length() > 1 ? token.substring(1) : (i + 1 < tokens.size() ? tokens.get(++i) : "");
+                if (target.isBlank() || i != tokens.size() - 1) {
+                    throw new IllegalArgumentException(USAGE);
+                }
+            } else if (token.equalsIgnoreCase("robots") || token.equalsIgnoreCase("obstacles")) {
+                if (kindGiven) {
+                    throw new IllegalArgumentException(USAGE);
+                }
+                kindGiven = true;
+                filter = token.equalsIgnoreCase("robots") ? filter.robotsOnly() : filter.obstaclesOnly();
+            } else {
+                try {
+                    box.add(Integer.parseInt(token));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException(USAGE);
+                }
+            }
+        }
+
+        if (box.size() == 4) {
+            filter = filter.within(box.get(0), box.get(1), box.get(2), box.get(3));
+        } else if (!box.isEmpty()) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        return new DumpCommand(gameWorld, filter, target);
     }
 
     /**
@@ -31,13 +113,61 @@ public class DumpCommand extends ServerCommands {
      */
     @Override
     public JsonNode execute() {
-        ObjectNode response = mapper.createObjectNode();
-        response.put("result", "OK");
+        return toTree();
+    }
 
-        ObjectNode data = mapper.createObjectNode();
-        data.set("worldState", gameWorld.getWorldState());
+    @Override
+    public boolean writeResponse(JsonGenerator out) throws IOException {
+        if (target == null) {
+            out.writeStartObject();
+            out.writeStringField("result", "OK");
+            out.writeObjectFieldStart("data");
+            out.writeFieldName("worldState");
+            gameWorld.writeWorldState(out, filter);
+            out.writeEndObject();
+            out.writeEndObject();
+            return true;
+        }
+
+        try {
+            writeToTarget();
+        } catch (IOException | RuntimeException e) {
+            out.writeStartObject();
+            out.writeStringField("result", "ERROR");
+            out.writeObjectFieldStart("data");
+            out.writeStringField("message", "Could not dump to " + target + ": " + e.getMessage());
+            out.writeEndObject();
+            out.writeEndObject();
+            return false;
+        }
+
+        out.writeStartObject();
+        out.writeStringField("result", "OK");
+        out.writeObjectFieldStart("data");
+        out.writeStringField("message", "World state written to " + target);
+        out.writeEndObject();
+        out.writeEndObject();
+        return true;
+    }
+
+    private void writeToTarget() throws IOException {
+        if (SOCKET_TARGET.matcher(target).matches()) {
+            int colon = target.lastIndexOf(':');
+            try (Socket socket = new Socket(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1)))) {
+                writeTo(socket.getOutputStream());
+            }
+        } else {
+            try (OutputStream file = new FileOutputStream(new File(target))) {
+                writeTo(file);
+            }
+        }
+    }
 
-        response.set("data", data);
-        return response;
+    private void writeTo(OutputStream destination) throws IOException {
+        try (JsonGenerator out = Json.mapper().getFactory()
+                .createGenerator(new BufferedOutputStream(destination), JsonEncoding.UTF8)) {
+            gameWorld.writeWorldState(out, filter);
+            out.writeRaw('\n');
+        }
     }
 }
@@ -1,17 +1,19 @@
 package za.co.wethinkcode.robots.server.commands;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import za.co.wethinkcode.robots.server.world.Robot;
 import za.co.wethinkcode.robots.server.world.World;
 
-import java.util.List;
+import java.io.IOException;
 
 /**
  * Handles the "fire" command for a robot.
  * Checks if the robot can fire, calculates distance, and applies damage to any hit robot.
+ * The shot walks the occupancy index one cell at a time and, like look, stops at the first
+ * obstacle that blocks line of sight.
  */
-public class FireCommand extends ClientCommands {
+public class FireCommand extends ClientCommands implements StreamingCommand {
     private final String robotName;
 
     /**
@@ -35,11 +37,22 @@ public class FireCommand extends ClientCommands {
      */
     @Override
     public JsonNode execute() {
+        return toTree();
+    }
+
+    /**
+     * Executes the fire command and streams the response.
+     *
+     * @param out generator to write the response to
+     * @return false if an error response was written
+     */
+    @Override
+    public boolean writeResponse(JsonGenerator out) throws IOException {
         Robot shooter = getWorld().getRobot(robotName);
 
         // check if robot can fire
         if (shooter == null || !shooter.canFire()) {
-            return makeErrorResponse("Cannot fire: no shots remaining. Consider reloading.");
+            return writeError(out, "Cannot fire: no shots remaining. Consider reloading.");
         }
 
         int maxDistance = shooter.getMaxShotDistance();
@@ -47,7 +60,7 @@ public class FireCommand extends ClientCommands {
         int startShots = shooter.getShots();
 
         if (startShots < shotsToConsume) {
-            return makeErrorResponse(
+            return writeError(out,
                     "Not enough shots to fire at distance " + maxDistance +
                             " (need " + shotsToConsume + ", have " + startShots + ")."
             );
@@ -70,55 +83,62 @@ public class FireCommand extends ClientCommands {
         int y = startY;
         int distanceTraveled = 0;
         boolean hit = false;
+        boolean blocked = false;
         String targetHit = null;
         int hitX = x;
         int hitY = y;
 
-        List<Robot> robots = getWorld().getRobotsInWorld();
-
-        // trace shot along the path
-        for (int i = 1; i <= maxDistance; i++) {
-            x += dx;
-            y += dy;
-            distanceTraveled = i;
-            hitX = x;
-            hitY = y;
-
-            for (Robot target : robots) {
-                if (target != shooter && !"DEAD".equals(target.getStatus())
-                        && target.getX() == x && target.getY() == y) {
+        // trace shot along the path, holding its cells so the target cannot move mid-hit
+        try (var path = getWorld().lockArea(startX, startY,
+                startX + dx * maxDistance, startY + dy * maxDistance)) {
+            assert path.held();
+            for (int i = 1; i <= maxDistance; i++) {
+                x += dx;
+                y += dy;
+                distanceTraveled = i;
+                hitX = x;
+                hitY = y;
+
+                Robot target = getWorld().robotAt(x, y);
+                if (target != null && target != shooter && !"DEAD".equals(target.getStatus())) {
                     target.damage(shotsToConsume);
                     hit = true;
                     targetHit = target.getName();
                     break;
                 }
+                if (!getWorld().canSeePast(x, y)) {
+                    blocked = true;
+                    break;
+                }
             }
-            if (hit) break;
         }
 
-        // prepare result JSON
-        ObjectNode result = getMapper().createObjectNode();
-        result.put("result", "OK");
-
-        ObjectNode data = result.putObject("data");
-        data.put("fired", true);
-        data.put("startX", startX);
-        data.put("startY", startY);
-        data.put("maxDistance", maxDistance);
-        data.put("distanceTraveled", distanceTraveled);
-        data.put("hitX", hitX);
-        data.put("hitY", hitY);
-        data.put("hit", hit);
-        data.put("target", targetHit != null ? targetHit : "none");
-        data.put("shotsUsed", shotsToConsume);
-        data.put("startShots", startShots);
-        data.put("remainingShots", shooter.getShots());
-        data.put("outcome", hit ? "Hit " + targetHit : "Missed");
+        // write result JSON
+        out.writeStartObject();
+        out.writeStringField("result", "OK");
+
+        out.writeObjectFieldStart("data");
+        out.writeBooleanField("fired", true);
+        out.writeNumberField("startX", startX);
+        out.writeNumberField("startY", startY);
+        out.writeNumberField("maxDistance", maxDistance);
+        out.writeNumberField("distanceTraveled", distanceTraveled);
+        out.writeNumberField("hitX", hitX);
+        out.writeNumberField("hitY", hitY);
+        out.writeBooleanField("hit", hit);
+        out.writeBooleanField("blocked", blocked);
+        out.writeStringField("target", targetHit != null ? targetHit : "none");
+        out.writeNumberField("shotsUsed", shotsToConsume);
+        out.writeNumberField("startShots", startShots);
+        out.writeNumberField("remainingShots", shooter.getShots());
+        out.writeStringField("outcome", hit ? "Hit " + targetHit : "Missed");
+        out.writeEndObject();
 
         // add robot state after firing
-        result.set("state", new StateNode(robotName, getWorld()).execute());
-
-        return result;
+        out.writeFieldName("state");
+        new StateNode(robotName, getWorld()).writeTo(out);
+        out.writeEndObject();
+        return true;
     }
 
     /**
@@ -139,16 +159,18 @@ public class FireCommand extends ClientCommands {
     }
 
     /**
-     * Create a standard error response JSON.
+     * Write a standard error response.
      *
      * @param message error message to return
-     * @return JSON node with error
+     * @return always false, so callers can return it directly
      */
-    private JsonNode makeErrorResponse(String message) {
-        ObjectNode response = getMapper().createObjectNode();
-        response.put("result", "ERROR");
-        ObjectNode data = response.putObject("data");
-        data.put("message", message);
-        return response;
+    private boolean writeError(JsonGenerator out, String message) throws IOException {
+        out.writeStartObject();
+        out.writeStringField("result", "ERROR");
+        out.writeObjectFieldStart("data");
+        out.writeStringField("message", message);
+        out.writeEndObject();
+        out.writeEndObject();
+        return false;
     }
 }
@@ -1,17 +1,19 @@
 package za.co.wethinkcode.robots.server.commands;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import za.co.wethinkcode.robots.server.world.*;
 
-import java.util.List;
+import java.io.IOException;
 
 /**
  * Handles the "forward" command for a robot.
  * Moves the robot forward a specified number of steps, handling obstacles, other robots,
  * and deadly pits. Can also be used in reverse mode to move backward.
+ * The path is checked and the move made in a single pass over the obstacle grid and the
+ * occupancy index, with no allocation per step.
  */
-public class ForwardCommand extends ClientCommands {
+public class ForwardCommand extends ClientCommands implements StreamingCommand {
     private final String robotName;
     private final JsonNode arguments;
     private final boolean reverse;
@@ -44,73 +46,131 @@ public class ForwardCommand extends ClientCommands {
 
     /**
      * Executes the forward or backward movement command.
-     * Validates path, handles collisions, updates robot position and state, and returns result.
+     * Checks the path, handles collisions, updates robot position and state, and returns result.
      *
      * @return JSON node with movement result, steps taken, and updated state
      */
     @Override
     public JsonNode execute() {
+        return toTree();
+    }
+
+    /**
+     * Executes the movement and streams the response.
+     *
+     * @param out generator to write the response to
+     * @return false if an error response was written
+     */
+    @Override
+    public boolean writeResponse(JsonGenerator out) throws IOException {
         Robot robot = getWorld().getRobot(robotName);
-        if (robot == null) return makeErrorResponse("Robot not found.");
+        if (robot == null) return writeError(out, "Robot not found.");
 
         int steps = parseSteps();
-        if (steps < 0) return makeErrorResponse("Invalid number of steps: " + arguments);
+        if (steps < 0) return writeError(out, "Invalid number of steps: " + arguments);
 
         int[] delta = getDirectionDelta(robot.getDirection());
-        if (delta == null) return makeErrorResponse("Unknown direction: " + robot.getDirection());
+        if (delta == null) return writeError(out, "Unknown direction: " + robot.getDirection());
 
         if (reverse) {
             delta[0] = -delta[0];
             delta[1] = -delta[1];
         }
 
-        PathCheckResult check = validatePath(robot, steps, delta[0], delta[1]);
-        if (!check.valid) {
-            return buildResponse(robot, 0, friendlyOutcome(check.outcome));
+        int startX = robot.getX();
+        int startY = robot.getY();
+        int inside = Math.min(steps, Math.min(
+                stepsInside(startX, delta[0], getWorld().worldWidth()),
+                stepsInside(startY, delta[1], getWorld().worldHeight())));
+        if (inside < steps) {
+            // Refused whatever else is on the path; obstacles never move, so no lock is needed to say why
+            String outcome = obstacleWithin(startX, startY, delta, inside) ? "blocked by obstacle" : "outside";
+            writeResult(out, robot, 0, friendlyOutcome(outcome));
+            return true;
         }
 
-        // actual movement
-        int currentX = robot.getX();
-        int currentY = robot.getY();
-        int stepsTaken = 0;
+        // Hold every cell on the path: the cell the robot stops on stays reserved for it,
+        // and no robot can step into the path between the check and the move.
+        // The response is written after the lock is released, so a slow client never holds it.
+        Moved moved;
+        try (var path = getWorld().lockArea(startX, startY,
+                startX + delta[0] * steps, startY + delta[1] * steps)) {
+            assert path.held();
+            moved = move(robot, steps, delta);
+        }
+        writeResult(out, robot, moved.steps(), friendlyOutcome(moved.outcome()));
+        return true;
+    }
+
+    /** Steps a move took and why it ended. */
+    private record Moved(int steps, String outcome) {
+    }
+
+    /**
+     * Checks the path and moves the robot in one pass; the caller holds the lock on the path.
+     * A solid obstacle anywhere on the path refuses the whole move, so every cell is checked
+     * for one, but pits and robots only matter until the first of them stops the robot.
+     */
+    private Moved move(Robot robot, int steps, int[] delta) {
+        int startX = robot.getX();
+        int startY = robot.getY();
+        int x = startX;
+        int y = startY;
+        int stop = steps; // steps taken; lowered when a pit or robot stops the robot
         String outcome = "success";
 
-        List<Robot> robots = getWorld().getRobotsInWorld();
-        List<Obstacle> obstacles = getWorld().getWorldObstacles();
+        for (int i = 1; i <= steps; i++) {
+            x += delta[0];
+            y += delta[1];
 
-        for (int i = 0; i < steps; i++) {
-            int nextX = currentX + delta[0];
-            int nextY = currentY + delta[1];
+            if (getWorld().blocksMovement(x, y)) {
+                return new Moved(0, "blocked by obstacle");
+            }
+            if (stop < steps) continue; // already stopped, only looking for obstacles now
 
-            boolean fell = obstacles.stream()
-                    .anyMatch(o -> o.blocksPosition(nextX, nextY) && o.canKillYou());
-            if (fell) {
-                robot.setPosition(nextX, nextY);
-                robot.setStatus("DEAD");
-                stepsTaken++;
+            if (getWorld().killsRobot(x, y)) {
+                stop = i;
                 outcome = "fell";
-                break;
+                continue;
             }
-
-            boolean blockedByRobot = robots.stream()
-                    .anyMatch(r -> !r.getName().equalsIgnoreCase(robotName)
-                            && !"DEAD".equals(r.getStatus())
-                            && r.getX() == nextX && r.getY() == nextY);
-            if (blockedByRobot) {
+            Robot other = getWorld().robotAt(x, y);
+            if (other != null && other != robot && !"DEAD".equals(other.getStatus())) {
+                stop = i - 1;
                 outcome = "blocked by robot";
-                break;
             }
-
-            currentX = nextX;
-            currentY = nextY;
-            stepsTaken++;
         }
 
-        if (!"fell".equals(outcome)) {
-            robot.setPosition(currentX, currentY);
+        robot.setPosition(startX + delta[0] * stop, startY + delta[1] * stop);
+        if ("fell".equals(outcome)) {
+            robot.setStatus("DEAD");
         }
+        return new Moved(stop, outcome);
+    }
+
+    /**
+     * Returns how many steps from a coordinate stay inside the world, along one axis.
+     *
+     * @param from  current coordinate
+     * @param delta step along this axis: -1, 0 or 1
+     * @param size  world width or height
+     */
+    private static int stepsInside(int from, int delta, int size) {
+        int half = size / 2;
+        if (delta > 0) return Math.max(half - from, 0);
+        if (delta < 0) return Math.max(from + half, 0);
+        return Integer.MAX_VALUE;
+    }
 
-        return buildResponse(robot, stepsTaken, friendlyOutcome(outcome));
+    /**
+     * Returns true if a solid obstacle lies within the given number of steps.
+     */
+    private boolean obstacleWithin(int x, int y, int[] delta, int steps) {
+        for (int i = 0; i < steps; i++) {
+            x += delta[0];
+            y += delta[1];
+            if (getWorld().blocksMovement(x, y)) return true;
+        }
+        return false;
     }
 
     /**
@@ -147,51 +207,6 @@ public class ForwardCommand extends ClientCommands {
         }
     }
 
-    /**
-     * Pre-validates path for obstacles and world boundaries.
-     *
-     * @param robot the robot
-     * @param steps number of steps to move
-     * @param dx delta X
-     * @param dy delta Y
-     * @return PathCheckResult indicating validity
-     */
-    private PathCheckResult validatePath(Robot robot, int steps, int dx, int dy) {
-        int currentX = robot.getX();
-        int currentY = robot.getY();
-
-        List<Obstacle> obstacles = getWorld().getWorldObstacles();
-        int width = getWorld().worldWidth();
-        int height = getWorld().worldHeight();
-
-        for (int i = 0; i < steps; i++) {
-            int nextX = currentX + dx;
-            int nextY = currentY + dy;
-            Position nextPos = new Position(nextX, nextY);
-
-            if (!nextPos.isInsideWorld(width, height)) {
-                return new PathCheckResult(false, "outside", currentX, currentY);
-            }
-
-            if (blockedByObstacle(nextX, nextY, obstacles)) {
-                return new PathCheckResult(false, "blocked by obstacle", currentX, currentY);
-            }
-
-            currentX = nextX;
-            currentY = nextY;
-        }
-
-        return new PathCheckResult(true, "success", currentX, currentY);
-    }
-
-    /**
-     * Checks if position is blocked by a solid obstacle.
-     */
-    private boolean blockedByObstacle(int x, int y, List<Obstacle> obstacles) {
-        return obstacles.stream()
-                .anyMatch(o -> o.blocksPosition(x, y) && !o.canWalkThrough());
-    }
-
     /**
      * Converts raw outcome string to user-friendly message.
      */
@@ -207,54 +222,50 @@ public class ForwardCommand extends ClientCommands {
     }
 
     /**
-     * Builds the JSON response after movement.
-     */
-    private JsonNode buildResponse(Robot robot, int stepsTaken, String outcome) {
-        ObjectNode response = getMapper().createObjectNode();
-        response.put("result", "OK");
-
-        ObjectNode data = response.putObject("data");
-        data.put("steps", stepsTaken);
-        data.put("outcome", outcome);
-
-        ObjectNode start = data.putObject("start");
-        start.put("x", robot.getX());
-        start.put("y", robot.getY());
-
-        ObjectNode end = data.putObject("end");
-        end.put("x", robot.getX());
-        end.put("y", robot.getY());
-
-        data.putArray("position").add(robot.getX()).add(robot.getY());
-        response.set("state", new StateNode(robotName, getWorld()).execute());
-
-        return response;
-    }
-
-    /**
-     * Creates a standard error response JSON.
+     * Writes the JSON response after movement.
      */
-    private JsonNode makeErrorResponse(String message) {
-        ObjectNode response = getMapper().createObjectNode();
-        response.put("result", "error");
-        response.put("message", message);
-        return response;
+    private void writeResult(JsonGenerator out, Robot robot, int stepsTaken, String outcome) throws IOException {
+        int x = robot.getX();
+        int y = robot.getY();
+
+        out.writeStartObject();
+        out.writeStringField("result", "OK");
+
+        out.writeObjectFieldStart("data");
+        out.writeNumberField("steps", stepsTaken);
+        out.writeStringField("outcome", outcome);
+
+        out.writeObjectFieldStart("start");
+        out.writeNumberField("x", x);
+        out.writeNumberField("y", y);
+        out.writeEndObject();
+
+        out.writeObjectFieldStart("end");
+        out.writeNumberField("x", x);
+        out.writeNumberField("y", y);
+        out.writeEndObject();
+
+        out.writeArrayFieldStart("position");
+        out.writeNumber(x);
+        out.writeNumber(y);
+        out.writeEndArray();
+        out.writeEndObject();
+
+        out.writeFieldName("state");
+        new StateNode(robotName, getWorld()).writeTo(out);
+        out.writeEndObject();
     }
 
     /**
-     * Helper class for path validation results.
+     * Writes a standard error response.
+     *
+     * @return always false, so callers can return it directly
      */
-    private static class PathCheckResult {
-        boolean valid;
-        String outcome;
-        int finalX;
-        int finalY;
-
-        PathCheckResult(boolean valid, String outcome, int finalX, int finalY) {
-            this.valid = valid;
-            this.outcome = outcome;
-            this.finalX = finalX;
-            this.finalY = finalY;
-        }
+    private boolean writeError(JsonGenerator out, String message) throws IOException {
+        out.writeStartObject();
+        out.writeStringField("result", "error");
+        out.writeStringField("message", message);
+        out.writeEndObject();
+        return false;
     }
 }
@@ -47,6 +47,9 @@ public class HelpCommand extends ClientCommands {
         commands.addObject()
                 .put("command", "back <steps>")
                 .put("description", "Move the robot backward by the given number of steps.");
+        commands.addObject()
+                .put("command", "navigate <x> <y>")
+                .put("description", "Plan a route around obstacles to the given position and drive the robot there.");
         commands.addObject()
                 .put("command", "turn <left|right>")
                 .put("description", "Turn the robot 90° left or right.");
@@ -1,7 +1,6 @@
 package za.co.wethinkcode.robots.server.commands;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import za.co.wethinkcode.robots.server.world.Robot;
@@ -18,7 +17,6 @@ import java.util.Map;
 public class LaunchCommand extends ClientCommands {
     private final JsonNode arguments;
     private final String robotName;
-    private final ObjectMapper mapper;
 
     /**
      * Constructor for LaunchCommand.
@@ -31,7 +29,6 @@ public class LaunchCommand extends ClientCommands {
         super(arguments.get(1).asText(), gameWorld);
         this.arguments = arguments;
         this.robotName = arguments.get(1).asText();
-        this.mapper = new ObjectMapper();
     }
 
     /**
@@ -90,10 +87,10 @@ public class LaunchCommand extends ClientCommands {
         }
 
         // Build success response
-        ObjectNode response = mapper.createObjectNode();
+        ObjectNode response = getMapper().createObjectNode();
         response.put("result", "OK");
 
-        ObjectNode data = mapper.createObjectNode();
+        ObjectNode data = getMapper().createObjectNode();
         data.putArray("position").add(robot.getX()).add(robot.getY());
         data.put("robotName", robotName);
         data.put("visibility", world.worldHeight());
@@ -1,13 +1,13 @@
 package za.co.wethinkcode.robots.server.commands;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import za.co.wethinkcode.robots.server.world.ObjectInView;
 import za.co.wethinkcode.robots.server.world.Obstacle;
 import za.co.wethinkcode.robots.server.world.Robot;
 import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldSnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,28 +15,29 @@ import java.util.List;
 public class LookCommand extends ClientCommands {
     private final String robotName;
     private final World gameWorld;
-    private final ObjectMapper mapper;
 
     public LookCommand(String robotName, World gameWorld) {
         super(robotName, gameWorld);
         this.robotName = robotName;
         this.gameWorld = gameWorld;
-        this.mapper = new ObjectMapper();
     }
 
     @Override
     public JsonNode execute() {
         Robot robot = gameWorld.getRobot(robotName);
+        if (robot == null) {
+            return new ErrorResponse("No robot provided for look", robotName, gameWorld).execute();
+        }
         List<ObjectInView> objects = look(robot);
 
-        ObjectNode response = mapper.createObjectNode();
+        ObjectNode response = getMapper().createObjectNode();
         response.put("result", "OK");
 
-        ObjectNode data = mapper.createObjectNode();
-        ArrayNode objectsArray = mapper.createArrayNode();
+        ObjectNode data = getMapper().createObjectNode();
+        ArrayNode objectsArray = getMapper().createArrayNode();
 
         for (ObjectInView obj : objects) {
-            ObjectNode objNode = mapper.createObjectNode();
+            ObjectNode objNode = getMapper().createObjectNode();
             objNode.put("direction", obj.direction);
             objNode.put("type", obj.type);
             objNode.put("distance", obj.distance);
@@ -50,25 +51,34 @@ public class LookCommand extends ClientCommands {
         return response;
     }
 
+    /**
+     * Looks from the robot's own position at the last published snapshot, one view for the
+     * whole look so other robots cannot move mid-scan. The snapshot may predate the robot's
+     * latest move, so its own record there is looked past.
+     */
     public List<ObjectInView> look(Robot robot) {
+        WorldSnapshot view = gameWorld.snapshot();
+        WorldSnapshot.RobotView self = view.getRobot(robot.getName());
         List<ObjectInView> objects = new ArrayList<>();
-        int x = robot.getX();
-        int y = robot.getY();
         int visibility = gameWorld.getVisibility(); // use world visibility
 
         for (String direction : new String[]{"NORTH", "SOUTH", "EAST", "WEST"}) {
-            objects.addAll(lookInDirection(x, y, direction, visibility));
+            objects.addAll(lookInDirection(view, self, robot.getX(), robot.getY(), direction, visibility));
         }
         return objects;
     }
 
-    private List<ObjectInView> lookInDirection(int x, int y, String direction, int visibility) {
+    /**
+     * Looks along one axis using the snapshot's sorted tables: one binary search finds the
+     * nearest robot, another the first obstacle run, and only obstacle cells are visited.
+     * Reports, nearest first, each obstacle cell until one blocks sight, then the nearest
+     * robot or the world edge if either is within visibility and not hidden.
+     * A cell under several obstacles reports each type once, in ObstacleType order, including
+     * the types that share a cell with a mountain.
+     */
+    private List<ObjectInView> lookInDirection(WorldSnapshot view, WorldSnapshot.RobotView self,
+                                               int x, int y, String direction, int visibility) {
         List<ObjectInView> objects = new ArrayList<>();
-        int width = gameWorld.worldWidth();
-        int height = gameWorld.worldHeight();
-
-        List<Robot> robots = gameWorld.getRobotsInWorld();
-        List<Obstacle> obstacles = gameWorld.getWorldObstacles();
 
         int dx = 0, dy = 0;
         switch (direction) {
@@ -78,40 +88,41 @@ public class LookCommand extends ClientCommands {
             case "WEST":  dx = -1; break;
         }
 
-        int distance = 1;
-        while (distance <= visibility) { // stop at visibility distance
-            int newX = x + dx * distance;
-            int newY = y + dy * distance;
-
-            // Look for world edge
-            if (newX < -(width / 2) || newX >= width / 2 ||
-                    newY < -(height / 2) || newY >= height / 2) {
-                objects.add(new ObjectInView(direction, "EDGE", distance));
-                break;
-            }
-
-            // Check robots (ignore dead ones)
-            for (Robot r : robots) {
-                if (!"DEAD".equals(r.getStatus()) && r.getX() == newX && r.getY() == newY) {
-                    objects.add(new ObjectInView(direction, "ROBOT", distance));
-                    return objects; // cannot see past robot
-                }
-            }
+        int edge = edgeDistance(view, x, y, dx, dy);
+        int robot = view.nearestRobot(x, y, dx, dy, self); // the snapshot only indexes live robots
+        int limit = Math.min(visibility, Math.min(edge, robot) - 1);
 
-            // Check obstacles
-            for (Obstacle o : obstacles) {
-                if (o.blocksPosition(newX, newY)) {
-                    String type = o.getType().toString();
-                    String obstacleType = Obstacle.ObstacleType.fromString(type).toString();
-                    objects.add(new ObjectInView(direction, obstacleType.toUpperCase(), distance));
-                    if (!o.canSeePast()) {
-                        return objects; // cannot see past solid obstacle
-                    }
-                }
+        int blocked = view.traceObstacles(x, y, dx, dy, limit, (distance, types) -> {
+            for (Obstacle.ObstacleType type : types) {
+                objects.add(new ObjectInView(direction, type.toString().toUpperCase(), distance));
             }
+        });
+        if (blocked >= 0) {
+            return objects; // cannot see past solid obstacle
+        }
 
-            distance++;
+        if (robot < edge && robot <= visibility) {
+            objects.add(new ObjectInView(direction, "ROBOT", robot));
+        } else if (edge <= visibility) {
+            objects.add(new ObjectInView(direction, "EDGE", edge));
         }
         return objects;
     }
+
+    /**
+     * Distance to the first cell outside the world, which spans -(size / 2) to size / 2 - 1.
+     */
+    private static int edgeDistance(WorldSnapshot view, int x, int y, int dx, int dy) {
+        int minX = -(view.getWidth() / 2);
+        int maxX = view.getWidth() / 2 - 1;
+        int minY = -(view.getHeight() / 2);
+        int maxY = view.getHeight() / 2 - 1;
+
+        if (dx != 0) {
+            if (y < minY || y > maxY) return 1;
+            return Math.max(1, dx > 0 ? maxX + 1 - x : x - minX + 1);
+        }
+        if (x < minX || x > maxX) return 1;
+        return Math.max(1, dy > 0 ? maxY + 1 - y : y - minY + 1);
+    }
 }
@@ -0,0 +1,210 @@
+package za.co.wethinkcode.robots.server.commands;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import za.co.wethinkcode.robots.server.world.Robot;
+import za.co.wethinkcode.robots.server.world.RoutePlanner;
+import za.co.wethinkcode.robots.server.world.World;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Handles the "navigate" command for a robot.
+ * Plans a route to a target cell on the server and drives it there in one command, instead
+ * of the client sending a turn and forward for every stretch of the way.
+ * Each straight stretch is a normal forward move, so pits, robots and path locking behave
+ * exactly as they do for "forward". If another robot steps into the route, the robot plans
+ * again from where it stopped, up to {@link #MAX_REPLANS} times.
+ */
+public class NavigateCommand extends ClientCommands {
+    static final int MAX_REPLANS = 3;
+
+    private static final String ARRIVED = "Arrived at destination";
+    private static final String NO_ROUTE = "No route to destination";
+    private static final String BLOCKED = "Blocked by another robot";
+
+    private final String robotName;
+    private final JsonNode arguments;
+
+    /**
+     * Constructor for NavigateCommand.
+     *
+     * @param robotName the name of the robot
+     * @param arguments target x and y
+     * @param gameWorld reference to the world
+     */
+    public NavigateCommand(String robotName, JsonNode arguments, World gameWorld) {
+        super(robotName, gameWorld);
+        this.robotName = robotName;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Plans the route and moves the robot along it, blocking until it has arrived or stopped.
+     *
+     * @return JSON node with the outcome, steps taken, the turning points of the path taken,
+     *         and the updated state
+     */
+    @Override
+    public JsonNode execute() {
+        return executeAsync().join();
+    }
+
+    /**
+     * Plans the route and moves the robot along it.
+     * With a SimulationLoop each plan runs off the loop's thread and only the forward moves
+     * and the response are handed back to it, so a long search never stalls a tick.
+     */
+    @Override
+    public CompletableFuture<JsonNode> executeAsync() {
+        Robot robot = getWorld().getRobot(robotName);
+        if (robot == null) {
+            return CompletableFuture.completedFuture(
+                    new ErrorResponse("Robot not found.", robotName, getWorld()).execute());
+        }
+
+        int[] target = parseTarget();
+        if (target == null) {
+            return CompletableFuture.completedFuture(
+                    new ErrorResponse("Usage: navigate <x> <y>", robotName, getWorld()).execute());
+        }
+
+        Trip trip = new Trip(robot, target[0], target[1]);
+        if (!getWorld().isSingleWriter()) {
+            while (trip.drive(trip.plan())) {
+                // re-plan from where the robot was blocked
+            }
+            return CompletableFuture.completedFuture(trip.response());
+        }
+        return trip.run();
+    }
+
+    /**
+     * One navigation in progress. Plans and drives alternate, never overlap, so the fields
+     * are handed between the planning thread and the world's writer by the futures alone.
+     */
+    private final class Trip {
+        private final Robot robot;
+        private final int goalX;
+        private final int goalY;
+        private final RoutePlanner planner = new RoutePlanner(getWorld());
+        private final ArrayNode path = getMapper().createArrayNode();
+        private int x;
+        private int y;
+        private int steps;
+        private int plans;
+        private String outcome = BLOCKED;
+        private String error;
+
+        Trip(Robot robot, int goalX, int goalY) {
+            this.robot = robot;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            this.x = robot.getX();
+            this.y = robot.getY();
+            addPoint(path, x, y);
+        }
+
+        /** Plans on a pool thread, then drives on the writer, until the trip is over. */
+        CompletableFuture<JsonNode> run() {
+            return CompletableFuture.supplyAsync(this::plan)
+                    .thenCompose(route -> getWorld().submit(
+                            () -> CompletableFuture.completedFuture(drive(route) ? null : response())))
+                    .thenCompose(done -> done == null ? run() : CompletableFuture.completedFuture(done));
+        }
+
+        /**
+         * Plans from the robot's last known cell.
+         *
+         * @return the route, or null if there is none or the target was rejected
+         */
+        List<RoutePlanner.Leg> plan() {
+            try {
+                return planner.plan(robotName, x, y, goalX, goalY);
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+                return null;
+            }
+        }
+
+        /**
+         * Drives a planned route one forward move per leg.
+         *
+         * @return true if another robot stopped the robot and it may plan again
+         */
+        boolean drive(List<RoutePlanner.Leg> route) {
+            plans++;
+            if (error != null) {
+                return false;
+            }
+            if (route == null) {
+                outcome = NO_ROUTE;
+                return false;
+            }
+
+            outcome = ARRIVED;
+            for (RoutePlanner.Leg leg : route) {
+                robot.setDirection(leg.direction());
+                JsonNode moved = new ForwardCommand(robotName, getMapper().createArrayNode().add(leg.steps()),
+                        getWorld()).execute();
+                int taken = moved.path("data").path("steps").asInt();
+                steps += taken;
+                if (taken > 0) {
+                    addPoint(path, robot.getX(), robot.getY());
+                }
+                if (!"OK".equals(moved.path("result").asText())) {
+                    outcome = moved.path("message").asText();
+                    break;
+                }
+                if (taken < leg.steps()) {
+                    outcome = moved.path("data").path("outcome").asText();
+                    break;
+                }
+            }
+            x = robot.getX();
+            y = robot.getY();
+            return BLOCKED.equals(outcome) && plans <= MAX_REPLANS;
+        }
+
+        JsonNode response() {
+            if (error != null) {
+                return new ErrorResponse(error, robotName, getWorld()).execute();
+            }
+            ObjectNode result = getMapper().createObjectNode();
+            ObjectNode data = getMapper().createObjectNode();
+            result.put("result", "OK");
+            data.put("steps", steps);
+            data.put("outcome", outcome);
+            data.set("path", path);
+            data.putArray("position").add(robot.getX()).add(robot.getY());
+            result.set("data", data);
+            result.set("state", new StateNode(robotName, getWorld()).execute());
+            return result;
+        }
+    }
+
+    /**
+     * Parses the target cell from command arguments.
+     *
+     * @return [x, y], or null if the arguments are not two whole numbers
+     */
+    private int[] parseTarget() {
+        if (arguments == null || !arguments.isArray() || arguments.size() != 2) {
+            return null;
+        }
+        try {
+            return new int[]{
+                    Integer.parseInt(arguments.get(0).asText()),
+                    Integer.parseInt(arguments.get(1).asText())
+            };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void addPoint(ArrayNode path, int x, int y) {
+        path.addObject().put("x", x).put("y", y);
+    }
+}
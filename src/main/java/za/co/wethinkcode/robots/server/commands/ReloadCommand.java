@@ -5,15 +5,40 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import za.co.wethinkcode.robots.server.world.Robot;
 import za.co.wethinkcode.robots.server.world.World;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Puts the robot into RELOAD status and refills its shots once the reload time has passed.
+ * The wait runs on the world's shared timer, so no thread is held while the robot reloads.
+ */
 public class ReloadCommand extends ClientCommands {
 
     public ReloadCommand(String robotName, World gameWorld) {
         super(robotName, gameWorld);
     }
 
+    /**
+     * Blocks for the whole reload time; only for callers that own their thread.
+     */
     @Override
     public JsonNode execute() {
+        return awaitTimed();
+    }
+
+    @Override
+    public CompletableFuture<JsonNode> executeAsync() {
         Robot robot = getWorld().getRobot(getRobotName());
+        if (robot == null || "DEAD".equals(robot.getStatus())) {
+            return CompletableFuture.completedFuture(buildResponse(robot));
+        }
+
+        World world = getWorld();
+        world.updateRobot(robot, Robot::startReload);
+        return world.schedule(() -> world.updateRobot(robot, Robot::reload), robot.getReloadTime())
+                .thenApply(done -> buildResponse(robot));
+    }
+
+    private JsonNode buildResponse(Robot robot) {
         ObjectNode response = getMapper().createObjectNode();
         ObjectNode data = getMapper().createObjectNode();
 
@@ -21,7 +46,6 @@ public class ReloadCommand extends ClientCommands {
             response.put("result", "ERROR");
             data.put("message", "Robot is dead and cannot reload.");
         } else {
-            robot.reload();
             response.put("result", "OK");
             data.put("message", "Weapon reloaded to " + robot.getShots() + " shots");
         }
@@ -5,15 +5,40 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import za.co.wethinkcode.robots.server.world.Robot;
 import za.co.wethinkcode.robots.server.world.World;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Puts the robot into REPAIR status and restores its shields once the repair time has passed.
+ * The wait runs on the world's shared timer, so no thread is held while the robot repairs.
+ */
 public class RepairCommand extends ClientCommands {
 
     public RepairCommand(String robotName, World gameWorld) {
         super(robotName, gameWorld);
     }
 
+    /**
+     * Blocks for the whole repair time; only for callers that own their thread.
+     */
     @Override
     public JsonNode execute() {
+        return awaitTimed();
+    }
+
+    @Override
+    public CompletableFuture<JsonNode> executeAsync() {
         Robot robot = getWorld().getRobot(getRobotName());
+        if (robot == null || "DEAD".equals(robot.getStatus())) {
+            return CompletableFuture.completedFuture(buildResponse(robot));
+        }
+
+        World world = getWorld();
+        world.updateRobot(robot, Robot::startRepair);
+        return world.schedule(() -> world.updateRobot(robot, Robot::repair), robot.getRepairTime())
+                .thenApply(done -> buildResponse(robot));
+    }
+
+    private JsonNode buildResponse(Robot robot) {
         ObjectNode response = getMapper().createObjectNode();
         ObjectNode data = getMapper().createObjectNode();
 
@@ -21,7 +46,6 @@ public class RepairCommand extends ClientCommands {
             response.put("result", "ERROR");
             data.put("message", "Robot is dead and cannot repair.");
         } else {
-            robot.repair();
             response.put("result", "OK");
             data.put("message", "Shields repaired to " + robot.getShields());
         }
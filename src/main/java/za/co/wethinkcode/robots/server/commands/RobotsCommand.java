@@ -1,10 +1,10 @@
 package za.co.wethinkcode.robots.server.commands;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldSnapshot;
 
 /**
  * Command that returns the current state of all robots in the world.
@@ -12,7 +12,6 @@ import za.co.wethinkcode.robots.server.world.World;
  * The response contains a "robots" array under "data" with each robot's details.
  */
 public class RobotsCommand extends ServerCommands {
-    private final ObjectMapper mapper;
     private final World gameWorld;
 
     /**
@@ -23,30 +22,30 @@ public class RobotsCommand extends ServerCommands {
     public RobotsCommand(World gameWorld) {
         super(gameWorld);
         this.gameWorld = gameWorld;
-        this.mapper = new ObjectMapper();
     }
 
     /**
      * Executes the RobotsCommand.
-     * Iterates over all robots in the world, collects their state, and returns a JSON response.
+     * Reads every robot from one world snapshot, so positions are never torn by concurrent moves.
      *
      * @return JsonNode containing the result "OK" and the list of robots under "data"
      */
     @Override
     public JsonNode execute() {
-        // Remove dead robots before building the response
+        // Remove dead robots before building the response, and publish that so the list shows it
         gameWorld.removeDeadRobots();
+        gameWorld.publishSnapshot();
 
-        ObjectNode response = mapper.createObjectNode();
+        ObjectNode response = getMapper().createObjectNode();
         response.put("result", "OK");
 
-        ObjectNode data = mapper.createObjectNode();
-        ArrayNode robotsArray = mapper.createArrayNode();
+        ObjectNode data = getMapper().createObjectNode();
+        ArrayNode robotsArray = getMapper().createArrayNode();
 
-        // Build state for each robot using StateNode
-        for (String name : gameWorld.getRobotNames()) {
-            JsonNode robotState = new StateNode(name, gameWorld).execute();
-            ((ObjectNode) robotState).put("name", name);
+        // Build state for each robot using StateNode, all from one snapshot
+        for (WorldSnapshot.RobotView robot : gameWorld.snapshot().getRobots()) {
+            JsonNode robotState = new StateNode(robot, gameWorld).execute();
+            ((ObjectNode) robotState).put("name", robot.getName());
             robotsArray.add(robotState);
         }
 
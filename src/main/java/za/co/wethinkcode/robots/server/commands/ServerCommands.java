@@ -2,18 +2,19 @@ package za.co.wethinkcode.robots.server.commands;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import za.co.wethinkcode.robots.server.Json;
+import za.co.wethinkcode.robots.server.stats.ServerStats;
+import za.co.wethinkcode.robots.server.world.SimulationLoop;
 import za.co.wethinkcode.robots.server.world.World;
 
 public abstract class ServerCommands implements Command {
     private String argument;
-    private final ObjectMapper mapper;
     private final World gameWorld;
 
     public abstract JsonNode execute();
 
     public ServerCommands( World gameWorld) {
         this.argument = "";
-        this.mapper = new ObjectMapper();
         this.gameWorld = gameWorld;
     }
 
@@ -27,7 +28,7 @@ public abstract class ServerCommands implements Command {
     }
 
     protected ObjectMapper getMapper() {
-        return this.mapper;
+        return Json.mapper();
     }
 
     protected World getWorld() {
@@ -36,6 +37,15 @@ public abstract class ServerCommands implements Command {
 
 
     public static Command create(JsonNode request, World gameWorld) {
+        return create(request, gameWorld, null);
+    }
+
+    /**
+     * Creates a server command for a world that may be driven by a simulation loop.
+     *
+     * @param loop The loop that owns the world, or null when there is none.
+     */
+    public static Command create(JsonNode request, World gameWorld, SimulationLoop loop) {
         try {
             String command = request.get("command").asText().toLowerCase();
 
@@ -45,10 +55,16 @@ public abstract class ServerCommands implements Command {
                 case "robots":
                     return new RobotsCommand(gameWorld);
                 case "dump":
-                    return new DumpCommand(gameWorld);
+                    try {
+                        return DumpCommand.parse(gameWorld, request.get("arguments"));
+                    } catch (IllegalArgumentException e) {
+                        return new ErrorResponse(e.getMessage(), gameWorld);
+                    }
+                case "stats":
+                    return new StatsCommand(gameWorld, ServerStats.global(), loop);
                 default:
                     return new ErrorResponse("Unsupported server command: "+command + "'. " +
-                            "Valid server commands are: robots, quit, dump.", gameWorld);
+                            "Valid server commands are: robots, quit, dump, stats.", gameWorld);
             }
 
         } catch (Exception e) {
@@ -1,11 +1,13 @@
 package za.co.wethinkcode.robots.server.commands;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import za.co.wethinkcode.robots.server.world.Robot;
 import za.co.wethinkcode.robots.server.world.World;
 
-public class StateCommand extends ClientCommands {
+import java.io.IOException;
+
+public class StateCommand extends ClientCommands implements StreamingCommand {
     private final String robotName;
     private final World gameWorld;
 
@@ -17,13 +19,21 @@ public class StateCommand extends ClientCommands {
 
     @Override
     public JsonNode execute() {
+        return toTree();
+    }
+
+    @Override
+    public boolean writeResponse(JsonGenerator out) throws IOException {
         Robot robot = gameWorld.getRobot(robotName);
         if (robot == null) {
-            return new ErrorResponse("No robot provided for state", robotName, getWorld()).execute();
+            out.writeTree(new ErrorResponse("No robot provided for state", robotName, getWorld()).execute());
+            return false;
         }
-        ObjectNode stateResponse = getMapper().createObjectNode();
-        stateResponse.set("state", new StateNode(robotName, gameWorld).execute());
-        stateResponse.put("result", "OK");
-        return stateResponse;
+        out.writeStartObject();
+        out.writeFieldName("state");
+        new StateNode(robotName, gameWorld).writeTo(out);
+        out.writeStringField("result", "OK");
+        out.writeEndObject();
+        return true;
     }
-}
\ No newline at end of file
+}
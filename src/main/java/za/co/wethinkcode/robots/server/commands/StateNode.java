@@ -1,36 +1,91 @@
 package za.co.wethinkcode.robots.server.commands;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import za.co.wethinkcode.robots.server.world.Robot;
 import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldSnapshot;
+
+import java.io.IOException;
 
 public class StateNode extends ClientCommands {
     private final String robotName;
     private final World gameWorld;
+    private final WorldSnapshot.RobotView view; // set when rendering a snapshot instead of the live robot
 
     public StateNode(String robotName, World gameWorld) {
         super(robotName, gameWorld);
         this.robotName = robotName;
         this.gameWorld = gameWorld;
+        this.view = null;
+    }
+
+    /**
+     * Renders a robot's state from a world snapshot, so several robots come from one consistent view.
+     *
+     * @param view      the robot's record in the snapshot
+     * @param gameWorld reference to the world object
+     */
+    public StateNode(WorldSnapshot.RobotView view, World gameWorld) {
+        super(view.getName(), gameWorld);
+        this.robotName = view.getName();
+        this.gameWorld = gameWorld;
+        this.view = view;
     }
 
     @Override
     public JsonNode execute() {
+        if (view != null) {
+            return state(view.getX(), view.getY(), view.getDirection(), view.getShields(),
+                    view.getShots(), view.getMaxShots(), view.getStatus());
+        }
         Robot robot = gameWorld.getRobot(robotName);
         if (robot == null) {
             return new ErrorResponse("No robot provided for state", robotName, getWorld()).execute();
         }
+        return state(robot.getX(), robot.getY(), robot.getDirection(), robot.getShields(),
+                robot.getShots(), robot.getMaxShots(), robot.getStatus());
+    }
+
+    private ObjectNode state(int x, int y, String direction, int shields, int shots, int maxShots, String status) {
         ObjectNode state = getMapper().createObjectNode();
 
-        state.putArray("position").add(robot.getX()).add(robot.getY());
-        state.put("direction", robot.getDirection());
-        state.put("shields", robot.getShields());
-        state.put("shots", robot.getShots());
-        state.put("maxShots", robot.getMaxShots());
-        state.put("status", robot.getStatus());
-        state.put("dead", "DEAD".equals(robot.getStatus()));
+        state.putArray("position").add(x).add(y);
+        state.put("direction", direction);
+        state.put("shields", shields);
+        state.put("shots", shots);
+        state.put("maxShots", maxShots);
+        state.put("status", status);
+        state.put("dead", "DEAD".equals(status));
 
         return state;
     }
-}
\ No newline at end of file
+
+    /**
+     * Streams the same state object that {@link #execute()} builds, without the tree.
+     *
+     * @param out generator positioned where the state object should start
+     */
+    public void writeTo(JsonGenerator out) throws IOException {
+        Robot robot = gameWorld.getRobot(robotName);
+        if (robot == null || view != null) {
+            out.writeTree(execute());
+            return;
+        }
+        String status = robot.getStatus();
+
+        out.writeStartObject();
+        out.writeArrayFieldStart("position");
+        out.writeNumber(robot.getX());
+        out.writeNumber(robot.getY());
+        out.writeEndArray();
+        out.writeStringField("direction", robot.getDirection());
+        out.writeNumberField("shields", robot.getShields());
+        out.writeNumberField("shots", robot.getShots());
+        out.writeNumberField("maxShots", robot.getMaxShots());
+        out.writeStringField("status", status);
+        out.writeBooleanField("dead", "DEAD".equals(status));
+        out.writeEndObject();
+    }
+}
@@ -0,0 +1,93 @@
+package za.co.wethinkcode.robots.server.commands;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import za.co.wethinkcode.robots.server.stats.ServerStats;
+import za.co.wethinkcode.robots.server.stats.WindowedHistogram;
+import za.co.wethinkcode.robots.server.world.SimulationLoop;
+import za.co.wethinkcode.robots.server.world.World;
+
+import java.util.Map;
+
+/**
+ * Command that reports server request metrics.
+ * Returns request, error and disconnect counters plus, for each command name and for
+ * response serialization, throughput and p50/p99/p99.9 latency (microseconds) over the
+ * last 10 seconds and the last minute.
+ * When a simulation loop owns the world, its tick counters are reported under "simulation".
+ */
+public class StatsCommand extends ServerCommands {
+    private static final long SHORT_WINDOW_MILLIS = 10_000;
+    private static final long LONG_WINDOW_MILLIS = 60_000;
+
+    private final ServerStats stats;
+    private final SimulationLoop loop;
+
+    /**
+     * Constructor for StatsCommand.
+     *
+     * @param gameWorld reference to the world object
+     * @param stats     the metrics to report
+     */
+    public StatsCommand(World gameWorld, ServerStats stats) {
+        this(gameWorld, stats, null);
+    }
+
+    /**
+     * Constructor for StatsCommand on a world driven by a simulation loop.
+     *
+     * @param gameWorld reference to the world object
+     * @param stats     the metrics to report
+     * @param loop      the loop whose tick counters to report, or null for none
+     */
+    public StatsCommand(World gameWorld, ServerStats stats, SimulationLoop loop) {
+        super(gameWorld);
+        this.stats = stats;
+        this.loop = loop;
+    }
+
+    /**
+     * Executes the stats command.
+     *
+     * @return JsonNode with result "OK" and the counters and latency windows under "data"
+     */
+    @Override
+    public JsonNode execute() {
+        ObjectNode response = getMapper().createObjectNode();
+        response.put("result", "OK");
+
+        ObjectNode data = response.putObject("data");
+        data.put("uptimeSeconds", stats.getUptimeMillis() / 1000);
+        data.put("requests", stats.getRequests());
+        data.put("errors", stats.getErrors());
+        data.put("disconnects", stats.getDisconnects());
+
+        ObjectNode windows = data.putObject("windows");
+        windows.set("10s", summarize(SHORT_WINDOW_MILLIS));
+        windows.set("1m", summarize(LONG_WINDOW_MILLIS));
+
+        if (loop != null) {
+            ObjectNode simulation = data.putObject("simulation");
+            simulation.put("tickMillis", loop.getTickMillis());
+            simulation.put("ticks", loop.getTicks());
+            simulation.put("tasksRun", loop.getTasksRun());
+            simulation.put("lastBatchSize", loop.getLastBatchSize());
+            simulation.put("longestTickMicros", loop.getLongestTickNanos() / 1000);
+        }
+        return response;
+    }
+
+    private ObjectNode summarize(long windowMillis) {
+        ObjectNode commands = getMapper().createObjectNode();
+        for (Map.Entry<String, WindowedHistogram.Summary> entry : stats.summarize(windowMillis).entrySet()) {
+            WindowedHistogram.Summary summary = entry.getValue();
+            ObjectNode node = commands.putObject(entry.getKey());
+            node.put("count", summary.getCount());
+            node.put("perSecond", Math.round(summary.getThroughput() * 100) / 100.0);
+            node.put("p50", summary.getP50());
+            node.put("p99", summary.getP99());
+            node.put("p999", summary.getP999());
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,34 @@
+package za.co.wethinkcode.robots.server.commands;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import za.co.wethinkcode.robots.server.Json;
+
+import java.io.IOException;
+
+/**
+ * A command that can write its response field by field into a JsonGenerator.
+ * The network front ends bind the generator straight to the connection's output, so the
+ * hot commands never build an ObjectNode tree or an intermediate String.
+ * {@link #execute()} is still available for callers that want a tree.
+ */
+public interface StreamingCommand extends Command {
+
+    /**
+     * Executes the command and writes its response as one JSON object.
+     *
+     * @param out Generator positioned where the response object should start.
+     * @return true if the command succeeded, false if an error response was written.
+     * @throws IOException If writing to the generator fails.
+     */
+    boolean writeResponse(JsonGenerator out) throws IOException;
+
+    /**
+     * Executes the command through {@link #writeResponse} and captures the output as a tree.
+     *
+     * @return the JSON response.
+     */
+    default JsonNode toTree() {
+        return Json.toTree(this::writeResponse);
+    }
+}
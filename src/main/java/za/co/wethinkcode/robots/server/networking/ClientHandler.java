@@ -1,26 +1,31 @@
 package za.co.wethinkcode.robots.server.networking;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import za.co.wethinkcode.robots.server.commands.ClientCommands;
-import za.co.wethinkcode.robots.server.commands.Command;
+import za.co.wethinkcode.robots.server.Json;
+import za.co.wethinkcode.robots.server.stats.ServerStats;
 import za.co.wethinkcode.robots.server.world.World;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
 import java.net.Socket;
 
 /**
  * Handles communication with a single client.
- * Receives JSON commands, executes them, and sends JSON responses.
- * Tracks the robotName for this client and handles robot death/disconnection.
+ * Receives JSON commands, executes them, and sends JSON responses, or Smile frames once the
+ * client negotiates them (see {@link WireFormat}).
+ * Delegates robot tracking and death detection to a ClientSession.
  */
 public class ClientHandler implements Runnable {
     private final Socket clientSocket;
-    private final World gameWorld;
-    private final ObjectMapper mapper;
-    private String robotName;
+    private final ClientSession session;
 
     /**
      * Constructs a ClientHandler for a given socket and world.
@@ -30,61 +35,83 @@ public class ClientHandler implements Runnable {
      */
     public ClientHandler(Socket clientSocket, World gameWorld) {
         this.clientSocket = clientSocket;
-        this.gameWorld = gameWorld;
-        this.mapper = new ObjectMapper();
-        this.robotName = null;
+        this.session = new ClientSession(gameWorld);
     }
 
     /**
      * Main run loop for the client handler.
-     * Reads JSON commands, executes them, sends JSON responses.
-     * Updates robotName after launch and closes connection if robot dies.
+     * Reads JSON commands, executes them, sends JSON responses in request order.
+     * Clients may pipeline many lines without waiting; responses are flushed once no
+     * further request is buffered.
+     * Closes the connection once the session reports the robot is dead.
      */
     @Override
     public void run() {
         try (BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
-             PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true)) {
+             BufferedOutputStream rawOut = new BufferedOutputStream(clientSocket.getOutputStream());
+             JsonGenerator out = Json.mapper().createGenerator(rawOut, JsonEncoding.UTF8)) {
+            out.setRootValueSeparator(null); // responses are separated by newlines instead
 
             String inputLine;
             while ((inputLine = in.readLine()) != null) {
                 // Parse client input
-                JsonNode request = mapper.readTree(inputLine);
+                JsonNode request = Json.reader().readTree(inputLine);
 
-                // Create appropriate command
-                Command command = ClientCommands.create(request, gameWorld, robotName);
-
-                // Execute command and build response
-                JsonNode response = command.execute();
-
-                // Send response back to client
-                String jsonResponse = mapper.writeValueAsString(response);
-                out.println(jsonResponse);
-                out.flush();
-
-                // Capture robotName if command launched a robot
-                if (response.has("result") && "OK".equals(response.get("result").asText())) {
-                    JsonNode dataNode = response.get("data");
-                    if (dataNode != null && dataNode.has("robotName")) {
-                        robotName = dataNode.get("robotName").asText();
-                    }
+                if (WireFormat.requestsSmile(request)) {
+                    out.writeTree(WireFormat.accepted());
+                    out.writeRaw('\n');
+                    out.flush();
+                    // The client waits for that reply, so the reader holds no bytes past the request
+                    runBinary(new DataInputStream(new BufferedInputStream(clientSocket.getInputStream())),
+                            new DataOutputStream(rawOut));
+                    break;
                 }
 
-                // Close connection if robot is dead
-                if (response.has("state") &&
-                        response.get("state").has("dead") &&
-                        response.get("state").get("dead").asBoolean()) {
+                // Execute command and stream the response straight to the socket
+                session.write(request, out);
+                out.writeRaw('\n');
 
-                    System.out.println("Robot " + (robotName != null ? robotName : "") + " died. Closing connection...");
+                if (session.isFinished()) {
+                    out.flush();
                     break;
                 }
+                // Pipelined requests are already waiting: answer them all, then flush once
+                if (!in.ready()) {
+                    out.flush();
+                }
             }
 
         } catch (Exception e) {
             System.err.println("Client error: " + e.getMessage());
         } finally {
+            ServerStats.global().recordDisconnect();
             try {
                 clientSocket.close();
             } catch (Exception ignored) {}
         }
     }
+
+    /**
+     * Serves the rest of the connection in length-prefixed Smile frames.
+     */
+    private void runBinary(DataInputStream in, DataOutputStream out) throws IOException, InterruptedException {
+        byte[] frame;
+        while ((frame = WireFormat.readFrame(in)) != null) {
+            JsonNode request = Json.smileReader().readTree(frame);
+
+            ByteArrayBuilder buffer = new ByteArrayBuilder();
+            try (JsonGenerator response = Json.smileMapper().createGenerator(buffer)) {
+                session.write(request, response);
+            }
+            WireFormat.writeFrame(out, buffer.toByteArray());
+
+            if (session.isFinished()) {
+                out.flush();
+                break;
+            }
+            if (in.available() == 0) {
+                out.flush();
+            }
+        }
+    }
 }
@@ -0,0 +1,305 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import za.co.wethinkcode.robots.server.commands.ClientCommands;
+import za.co.wethinkcode.robots.server.commands.Command;
+import za.co.wethinkcode.robots.server.commands.ErrorResponse;
+import za.co.wethinkcode.robots.server.commands.StreamingCommand;
+import za.co.wethinkcode.robots.server.stats.ServerStats;
+import za.co.wethinkcode.robots.server.world.Robot;
+import za.co.wethinkcode.robots.server.world.World;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+
+/**
+ * Per-connection protocol state shared by every server front end.
+ * Executes client requests against the world, remembers the robot launched on this
+ * connection and decides when the connection should be closed.
+ */
+public class ClientSession {
+    private final World gameWorld;
+    private final ServerStats stats;
+    private String robotName;
+    private boolean finished;
+
+    /**
+     * Constructs a session for one client connection.
+     *
+     * @param gameWorld The world instance shared across clients.
+     */
+    public ClientSession(World gameWorld) {
+        this.gameWorld = gameWorld;
+        this.stats = ServerStats.global();
+        this.robotName = null;
+        this.finished = false;
+    }
+
+    /**
+     * Executes a single parsed request and waits for the response to send back.
+     *
+     * @param request The parsed JSON request.
+     * @return The JSON response for the client.
+     */
+    public JsonNode handle(JsonNode request) {
+        return handleAsync(request).join();
+    }
+
+    /**
+     * Executes a single parsed request without blocking on timed commands.
+     * Updates robotName after launch and marks the session finished if the robot dies.
+     * Callers must wait for the returned future before submitting the next request.
+     *
+     * @param request The parsed JSON request.
+     * @return a future holding the JSON response for the client.
+     */
+    public CompletableFuture<JsonNode> handleAsync(JsonNode request) {
+        long start = System.nanoTime();
+        return handleAsync(request, ClientCommands.create(request, gameWorld, robotName), start);
+    }
+
+    private CompletableFuture<JsonNode> handleAsync(JsonNode request, Command command, long start) {
+        return record(request, command, start, gameWorld.submit(command::executeAsync));
+    }
+
+    /**
+     * Records stats for a started command and tracks launch and death once it completes.
+     */
+    private CompletableFuture<JsonNode> record(JsonNode request, Command command, long start,
+                                               CompletableFuture<JsonNode> pending) {
+        String name = statsName(request, command);
+        return pending.whenComplete((response, error) -> {
+            boolean failed = error != null || isError(response);
+            stats.recordRequest(name, System.nanoTime() - start, failed);
+        }).thenApply(response -> {
+            track(response);
+            return response;
+        });
+    }
+
+    /**
+     * Executes a parsed request and writes its response to the generator.
+     * Streaming commands write field by field with no intermediate tree; other commands,
+     * and every command while a simulation loop owns the world, go through
+     * {@link #handleAsync} and the finished tree is written when it completes.
+     * <p>
+     * A JSON array of requests is a batch: the commands run in order and the response is a
+     * JSON array of their responses. The batch stops early if the robot dies.
+     * <p>
+     * A response that is ready at once is written on the calling thread. One that completes
+     * later, on the simulation loop or the world timer, is written by the given executor, so
+     * neither of those threads ever waits on a client.
+     *
+     * @param request The parsed JSON request, or an array of requests.
+     * @param out     Generator to write the response to.
+     * @param writes  The connection's own executor, for responses that complete later.
+     * @return a future that completes once the response has been written.
+     */
+    public CompletableFuture<Void> writeAsync(JsonNode request, JsonGenerator out, Executor writes) {
+        if (request != null && request.isArray()) {
+            return writeBatchAsync(request, out, writes);
+        }
+        return writeOneAsync(request, out, writes);
+    }
+
+    /**
+     * Executes a parsed request and writes its response on the calling thread, waiting for
+     * timed commands. For connections served by one blocking thread each.
+     *
+     * @param request The parsed JSON request, or an array of requests.
+     * @param out     Generator to write the response to.
+     */
+    public void write(JsonNode request, JsonGenerator out) throws InterruptedException {
+        // Writes for responses that complete elsewhere are handed back to this thread
+        BlockingQueue<Runnable> here = new LinkedBlockingQueue<>();
+        CompletableFuture<Void> written = writeAsync(request, out, here::add);
+        written.whenComplete((done, error) -> here.add(() -> {})); // wakes the loop if it failed elsewhere
+        while (!written.isDone()) {
+            here.take().run();
+        }
+        written.join();
+    }
+
+    private CompletableFuture<Void> writeOneAsync(JsonNode request, JsonGenerator out, Executor writes) {
+        long start = System.nanoTime();
+        Command command = ClientCommands.create(request, gameWorld, robotName);
+        if (!(command instanceof StreamingCommand streaming) || gameWorld.isSingleWriter()) {
+            return whenDone(handleAsync(request, command, start), response -> writeTree(response, out), writes);
+        }
+
+        try {
+            boolean succeeded = streaming.writeResponse(out);
+            stats.recordRequest(statsName(request, command), System.nanoTime() - start, !succeeded);
+        } catch (IOException | RuntimeException e) {
+            stats.recordRequest(statsName(request, command), System.nanoTime() - start, true);
+            return CompletableFuture.failedFuture(e);
+        }
+        trackDeath();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Runs a write once a world future completes: here if it already has, otherwise on the
+     * connection's executor rather than the thread that completes it.
+     */
+    private static <T> CompletableFuture<Void> whenDone(CompletableFuture<T> pending, Consumer<T> write,
+                                                        Executor writes) {
+        return pending.isDone() ? pending.thenAccept(write) : pending.thenAcceptAsync(write, writes);
+    }
+
+    private void writeTree(JsonNode response, JsonGenerator out) {
+        try {
+            long serializeStart = System.nanoTime();
+            out.writeTree(response);
+            stats.recordSerialization(System.nanoTime() - serializeStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a batch as one JSON array. With a simulation loop the whole batch is a single
+     * task on it, so this robot's commands are applied back to back in one world acquisition;
+     * otherwise each command runs on this thread as if sent on its own line.
+     */
+    private CompletableFuture<Void> writeBatchAsync(JsonNode requests, JsonGenerator out, Executor writes) {
+        try {
+            out.writeStartArray();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<Void> written;
+        if (gameWorld.isSingleWriter()) {
+            written = whenDone(gameWorld.submit(() -> executeBatch(requests, 0, new ArrayList<>())),
+                    responses -> responses.forEach(response -> writeTree(response, out)), writes);
+        } else {
+            written = writeBatch(requests, 0, out, writes);
+        }
+
+        return written.thenRun(() -> {
+            try {
+                out.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Writes responses from the given index on. Loops while commands complete at once and
+     * only chains on a future when a timed command is still pending, so long batches never
+     * build deep call stacks. A chained step runs on the thread that wrote the pending
+     * response, which is the connection's executor.
+     */
+    private CompletableFuture<Void> writeBatch(JsonNode requests, int index, JsonGenerator out, Executor writes) {
+        while (index < requests.size() && !finished) {
+            CompletableFuture<Void> written = writeOneAsync(requests.get(index++), out, writes);
+            if (!written.isDone() || written.isCompletedExceptionally()) {
+                int next = index;
+                return written.thenCompose(done -> writeBatch(requests, next, out, writes));
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Runs on the simulation loop: executes commands directly, without another hop through
+     * {@link World#submit}, and collects their responses.
+     */
+    private CompletableFuture<List<JsonNode>> executeBatch(JsonNode requests, int index, List<JsonNode> responses) {
+        while (index < requests.size() && !finished) {
+            long start = System.nanoTime();
+            JsonNode request = requests.get(index++);
+            Command command = ClientCommands.create(request, gameWorld, robotName);
+            CompletableFuture<JsonNode> response = record(request, command, start, command.executeAsync());
+            if (!response.isDone() || response.isCompletedExceptionally()) {
+                int next = index;
+                return response.thenCompose(r -> {
+                    responses.add(r);
+                    return executeBatch(requests, next, responses);
+                });
+            }
+            responses.add(response.join());
+        }
+        return CompletableFuture.completedFuture(responses);
+    }
+
+    /**
+     * Names a request for the latency stats. Only commands the server recognised keep their
+     * own name, so clients cannot grow the stats table with made-up commands.
+     */
+    private static String statsName(JsonNode request, Command command) {
+        JsonNode name = request.get("command");
+        if (command instanceof ErrorResponse || name == null) {
+            return "invalid";
+        }
+        return name.asText().toLowerCase();
+    }
+
+    private static boolean isError(JsonNode response) {
+        JsonNode result = response.get("result");
+        return result != null && "ERROR".equalsIgnoreCase(result.asText());
+    }
+
+    /**
+     * Inspects a response for a launched robot name or a dead robot.
+     *
+     * @param response The response about to be sent.
+     */
+    private void track(JsonNode response) {
+        // Capture robotName if command launched a robot
+        if (response.has("result") && "OK".equals(response.get("result").asText())) {
+            JsonNode dataNode = response.get("data");
+            if (dataNode != null && dataNode.has("robotName")) {
+                robotName = dataNode.get("robotName").asText();
+            }
+        }
+
+        // Close connection if robot is dead
+        if (response.has("state") &&
+                response.get("state").has("dead") &&
+                response.get("state").get("dead").asBoolean()) {
+
+            System.out.println("Robot " + (robotName != null ? robotName : "") + " died. Closing connection...");
+            finished = true;
+        }
+    }
+
+    /**
+     * Streamed responses are never parsed back, so check the world for this robot's death.
+     */
+    private void trackDeath() {
+        Robot robot = robotName != null ? gameWorld.getRobot(robotName) : null;
+        if (robot != null && "DEAD".equals(robot.getStatus())) {
+            System.out.println("Robot " + robotName + " died. Closing connection...");
+            finished = true;
+        }
+    }
+
+    /**
+     * Returns the name of the robot launched on this connection.
+     *
+     * @return robot name, or null if no robot has been launched yet.
+     */
+    public String getRobotName() {
+        return robotName;
+    }
+
+    /**
+     * Returns true once the connection should be closed.
+     *
+     * @return true if the robot on this connection has died.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+}
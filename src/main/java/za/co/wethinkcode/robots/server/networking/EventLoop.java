@@ -0,0 +1,119 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import za.co.wethinkcode.robots.server.world.World;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A single selector thread that owns a set of client connections.
+ * All channel I/O for a connection happens on its loop; other threads hand work
+ * back to the loop with {@link #execute(Runnable)}.
+ */
+public class EventLoop implements Runnable {
+    private final Selector selector;
+    private final Queue<Runnable> tasks;
+    private final ExecutorService workers;
+    private final World gameWorld;
+    private volatile boolean running;
+
+    /**
+     * Constructs an event loop.
+     *
+     * @param workers   Pool that executes commands so slow commands never stall the selector.
+     * @param gameWorld The world instance shared across clients.
+     * @throws IOException If the selector cannot be opened.
+     */
+    public EventLoop(ExecutorService workers, World gameWorld) throws IOException {
+        this.selector = Selector.open();
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.workers = workers;
+        this.gameWorld = gameWorld;
+        this.running = true;
+    }
+
+    /**
+     * Hands a newly accepted channel to this loop.
+     *
+     * @param channel The accepted client channel.
+     */
+    public void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                channel.configureBlocking(false);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new NioConnection(channel, key, this, workers, gameWorld));
+            } catch (IOException e) {
+                System.err.println("Client error: " + e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {}
+            }
+        });
+    }
+
+    /**
+     * Queues a task to run on the loop thread and wakes the selector.
+     *
+     * @param task The task to run.
+     */
+    public void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the loop after its current iteration.
+     */
+    public void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Selects ready channels and dispatches read/write readiness to their connections.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                runTasks();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    NioConnection connection = (NioConnection) key.attachment();
+                    if (!key.isValid()) continue;
+                    if (key.isReadable()) connection.onReadable();
+                    if (key.isValid() && key.isWritable()) connection.onWritable();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Event loop error: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof NioConnection connection) {
+                    connection.close();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Splits the bytes read from a connection into request frames.
+ */
+public interface Framer {
+
+    /**
+     * Consumes all readable bytes in the buffer and emits each complete frame.
+     *
+     * @param buffer A buffer in read mode (flipped).
+     * @param frames Receives one byte array per complete frame, without its delimiter.
+     * @throws IOException If the stream cannot be framed.
+     */
+    void feed(ByteBuffer buffer, Consumer<byte[]> frames) throws IOException;
+}
@@ -0,0 +1,54 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Splits a stream of bytes into frames that each start with a 4-byte big-endian length.
+ * Used once a client has negotiated the binary wire format; see {@link WireFormat}.
+ */
+public class LengthFramer implements Framer {
+    private final int maxFrameLength;
+    private final byte[] header;
+    private int headerLength;
+    private byte[] frame; // null while reading a header
+    private int frameLength;
+
+    /**
+     * Constructs a framer.
+     *
+     * @param maxFrameLength Largest frame accepted before the connection is considered broken.
+     */
+    public LengthFramer(int maxFrameLength) {
+        this.maxFrameLength = maxFrameLength;
+        this.header = new byte[4];
+    }
+
+    @Override
+    public void feed(ByteBuffer buffer, Consumer<byte[]> frames) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (frame == null) {
+                header[headerLength++] = buffer.get();
+                if (headerLength < header.length) continue;
+
+                headerLength = 0;
+                int length = ByteBuffer.wrap(header).getInt();
+                if (length < 0 || length > maxFrameLength) {
+                    throw new IOException("Frame length " + length + " exceeds " + maxFrameLength + " bytes");
+                }
+                frame = new byte[length];
+                frameLength = 0;
+            } else {
+                int n = Math.min(buffer.remaining(), frame.length - frameLength);
+                buffer.get(frame, frameLength, n);
+                frameLength += n;
+            }
+
+            if (frame != null && frameLength == frame.length) {
+                frames.accept(frame);
+                frame = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits a stream of bytes into newline-delimited frames.
+ * Bytes are copied straight out of the channel's ByteBuffer; a partial line is kept
+ * until the rest of it arrives. A trailing '\r' is stripped so CRLF clients also work.
+ */
+public class LineFramer implements Framer {
+    private final int maxLineLength;
+    private byte[] pending;
+    private int pendingLength;
+
+    /**
+     * Constructs a framer.
+     *
+     * @param maxLineLength Longest frame accepted before the connection is considered broken.
+     */
+    public LineFramer(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+        this.pending = new byte[256];
+        this.pendingLength = 0;
+    }
+
+    /**
+     * Consumes all readable bytes in the buffer and emits each complete line.
+     *
+     * @param buffer A buffer in read mode (flipped).
+     * @param frames Receives one byte array per complete line, without the newline.
+     * @throws IOException If a line exceeds the maximum length.
+     */
+    @Override
+    public void feed(ByteBuffer buffer, Consumer<byte[]> frames) throws IOException {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                int length = pendingLength;
+                if (length > 0 && pending[length - 1] == '\r') {
+                    length--;
+                }
+                if (length > 0) {
+                    frames.accept(Arrays.copyOf(pending, length));
+                }
+                pendingLength = 0;
+                continue;
+            }
+            if (pendingLength == maxLineLength) {
+                throw new IOException("Request exceeds " + maxLineLength + " bytes without a newline");
+            }
+            if (pendingLength == pending.length) {
+                pending = Arrays.copyOf(pending, Math.min(pending.length * 2, maxLineLength));
+            }
+            pending[pendingLength++] = b;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import za.co.wethinkcode.robots.server.Json;
+import za.co.wethinkcode.robots.server.stats.ServerStats;
+import za.co.wethinkcode.robots.server.world.World;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * One non-blocking client connection owned by an EventLoop.
+ * Frames newline-delimited JSON (or length-prefixed Smile, once negotiated; see
+ * {@link WireFormat}) out of the read buffer, runs one request at a time on
+ * the worker pool (so responses stay in request order) and writes responses back
+ * without ever blocking the loop thread. A timed command (repair, reload) holds no
+ * thread while it waits; its response is written when the world timer fires.
+ * <p>
+ * A client that sends requests faster than they are answered is paused: once
+ * {@link #MAX_QUEUED_REQUESTS} are waiting the connection stops watching for reads, and
+ * starts again as the queue drains, so a pipelining client cannot grow the queue without
+ * limit. What it keeps sending waits in the kernel's socket buffers instead.
+ */
+public class NioConnection {
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_LINE_LENGTH = 1024 * 1024;
+    static final int MAX_QUEUED_REQUESTS = 16;
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final EventLoop loop;
+    private final ExecutorService workers;
+    private final ClientSession session;
+    private Framer framer; // switches to LengthFramer once Smile is negotiated
+    private boolean binary; // loop thread only; true once the Smile reply has been queued
+    private final ByteBuffer readBuffer;
+    private final Queue<byte[]> requests;
+    private final Queue<ByteBuffer> writes;
+    private boolean busy;
+    private boolean closing;
+
+    /**
+     * Constructs a connection. Must be called on the owning loop thread.
+     *
+     * @param channel   The non-blocking client channel.
+     * @param key       The channel's selection key on the loop's selector.
+     * @param loop      The loop that owns this connection.
+     * @param workers   Pool that executes commands.
+     * @param gameWorld The world instance shared across clients.
+     */
+    public NioConnection(SocketChannel channel, SelectionKey key, EventLoop loop,
+                         ExecutorService workers, World gameWorld) {
+        this.channel = channel;
+        this.key = key;
+        this.loop = loop;
+        this.workers = workers;
+        this.session = new ClientSession(gameWorld);
+        this.framer = new LineFramer(MAX_LINE_LENGTH);
+        this.binary = false;
+        this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        this.requests = new ArrayDeque<>();
+        this.writes = new ArrayDeque<>();
+        this.busy = false;
+        this.closing = false;
+    }
+
+    /**
+     * Reads whatever is available and queues every complete request line.
+     */
+    void onReadable() {
+        try {
+            int read = channel.read(readBuffer);
+            if (read < 0) {
+                close();
+                return;
+            }
+            readBuffer.flip();
+            framer.feed(readBuffer, requests::add);
+            readBuffer.clear();
+            dispatchNext();
+            updateInterest();
+        } catch (IOException e) {
+            System.err.println("Client error: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Flushes queued responses; stops watching for writability once everything is sent.
+     */
+    void onWritable() {
+        try {
+            while (!writes.isEmpty()) {
+                ByteBuffer buffer = writes.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    return; // socket buffer full, wait for the next OP_WRITE
+                }
+                writes.poll();
+            }
+            updateInterest();
+            if (closing) {
+                close();
+            }
+        } catch (IOException e) {
+            System.err.println("Client error: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Starts the next queued request if none is in flight.
+     */
+    private void dispatchNext() {
+        if (busy || closing || requests.isEmpty()) return;
+        busy = true;
+        byte[] frame = requests.poll();
+        boolean smile = binary;
+        try {
+            workers.execute(() -> execute(frame, smile));
+        } catch (RejectedExecutionException e) {
+            close();
+        }
+    }
+
+    /**
+     * Runs on a worker thread: parses and starts one request. Timed commands complete
+     * later on the world timer, and their response is written back on the worker pool;
+     * either way the serialized response is handed back to the loop.
+     */
+    private void execute(byte[] frame, boolean smile) {
+        try {
+            JsonNode request = smile ? Json.smileReader().readTree(frame) : Json.reader().readTree(frame);
+            ByteArrayBuilder buffer = new ByteArrayBuilder();
+            if (!smile && WireFormat.requestsSmile(request)) {
+                // The client sends nothing more until it reads this reply, so no JSON is left in the framer
+                Json.writer().writeValue(buffer, WireFormat.accepted());
+                byte[] response = buffer.toByteArray();
+                loop.execute(() -> {
+                    framer = new LengthFramer(WireFormat.MAX_FRAME_LENGTH);
+                    onResponse(response, false); // still newline-terminated JSON
+                    binary = true;
+                });
+                return;
+            }
+            JsonGenerator out = smile
+                    ? Json.smileMapper().createGenerator(buffer)
+                    : Json.mapper().createGenerator(buffer);
+            session.writeAsync(request, out, workers).whenComplete((done, error) -> {
+                if (error != null) {
+                    fail(error);
+                    return;
+                }
+                try {
+                    out.close();
+                    byte[] response = buffer.toByteArray();
+                    boolean finished = session.isFinished();
+                    loop.execute(() -> onResponse(response, finished));
+                } catch (Exception e) {
+                    fail(e);
+                }
+            });
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private void fail(Throwable error) {
+        System.err.println("Client error: " + error.getMessage());
+        loop.execute(this::close);
+    }
+
+    /**
+     * Runs on the loop thread once a request has been executed.
+     */
+    private void onResponse(byte[] response, boolean finished) {
+        busy = false;
+        if (!channel.isOpen()) return;
+
+        ByteBuffer buffer;
+        if (binary) {
+            buffer = ByteBuffer.allocate(response.length + 4);
+            buffer.putInt(response.length).put(response).flip();
+        } else {
+            buffer = ByteBuffer.allocate(response.length + 1);
+            buffer.put(response).put((byte) '\n').flip();
+        }
+        writes.add(buffer);
+
+        if (finished) {
+            closing = true;
+            requests.clear();
+        }
+        onWritable();
+        dispatchNext();
+        updateInterest();
+    }
+
+    /**
+     * Watches for reads while the request queue has room, and for writes while responses
+     * are waiting to be sent.
+     */
+    private void updateInterest() {
+        if (!key.isValid()) return;
+        int ops = 0;
+        if (requests.size() < MAX_QUEUED_REQUESTS) {
+            ops |= SelectionKey.OP_READ;
+        }
+        if (!writes.isEmpty()) {
+            ops |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(ops);
+    }
+
+    /**
+     * Closes the channel and cancels its key.
+     */
+    void close() {
+        if (channel.isOpen()) {
+            ServerStats.global().recordDisconnect();
+        }
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,71 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import za.co.wethinkcode.robots.server.world.World;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-blocking server front end.
+ * One acceptor hands channels round-robin to a fixed set of EventLoops, and commands run
+ * on a fixed worker pool, so the thread count stays constant however many clients connect.
+ */
+public class NioServer {
+    private final int port;
+    private final World gameWorld;
+    private final int eventLoopCount;
+    private final int workerCount;
+
+    /**
+     * Constructs a NioServer.
+     *
+     * @param port           TCP port to listen on.
+     * @param gameWorld      The game world instance.
+     * @param eventLoopCount Number of selector threads.
+     * @param workerCount    Number of threads executing commands.
+     */
+    public NioServer(int port, World gameWorld, int eventLoopCount, int workerCount) {
+        this.port = port;
+        this.gameWorld = gameWorld;
+        this.eventLoopCount = Math.max(1, eventLoopCount);
+        this.workerCount = Math.max(1, workerCount);
+    }
+
+    /**
+     * Binds the port and accepts clients on the calling thread until the channel closes.
+     *
+     * @throws IOException If the server channel cannot be opened or bound.
+     */
+    public void serve() throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount);
+        EventLoop[] loops = new EventLoop[eventLoopCount];
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(port));
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new EventLoop(workers, gameWorld);
+                Thread thread = new Thread(loops[i], "event-loop-" + i);
+                thread.setDaemon(true);
+                thread.start();
+            }
+            System.out.println("Server started on port " + port + " (NIO, " + loops.length
+                    + " event loops, " + workerCount + " workers)");
+
+            int next = 0;
+            while (serverChannel.isOpen()) {
+                SocketChannel clientChannel = serverChannel.accept();
+                System.out.println("New client connected: " + clientChannel.socket().getInetAddress());
+                loops[next].register(clientChannel);
+                next = (next + 1) % loops.length;
+            }
+        } finally {
+            for (EventLoop loop : loops) {
+                if (loop != null) loop.shutdown();
+            }
+            workers.shutdown();
+        }
+    }
+}
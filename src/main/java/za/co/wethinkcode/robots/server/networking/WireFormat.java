@@ -0,0 +1,81 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import za.co.wethinkcode.robots.server.Json;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Negotiation and framing for the optional binary wire format.
+ * Every connection starts in newline-delimited JSON. A client that wants the compact format
+ * sends {"command":"protocol","arguments":["smile"]} as its first request and waits for the
+ * reply. If the reply's result is OK, both sides switch to frames of Smile (binary JSON)
+ * behind a 4-byte big-endian length. An older server answers the request with an error, so
+ * the client simply stays on JSON.
+ */
+public final class WireFormat {
+    public static final String PROTOCOL_COMMAND = "protocol";
+    public static final String SMILE = "smile";
+    public static final int MAX_FRAME_LENGTH = 1024 * 1024;
+
+    private WireFormat() {
+    }
+
+    /**
+     * Returns true if the request asks to switch the connection to Smile frames.
+     */
+    public static boolean requestsSmile(JsonNode request) {
+        if (request == null || !PROTOCOL_COMMAND.equals(request.path("command").asText())) {
+            return false;
+        }
+        for (JsonNode argument : request.path("arguments")) {
+            if (SMILE.equalsIgnoreCase(argument.asText())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the JSON reply that accepts the switch; everything after it is framed.
+     */
+    public static JsonNode accepted() {
+        ObjectNode response = Json.mapper().createObjectNode();
+        response.put("result", "OK");
+        response.putObject("data").put("protocol", SMILE);
+        return response;
+    }
+
+    /**
+     * Reads one frame.
+     *
+     * @return the frame's payload, or null if the peer closed the connection between frames.
+     * @throws IOException If the stream ends mid-frame or the frame is too long.
+     */
+    public static byte[] readFrame(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("Frame length " + length + " exceeds " + MAX_FRAME_LENGTH + " bytes");
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return frame;
+    }
+
+    /**
+     * Writes one frame; the caller flushes.
+     */
+    public static void writeFrame(DataOutputStream out, byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+}
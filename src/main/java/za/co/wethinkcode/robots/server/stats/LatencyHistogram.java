@@ -0,0 +1,109 @@
+package za.co.wethinkcode.robots.server.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear latency histogram, in the style of HdrHistogram.
+ * Values are microseconds. Each power of two is split into 16 linear sub-buckets, so any
+ * reported percentile is within about 6% of the true value while the whole range up to
+ * roughly 19 hours fits in a few hundred counters. Recording is one atomic increment.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_MSB = 36; // 2^36 us is about 19 hours; larger values are clamped
+    static final int BUCKETS = SUB_BUCKETS + (MAX_MSB - SUB_BITS + 1) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << (MAX_MSB + 1)) - 1;
+
+    private final AtomicLongArray counts;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+    }
+
+    static int bucketOf(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest value that falls in the bucket.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowest = (long) (SUB_BUCKETS + sub) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Records one latency.
+     *
+     * @param micros Latency in microseconds; negative values count as zero.
+     */
+    public void record(long micros) {
+        counts.incrementAndGet(bucketOf(micros));
+    }
+
+    /**
+     * Adds this histogram's counts into a plain array, for merging several windows.
+     */
+    void addTo(long[] totals) {
+        for (int i = 0; i < BUCKETS; i++) {
+            totals[i] += counts.get(i);
+        }
+    }
+
+    /**
+     * Clears every bucket. Recordings racing with the reset may be lost.
+     */
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the value at the given percentile.
+     *
+     * @param percentile Percentile between 0 and 100.
+     * @return latency in microseconds, or 0 if nothing has been recorded.
+     */
+    public long valueAtPercentile(double percentile) {
+        long[] totals = new long[BUCKETS];
+        addTo(totals);
+        return valueAtPercentile(totals, percentile);
+    }
+
+    static long valueAtPercentile(long[] totals, double percentile) {
+        long total = 0;
+        for (long c : totals) total += c;
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += totals[i];
+            if (seen >= rank) {
+                return highestValueIn(i);
+            }
+        }
+        return highestValueIn(BUCKETS - 1);
+    }
+}
@@ -0,0 +1,104 @@
+package za.co.wethinkcode.robots.server.stats;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide request metrics: one sliding-window latency histogram per command name,
+ * one for response serialization, and counters for requests, errors and disconnects.
+ * Every recording path is lock-free so front ends can call it on each request.
+ */
+public class ServerStats {
+    public static final String SERIALIZATION = "serialize";
+
+    private static final long SLOT_MILLIS = 5_000;
+    private static final int SLOT_COUNT = 12; // one minute of history
+
+    private static final ServerStats GLOBAL = new ServerStats(System::currentTimeMillis);
+
+    private final LongSupplier clock;
+    private final long startedAt;
+    private final Map<String, WindowedHistogram> latencies;
+    private final LongAdder requests;
+    private final LongAdder errors;
+    private final LongAdder disconnects;
+
+    ServerStats(LongSupplier clock) {
+        this.clock = clock;
+        this.startedAt = clock.getAsLong();
+        this.latencies = new ConcurrentHashMap<>();
+        this.requests = new LongAdder();
+        this.errors = new LongAdder();
+        this.disconnects = new LongAdder();
+    }
+
+    /**
+     * Returns the stats shared by every connection in this server.
+     */
+    public static ServerStats global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Records one executed request.
+     *
+     * @param command    Command name as sent by the client.
+     * @param nanos      Time from receiving the request to having its response.
+     * @param failed     True if the response was an error.
+     */
+    public void recordRequest(String command, long nanos, boolean failed) {
+        requests.increment();
+        if (failed) {
+            errors.increment();
+        }
+        histogram(command).record(nanos / 1_000);
+    }
+
+    /**
+     * Records the time spent turning one response into bytes.
+     */
+    public void recordSerialization(long nanos) {
+        histogram(SERIALIZATION).record(nanos / 1_000);
+    }
+
+    public void recordDisconnect() {
+        disconnects.increment();
+    }
+
+    private WindowedHistogram histogram(String name) {
+        WindowedHistogram histogram = latencies.get(name);
+        if (histogram == null) {
+            histogram = latencies.computeIfAbsent(name,
+                    n -> new WindowedHistogram(SLOT_MILLIS, SLOT_COUNT, clock));
+        }
+        return histogram;
+    }
+
+    /**
+     * Summarizes every histogram over the given window, sorted by name.
+     */
+    public Map<String, WindowedHistogram.Summary> summarize(long windowMillis) {
+        Map<String, WindowedHistogram.Summary> summaries = new TreeMap<>();
+        latencies.forEach((name, histogram) -> summaries.put(name, histogram.summarize(windowMillis)));
+        return summaries;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getDisconnects() {
+        return disconnects.sum();
+    }
+
+    public long getUptimeMillis() {
+        return clock.getAsLong() - startedAt;
+    }
+}
@@ -0,0 +1,106 @@
+package za.co.wethinkcode.robots.server.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency histogram over a sliding time window.
+ * Time is cut into fixed slots held in a ring; recording goes to the slot for the current
+ * time, recycling it once it has fallen out of the window. Queries merge the slots that are
+ * still inside the requested window, so old latencies age out without any background thread.
+ */
+public class WindowedHistogram {
+    private final long slotMillis;
+    private final LatencyHistogram[] slots;
+    private final AtomicLong[] slotEpochs;
+    private final LongSupplier clock;
+
+    /**
+     * @param slotMillis Length of one slot in milliseconds.
+     * @param slotCount  Number of slots; the longest window is slotMillis * slotCount.
+     * @param clock      Source of the current time in milliseconds.
+     */
+    public WindowedHistogram(long slotMillis, int slotCount, LongSupplier clock) {
+        this.slotMillis = slotMillis;
+        this.slots = new LatencyHistogram[slotCount];
+        this.slotEpochs = new AtomicLong[slotCount];
+        this.clock = clock;
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new LatencyHistogram();
+            slotEpochs[i] = new AtomicLong(-1);
+        }
+    }
+
+    /**
+     * Records one latency in the current slot.
+     *
+     * @param micros Latency in microseconds.
+     */
+    public void record(long micros) {
+        long epoch = clock.getAsLong() / slotMillis;
+        int index = (int) (epoch % slots.length);
+        long current = slotEpochs[index].get();
+        // First recorder in a new slot period recycles it; losers of the race just record
+        if (current != epoch && slotEpochs[index].compareAndSet(current, epoch)) {
+            slots[index].reset();
+        }
+        slots[index].record(micros);
+    }
+
+    /**
+     * Merges the slots covering roughly the last windowMillis, including the current one.
+     *
+     * @param windowMillis Window length; rounded up to whole slots and capped at the ring size.
+     * @return summary of the merged window.
+     */
+    public Summary summarize(long windowMillis) {
+        long now = clock.getAsLong();
+        long epoch = now / slotMillis;
+        int wanted = (int) Math.min(slots.length, Math.max(1, (windowMillis + slotMillis - 1) / slotMillis));
+
+        long[] totals = new long[LatencyHistogram.BUCKETS];
+        for (int i = 0; i < slots.length; i++) {
+            long slotEpoch = slotEpochs[i].get();
+            if (slotEpoch >= 0 && slotEpoch > epoch - wanted && slotEpoch <= epoch) {
+                slots[i].addTo(totals);
+            }
+        }
+
+        long count = 0;
+        for (long c : totals) count += c;
+        // The current slot is only partly elapsed, so divide by the time actually covered
+        double seconds = ((wanted - 1) * slotMillis + (now % slotMillis) + 1) / 1000.0;
+        return new Summary(
+                count,
+                count / seconds,
+                LatencyHistogram.valueAtPercentile(totals, 50),
+                LatencyHistogram.valueAtPercentile(totals, 99),
+                LatencyHistogram.valueAtPercentile(totals, 99.9)
+        );
+    }
+
+    /**
+     * Count, throughput (per second) and percentiles (microseconds) over one window.
+     */
+    public static class Summary {
+        private final long count;
+        private final double throughput;
+        private final long p50;
+        private final long p99;
+        private final long p999;
+
+        Summary(long count, double throughput, long p50, long p99, long p999) {
+            this.count = count;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+
+        public long getCount() { return count; }
+        public double getThroughput() { return throughput; }
+        public long getP50() { return p50; }
+        public long getP99() { return p99; }
+        public long getP999() { return p999; }
+    }
+}
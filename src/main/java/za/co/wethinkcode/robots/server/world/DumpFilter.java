@@ -0,0 +1,79 @@
+package za.co.wethinkcode.robots.server.world;
+
+/**
+ * Selects which parts of the world a dump writes.
+ * A dump can be limited to robots or obstacles and to a rectangle of cells; obstacles are
+ * included when any part of them overlaps the rectangle.
+ */
+public class DumpFilter {
+    public static final DumpFilter ALL = new DumpFilter(true, true,
+            Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    private final boolean robots;
+    private final boolean obstacles;
+    private final int minX, minY, maxX, maxY;
+
+    /**
+     * @param robots    Include robots.
+     * @param obstacles Include obstacles.
+     * @param x1        X of one corner of the bounding box.
+     * @param y1        Y of one corner of the bounding box.
+     * @param x2        X of the opposite corner.
+     * @param y2        Y of the opposite corner.
+     */
+    public DumpFilter(boolean robots, boolean obstacles, int x1, int y1, int x2, int y2) {
+        this.robots = robots;
+        this.obstacles = obstacles;
+        this.minX = Math.min(x1, x2);
+        this.minY = Math.min(y1, y2);
+        this.maxX = Math.max(x1, x2);
+        this.maxY = Math.max(y1, y2);
+    }
+
+    /**
+     * Returns a copy limited to the given bounding box.
+     */
+    public DumpFilter within(int x1, int y1, int x2, int y2) {
+        return new DumpFilter(robots, obstacles, x1, y1, x2, y2);
+    }
+
+    /**
+     * Returns a copy that only includes robots.
+     */
+    public DumpFilter robotsOnly() {
+        return new DumpFilter(true, false, minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Returns a copy that only includes obstacles.
+     */
+    public DumpFilter obstaclesOnly() {
+        return new DumpFilter(false, true, minX, minY, maxX, maxY);
+    }
+
+    public boolean includesRobots() {
+        return robots;
+    }
+
+    public boolean includesObstacles() {
+        return obstacles;
+    }
+
+    /**
+     * Returns true if a robot standing on the cell is included.
+     */
+    public boolean includes(int x, int y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    /**
+     * Returns true if any part of the obstacle lies inside the bounding box.
+     */
+    public boolean includes(Obstacle o) {
+        int left = Math.min(o.getTopLeftX(), o.getBottomLeftX());
+        int right = Math.max(o.getTopRightX(), o.getBottomRightX());
+        int bottom = Math.min(o.getBottomLeftY(), o.getBottomRightY());
+        int top = Math.max(o.getTopLeftY(), o.getTopRightY());
+        return left <= maxX && right >= minX && bottom <= maxY && top >= minY;
+    }
+}
@@ -0,0 +1,145 @@
+package za.co.wethinkcode.robots.server.world;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * Index of the cells a robot could launch into: inside the world, not under a solid obstacle,
+ * and not holding a live robot.
+ * A Fenwick tree over the one-bit-per-cell free map picks a uniformly random free cell in
+ * O(log n), and a running count answers "is the world full?" in O(1).
+ * <p>
+ * StripedOccupancy reports each cell as it changes between empty and occupied, under that
+ * cell's stripe lock. Tree nodes are updated with atomic adds, so concurrent changes in
+ * different regions commute; a pick racing with them may land on a cell that was just taken,
+ * which is why callers re-check the cell under its lock before using it.
+ */
+public class FreeCells {
+    private final int minX;
+    private final int minY;
+    private final int width;
+    private final int height;
+    private final ObstacleGrid grid;
+    private final AtomicIntegerArray tree; // 1-based Fenwick tree of free flags
+    private final AtomicInteger free;
+
+    /**
+     * Builds the index with every open cell free.
+     *
+     * @param width  World width.
+     * @param height World height.
+     * @param grid   Obstacle index; cells that block movement are never free.
+     */
+    public FreeCells(int width, int height, ObstacleGrid grid) {
+        this.minX = -(width / 2);
+        this.minY = -(height / 2);
+        this.width = width;
+        this.height = height;
+        this.grid = grid;
+
+        int n = width * height;
+        int[] nodes = new int[n + 1];
+        int count = 0;
+        for (int i = 1; i <= n; i++) {
+            int cell = i - 1;
+            if (!grid.blocksMovement(minX + cell % width, minY + cell / width)) {
+                nodes[i]++;
+                count++;
+            }
+            // Linear-time build: push each node's sum up to its parent
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                nodes[parent] += nodes[i];
+            }
+        }
+        this.tree = new AtomicIntegerArray(nodes);
+        this.free = new AtomicInteger(count);
+    }
+
+    /**
+     * Records that a live robot now stands on a previously empty cell.
+     */
+    void occupy(int x, int y) {
+        int cell = cellOf(x, y);
+        if (cell >= 0) {
+            add(cell, -1);
+        }
+    }
+
+    /**
+     * Records that the last live robot left the cell.
+     */
+    void release(int x, int y) {
+        int cell = cellOf(x, y);
+        if (cell >= 0) {
+            add(cell, 1);
+        }
+    }
+
+    /**
+     * Returns the number of free cells.
+     */
+    public int count() {
+        return free.get();
+    }
+
+    public boolean isFull() {
+        return free.get() <= 0;
+    }
+
+    /**
+     * Picks a uniformly random free cell.
+     *
+     * @param random Source of randomness.
+     * @return the cell's index, or -1 if the world is full or a concurrent change left fewer
+     *         free cells than were counted when the pick began; check {@link #isFull()} to tell.
+     */
+    public int pick(RandomGenerator random) {
+        int count = free.get();
+        if (count <= 0) {
+            return -1;
+        }
+        int rank = random.nextInt(count);
+
+        // Descend the tree to the cell holding the rank-th free flag
+        int n = tree.length() - 1;
+        int position = 0;
+        for (int step = Integer.highestOneBit(n); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= n) {
+                int sum = tree.get(next);
+                if (sum <= rank) {
+                    position = next;
+                    rank -= sum;
+                }
+            }
+        }
+        return position < n ? position : -1;
+    }
+
+    public int xOf(int cell) {
+        return minX + cell % width;
+    }
+
+    public int yOf(int cell) {
+        return minY + cell / width;
+    }
+
+    // Index of a cell inside the world and not under a solid obstacle, otherwise -1
+    private int cellOf(int x, int y) {
+        int column = x - minX;
+        int row = y - minY;
+        if (column < 0 || column >= width || row < 0 || row >= height || grid.blocksMovement(x, y)) {
+            return -1;
+        }
+        return row * width + column;
+    }
+
+    private void add(int cell, int delta) {
+        for (int i = cell + 1; i < tree.length(); i += i & -i) {
+            tree.addAndGet(i, delta);
+        }
+        free.addAndGet(delta);
+    }
+}
@@ -2,14 +2,21 @@ package za.co.wethinkcode.robots.server.world;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
 
 /**
  * Generates obstacles for the world.
  * Ensures obstacles do not overlap and are placed randomly.
+ * Collision checks go through an {@link ObstacleIndex}, so placing n obstacles costs O(n)
+ * expected time rather than O(n^2). The seeded variant also splits the world into regions
+ * that are filled in parallel, each from its own deterministic random stream.
  */
 public class ObstacleGenerator {
-    private static final Random random = new Random();
+    private static final int MAX_TRIES = 1000;
+    private static final int REGION_SIZE = 64; // cells per side of a region generated as one task
 
     /**
      * Calculates the number of obstacles of each type based on world area.
@@ -24,16 +31,55 @@ public class ObstacleGenerator {
      * Generates a list of obstacles for the world.
      */
     public static List<Obstacle> generate(int worldWidth, int worldHeight) {
-        List<Obstacle> obstacles = new ArrayList<>();
-        int count = obstaclesPerType(worldWidth, worldHeight);
+        return generate(worldWidth, worldHeight, ThreadLocalRandom.current().nextLong());
+    }
 
-        for (int i = 0; i < count; i++) {
-            placeObstacle(Obstacle.ObstacleType.MOUNTAIN, worldWidth, worldHeight, obstacles, 1);
-            placeObstacle(Obstacle.ObstacleType.LAKE, worldWidth, worldHeight, obstacles, 1);
-            placeObstacle(Obstacle.ObstacleType.PIT, worldWidth, worldHeight, obstacles, 1);
+    /**
+     * Generates obstacles region by region in parallel.
+     * Each region gets its own random stream derived from the seed and its obstacles stay
+     * inside it, so regions never collide with each other and the same seed always gives
+     * the same list, whatever the thread count.
+     *
+     * @param seed Seed for the whole world.
+     */
+    public static List<Obstacle> generate(int worldWidth, int worldHeight, long seed) {
+        int minX = -(worldWidth / 2);
+        int minY = -(worldHeight / 2);
+        int columns = (worldWidth + REGION_SIZE - 1) / REGION_SIZE;
+        int rows = (worldHeight + REGION_SIZE - 1) / REGION_SIZE;
+
+        // Derive every region's seed up front, in a fixed order
+        SplittableRandom root = new SplittableRandom(seed);
+        long[] seeds = new long[columns * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = root.nextLong();
         }
 
-        return obstacles;
+        return IntStream.range(0, seeds.length).parallel()
+                .mapToObj(region -> {
+                    int left = minX + (region % columns) * REGION_SIZE;
+                    int bottom = minY + (region / columns) * REGION_SIZE;
+                    int right = Math.min(left + REGION_SIZE, minX + worldWidth) - 1;
+                    int top = Math.min(bottom + REGION_SIZE, minY + worldHeight) - 1;
+                    return generateRegion(left, bottom, right, top, new SplittableRandom(seeds[region]));
+                })
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    // Fills one region with the density generate() uses for the whole world
+    private static List<Obstacle> generateRegion(int left, int bottom, int right, int top, RandomGenerator random) {
+        ObstacleIndex index = new ObstacleIndex(new ArrayList<>());
+        int count = obstaclesPerType(right - left + 1, top - bottom + 1);
+        Obstacle.ObstacleType[] types = {
+                Obstacle.ObstacleType.MOUNTAIN, Obstacle.ObstacleType.LAKE, Obstacle.ObstacleType.PIT
+        };
+        for (int i = 0; i < count; i++) {
+            for (Obstacle.ObstacleType type : types) {
+                placeObstacle(type, left, bottom, right, top, index, 1, random);
+            }
+        }
+        return index.getObstacles();
     }
 
     /**
@@ -41,18 +87,43 @@ public class ObstacleGenerator {
      */
     public static void placeObstacle(Obstacle.ObstacleType type, int width, int height,
                                      List<Obstacle> existing, int obstacleSize) {
-        int tries = 0;
-        while (tries < 1000) {
-            int x = randomCoord(width);
-            int y = randomCoord(height);
+        placeObstacle(type, width, height, new ObstacleIndex(existing), obstacleSize, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Attempts to place an obstacle anywhere in the world without colliding with indexed ones.
+     */
+    public static void placeObstacle(Obstacle.ObstacleType type, int width, int height,
+                                     ObstacleIndex existing, int obstacleSize, RandomGenerator random) {
+        for (int tries = 0; tries < MAX_TRIES; tries++) {
+            int x = random.nextInt(width) - (width / 2);
+            int y = random.nextInt(height) - (height / 2);
+
+            Obstacle candidate = new Obstacle(type, x, y, obstacleSize);
+
+            if (!existing.collides(candidate)) {
+                existing.add(candidate);
+                return;
+            }
+        }
+    }
+
+    // Places an obstacle whose whole rectangle lies inside the given bounds
+    private static void placeObstacle(Obstacle.ObstacleType type, int left, int bottom, int right, int top,
+                                      ObstacleIndex existing, int obstacleSize, RandomGenerator random) {
+        if (right - left < obstacleSize || top - bottom < obstacleSize) {
+            return;
+        }
+        for (int tries = 0; tries < MAX_TRIES; tries++) {
+            int x = random.nextInt(left, right - obstacleSize + 1);
+            int y = random.nextInt(bottom + obstacleSize, top + 1); // the top-left corner is the top edge
 
             Obstacle candidate = new Obstacle(type, x, y, obstacleSize);
 
-            if (!collides(candidate, existing)) {
+            if (!existing.collides(candidate)) {
                 existing.add(candidate);
-                break;
+                return;
             }
-            tries++;
         }
     }
 
@@ -90,6 +161,6 @@ public class ObstacleGenerator {
      * Generates a random coordinate within world bounds centered at zero.
      */
     public static int randomCoord(int bound) {
-        return random.nextInt(bound) - (bound / 2);
+        return ThreadLocalRandom.current().nextInt(bound) - (bound / 2);
     }
 }
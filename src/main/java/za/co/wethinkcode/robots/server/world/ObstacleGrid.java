@@ -0,0 +1,136 @@
+package za.co.wethinkcode.robots.server.world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable cell-to-obstacle index covering every cell inside the world.
+ * Each cell is one byte holding the movement/kill/sight properties of whatever covers it,
+ * plus one bit per obstacle type, so point queries are a single array read.
+ * Cells outside the world report no obstacle; callers check world bounds first.
+ */
+public class ObstacleGrid {
+    private static final int BLOCKS_MOVEMENT = 1;
+    private static final int KILLS_ROBOT = 1 << 1;
+    private static final int BLOCKS_SIGHT = 1 << 2;
+    private static final int TYPE_SHIFT = 3;
+
+    private static final Obstacle.ObstacleType[] TYPES = Obstacle.ObstacleType.values();
+
+    private final int minX;
+    private final int minY;
+    private final int columns;
+    private final int rows;
+    private final byte[] cells;
+
+    /**
+     * Builds the index for a world of the given size.
+     *
+     * @param width     World width.
+     * @param height    World height.
+     * @param obstacles Obstacles to index; cells they cover outside the world are ignored.
+     */
+    public ObstacleGrid(int width, int height, List<Obstacle> obstacles) {
+        this.minX = -(width / 2);
+        this.minY = -(height / 2);
+        this.columns = 2 * (width / 2) + 1;
+        this.rows = 2 * (height / 2) + 1;
+
+        long area = (long) columns * rows;
+        if (area > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("World of " + width + "x" + height + " is too large to index");
+        }
+        this.cells = new byte[(int) area];
+
+        for (Obstacle o : obstacles) {
+            mark(o);
+        }
+    }
+
+    private void mark(Obstacle o) {
+        int left = Math.max(Math.min(o.getTopLeftX(), o.getBottomLeftX()), minX);
+        int right = Math.min(Math.max(o.getTopRightX(), o.getBottomRightX()), minX + columns - 1);
+        int bottom = Math.max(Math.min(o.getBottomLeftY(), o.getBottomRightY()), minY);
+        int top = Math.min(Math.max(o.getTopLeftY(), o.getTopRightY()), minY + rows - 1);
+
+        int flags = 1 << (TYPE_SHIFT + o.getType().ordinal());
+        if (!o.canWalkThrough()) flags |= BLOCKS_MOVEMENT;
+        if (o.canKillYou()) flags |= KILLS_ROBOT;
+        if (!o.canSeePast()) flags |= BLOCKS_SIGHT;
+
+        for (int y = bottom; y <= top; y++) {
+            int row = (y - minY) * columns;
+            for (int x = left; x <= right; x++) {
+                cells[row + x - minX] |= (byte) flags;
+            }
+        }
+    }
+
+    // Raw cell flags, for SightLines to build its run tables from
+    int flagsAt(int x, int y) {
+        int column = x - minX;
+        int row = y - minY;
+        if (column < 0 || column >= columns || row < 0 || row >= rows) {
+            return 0;
+        }
+        return cells[row * columns + column];
+    }
+
+    /**
+     * Returns true if any obstacle covers the cell.
+     */
+    public boolean hasObstacle(int x, int y) {
+        return flagsAt(x, y) != 0;
+    }
+
+    /**
+     * Returns true if a solid obstacle (mountain or lake) covers the cell.
+     */
+    public boolean blocksMovement(int x, int y) {
+        return (flagsAt(x, y) & BLOCKS_MOVEMENT) != 0;
+    }
+
+    /**
+     * Returns true if a deadly obstacle (pit) covers the cell.
+     */
+    public boolean killsRobot(int x, int y) {
+        return (flagsAt(x, y) & KILLS_ROBOT) != 0;
+    }
+
+    /**
+     * Returns true if the cell flags mark an obstacle that blocks line of sight.
+     */
+    static boolean blocksSight(int cellFlags) {
+        return (cellFlags & BLOCKS_SIGHT) != 0;
+    }
+
+    /**
+     * Returns true unless an opaque obstacle (mountain) covers the cell.
+     */
+    public boolean canSeePast(int x, int y) {
+        return (flagsAt(x, y) & BLOCKS_SIGHT) == 0;
+    }
+
+    /**
+     * Returns the types of every obstacle covering the cell, in declaration order.
+     *
+     * @return list of obstacle types; empty if the cell is clear.
+     */
+    public List<Obstacle.ObstacleType> typesAt(int x, int y) {
+        return typesOf(flagsAt(x, y));
+    }
+
+    /**
+     * Decodes the obstacle types held in a cell's flags, in declaration order.
+     */
+    static List<Obstacle.ObstacleType> typesOf(int cellFlags) {
+        int flags = cellFlags >> TYPE_SHIFT;
+        List<Obstacle.ObstacleType> types = new ArrayList<>(1);
+        for (Obstacle.ObstacleType type : TYPES) {
+            if ((flags & (1 << type.ordinal())) != 0) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+}
@@ -0,0 +1,95 @@
+package za.co.wethinkcode.robots.server.world;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial hash over a growing list of obstacles, for collision checks while placing them.
+ * The plane is cut into square buckets; each obstacle is filed under every bucket its
+ * rectangle touches, so a collision check only compares against the few obstacles nearby
+ * instead of scanning the whole list.
+ */
+public class ObstacleIndex {
+    private static final int BUCKET_SHIFT = 3; // 8 x 8 cell buckets
+
+    private final List<Obstacle> obstacles;
+    private final Map<Long, List<Obstacle>> buckets;
+
+    /**
+     * Indexes the given list; obstacles added through this index are appended to it.
+     *
+     * @param obstacles The list to index and extend.
+     */
+    public ObstacleIndex(List<Obstacle> obstacles) {
+        this.obstacles = obstacles;
+        this.buckets = new HashMap<>();
+        for (Obstacle o : obstacles) {
+            file(o);
+        }
+    }
+
+    /**
+     * Returns true if the candidate overlaps any indexed obstacle.
+     */
+    public boolean collides(Obstacle candidate) {
+        int left = left(candidate) >> BUCKET_SHIFT;
+        int right = right(candidate) >> BUCKET_SHIFT;
+        int bottom = bottom(candidate) >> BUCKET_SHIFT;
+        int top = top(candidate) >> BUCKET_SHIFT;
+        for (int bx = left; bx <= right; bx++) {
+            for (int by = bottom; by <= top; by++) {
+                List<Obstacle> nearby = buckets.get(RobotOccupancy.pack(bx, by));
+                if (nearby == null) continue;
+                for (Obstacle o : nearby) {
+                    if (ObstacleGenerator.overlap(candidate, o)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the obstacle to the list and the index.
+     */
+    public void add(Obstacle obstacle) {
+        obstacles.add(obstacle);
+        file(obstacle);
+    }
+
+    public List<Obstacle> getObstacles() {
+        return obstacles;
+    }
+
+    private void file(Obstacle o) {
+        int left = left(o) >> BUCKET_SHIFT;
+        int right = right(o) >> BUCKET_SHIFT;
+        int bottom = bottom(o) >> BUCKET_SHIFT;
+        int top = top(o) >> BUCKET_SHIFT;
+        for (int bx = left; bx <= right; bx++) {
+            for (int by = bottom; by <= top; by++) {
+                buckets.computeIfAbsent(RobotOccupancy.pack(bx, by), key -> new ArrayList<>(2)).add(o);
+            }
+        }
+    }
+
+    // Same bounds ObstacleGenerator.overlap compares
+    private static int left(Obstacle o) {
+        return Math.min(o.getTopLeftX(), o.getBottomRightX());
+    }
+
+    private static int right(Obstacle o) {
+        return Math.max(o.getTopLeftX(), o.getBottomRightX());
+    }
+
+    private static int bottom(Obstacle o) {
+        return Math.min(o.getTopLeftY(), o.getBottomRightY());
+    }
+
+    private static int top(Obstacle o) {
+        return Math.max(o.getTopLeftY(), o.getBottomRightY());
+    }
+}
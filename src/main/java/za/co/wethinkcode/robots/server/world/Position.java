@@ -60,6 +60,17 @@ public class Position {
         return true;
     }
 
+    /**
+     * Validates if this position is free in the given world.
+     * Uses the world's obstacle index and occupancy map, so the check is O(1) instead of a scan.
+     */
+    public boolean isPositionValid(World world) {
+        if (!isPositionValid(world.worldWidth(), world.worldHeight(), null, null)) {
+            return false;
+        }
+        return !world.blocksMovement(x, y) && world.robotAt(x, y) == null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
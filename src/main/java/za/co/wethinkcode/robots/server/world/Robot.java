@@ -2,16 +2,18 @@ package za.co.wethinkcode.robots.server.world;
 
 public class Robot {
     private final String name;
-    private int x, y;
-    private String direction;
-    private int shields;
+    private volatile int x, y;       // volatile: read by other robots' commands without a lock
+    private volatile String direction;
+    private volatile int shields;
     private int maxShields;          // store original max shields
-    private int shots;
+    private volatile int shots;
     private int maxShots;
     private final int maxShotDistance;
     private int reloadTime;          // seconds until next reload
     private int repairTime;          // seconds until next repair
-    private String status;
+    private volatile String status;
+    private volatile StripedOccupancy occupancy; // set while the robot is in a world
+    private volatile Runnable changes; // tells the world about each change while the robot is in it
 
     public Robot(String name, String make, int shields, int shots, int maxShots) {
         this.name = name;
@@ -40,6 +42,7 @@ public class Robot {
         if (count > 0) {
             shots -= count;
             if (shots < 0) shots = 0;
+            changed();
         }
     }
 
@@ -48,40 +51,51 @@ public class Robot {
         shields -= damage;
         if (shields <= 0) {
             shields = 0;
-            status = "DEAD";
+            setStatus("DEAD");
         }
+        changed();
     }
 
-    // Repair shields up to max, pausing for repairTime seconds
+    // Enter the REPAIR state; shields are restored later by repair()
+    public void startRepair() {
+        if (!"DEAD".equals(status)) {
+            status = "REPAIR";
+            changed();
+        }
+    }
+
+    // Repair shields up to max and leave the REPAIR state
     public void repair() {
         if (!"DEAD".equals(status)) {
-            try {
-                if (repairTime > 0) {
-                    Thread.sleep(repairTime * 1000L);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
             shields = maxShields;
+            if ("REPAIR".equals(status)) {
+                status = "NORMAL";
+            }
+            changed();
+        }
+    }
+
+    // Enter the RELOAD state; shots are restored later by reload()
+    public void startReload() {
+        if (!"DEAD".equals(status)) {
+            status = "RELOAD";
+            changed();
         }
     }
 
-    // Reload shots, pausing for reloadTime seconds
+    // Reload shots and leave the RELOAD state
     public void reload() {
         if (!"DEAD".equals(status)) {
-            try {
-                if (reloadTime > 0) {
-                    Thread.sleep(reloadTime * 1000L);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
             shots = maxShots;
+            if ("RELOAD".equals(status)) {
+                status = "NORMAL";
+            }
+            changed();
         }
     }
 
     public boolean canFire() {
-        return shots > 0 && maxShotDistance > 0 && !"DEAD".equals(status);
+        return shots > 0 && maxShotDistance > 0 && !"DEAD".equals(status) && !"RELOAD".equals(status);
     }
 
     // Getters and setters
@@ -95,9 +109,54 @@ public class Robot {
     public int getMaxShots() { return maxShots; }
     public int getMaxShotDistance() { return maxShotDistance; }
     public String getStatus() { return status; }
-    public void setDirection(String direction) { this.direction = direction; }
-    public void setPosition(int x, int y) { this.x = x; this.y = y; }
-    public void setStatus(String status) { this.status = status; }
+    public int getReloadTime() { return reloadTime; }
+    public int getRepairTime() { return repairTime; }
+    public void setDirection(String direction) {
+        this.direction = direction;
+        changed();
+    }
+    public void setPosition(int x, int y) {
+        if (occupancy != null && !"DEAD".equals(status)) {
+            occupancy.move(this, this.x, this.y, x, y);
+        }
+        this.x = x;
+        this.y = y;
+        changed();
+    }
+    public void setStatus(String status) {
+        if (occupancy != null && "DEAD".equals(status) != "DEAD".equals(this.status)) {
+            if ("DEAD".equals(status)) {
+                occupancy.remove(x, y, this);
+            } else {
+                occupancy.put(x, y, this);
+            }
+        }
+        this.status = status;
+        changed();
+    }
     public void setReloadTime(int reloadTime) { this.reloadTime = reloadTime; }
     public void setRepairTime(int repairTime) { this.repairTime = repairTime; }
+
+    // Tells the world about a change, so the next published snapshot includes it
+    private void changed() {
+        Runnable c = changes;
+        if (c != null) c.run();
+    }
+
+    // Called by World when the robot enters or leaves it; keeps the occupancy map and version current
+    void attach(StripedOccupancy occupancy, Runnable changes) {
+        this.occupancy = occupancy;
+        this.changes = changes;
+        if (!"DEAD".equals(status)) {
+            occupancy.put(x, y, this);
+        }
+    }
+
+    void detach() {
+        if (occupancy != null) {
+            occupancy.remove(x, y, this);
+            occupancy = null;
+        }
+        changes = null;
+    }
 }
@@ -0,0 +1,150 @@
+package za.co.wethinkcode.robots.server.world;
+
+import java.util.Arrays;
+
+/**
+ * Maps a cell to the live robot standing on it.
+ * Open-addressing hash table keyed by the packed (x, y) coordinate, with linear probing and
+ * backward-shift deletion, so lookups never allocate and the table never fills with tombstones.
+ */
+public class RobotOccupancy {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private Robot[] values;
+    private int size;
+
+    public RobotOccupancy() {
+        this.keys = new long[INITIAL_CAPACITY];
+        this.values = new Robot[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Packs a coordinate into a single long key.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (keys.length - 1);
+    }
+
+    /**
+     * Returns the robot registered at the cell, or null.
+     */
+    public Robot get(int x, int y) {
+        long key = pack(x, y);
+        int mask = keys.length - 1;
+        for (int i = slot(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return null;
+    }
+
+    /**
+     * Registers a robot at the cell, replacing any robot already there.
+     *
+     * @return the robot previously registered at the cell, or null if it was empty.
+     */
+    public Robot put(int x, int y, Robot robot) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        long key = pack(x, y);
+        int mask = keys.length - 1;
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                Robot previous = values[i];
+                values[i] = robot;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = robot;
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the cell's entry if it still belongs to the given robot.
+     *
+     * @return true if the entry was removed.
+     */
+    public boolean remove(int x, int y, Robot robot) {
+        long key = pack(x, y);
+        int mask = keys.length - 1;
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                if (values[i] == robot) {
+                    deleteAt(i);
+                    return true;
+                }
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Moves a robot's entry from its old cell to its new one.
+     */
+    public void move(Robot robot, int oldX, int oldY, int newX, int newY) {
+        remove(oldX, oldY, robot);
+        put(newX, newY, robot);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Shifts later entries of the probe chain back over the freed slot.
+     */
+    private void deleteAt(int hole) {
+        int mask = keys.length - 1;
+        values[hole] = null;
+        size--;
+        int i = (hole + 1) & mask;
+        while (values[i] != null) {
+            int home = slot(keys[i]);
+            // move the entry back if its home slot is not inside (hole, i]
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                values[i] = null;
+                hole = i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Robot[] oldValues = values;
+        keys = new long[capacity];
+        values = new Robot[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int x = (int) (oldKeys[i] >> 32);
+                int y = (int) oldKeys[i];
+                put(x, y, oldValues[i]);
+            }
+        }
+    }
+}
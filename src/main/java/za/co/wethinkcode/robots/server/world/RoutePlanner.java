@@ -0,0 +1,249 @@
+package za.co.wethinkcode.robots.server.world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plans a route between two cells with A* search over the four directions a robot can move.
+ * Mountains and lakes, pits, and cells where another live robot stands are all avoided.
+ * The heuristic is the Manhattan distance, and ties on estimated cost go to the cell nearest
+ * the goal, so on open ground the search runs almost straight at the target instead of
+ * flooding the rectangle between the two.
+ * <p>
+ * The search is confined to a window around the start and goal, and its costs live in flat
+ * arrays indexed by cell. The arrays belong to the planner and are reused by every plan it
+ * makes, so re-planning allocates nothing; a planner is for one command and not thread-safe.
+ * <p>
+ * With a SimulationLoop the plan runs off the loop's thread, so other robots are read from the
+ * snapshot the loop publishes each tick rather than from the live occupancy table.
+ */
+public class RoutePlanner {
+    /** Most cells a search window may cover, which bounds a planner's memory to about 1.3 MB. */
+    public static final int MAX_AREA = 1 << 18;
+    private static final int MARGIN = 16; // room to detour around obstacles, plus half the distance
+
+    // Indexed by direction: NORTH, EAST, SOUTH, WEST
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+    private static final String[] NAMES = {"NORTH", "EAST", "SOUTH", "WEST"};
+
+    private static final byte CLOSED = 1 << 3; // in from[]: expanded, or found impassable
+    private static final byte DIRECTION = 0x7;  // in from[]: direction that reached the cell, plus one
+
+    private final World world;
+    private final OpenSet open = new OpenSet();
+    private int[] cost = new int[0];
+    private byte[] from = new byte[0];
+
+    /**
+     * One straight stretch of a route.
+     *
+     * @param direction Direction to face, e.g. "NORTH".
+     * @param steps     Cells to move forward.
+     * @param x         Column the stretch ends on.
+     * @param y         Row the stretch ends on.
+     */
+    public record Leg(String direction, int steps, int x, int y) {
+    }
+
+    public RoutePlanner(World world) {
+        this.world = world;
+    }
+
+    /**
+     * Plans a shortest route for a robot to a target cell.
+     *
+     * @return the route's straight stretches in order; empty if the robot is already there,
+     *         or null if no route exists within the search window.
+     * @throws IllegalArgumentException if the target is outside the world or too far away to search.
+     */
+    public List<Leg> plan(Robot robot, int goalX, int goalY) {
+        return plan(robot.getName(), robot.getX(), robot.getY(), goalX, goalY);
+    }
+
+    /**
+     * Plans a shortest route from a given cell, for a robot whose position was read elsewhere.
+     *
+     * @param self Name of the robot moving, whose own cell is not an obstacle.
+     * @see #plan(Robot, int, int)
+     */
+    public List<Leg> plan(String self, int startX, int startY, int goalX, int goalY) {
+        int halfWidth = world.worldWidth() / 2;
+        int halfHeight = world.worldHeight() / 2;
+        if (!new Position(goalX, goalY).isInsideWorld(world.worldWidth(), world.worldHeight())) {
+            throw new IllegalArgumentException("Target (" + goalX + "," + goalY + ") is outside the world");
+        }
+        if (startX == goalX && startY == goalY) {
+            return List.of();
+        }
+
+        // Window around start and goal, shrinking the margin until it fits in MAX_AREA
+        int margin = MARGIN + (Math.abs(goalX - startX) + Math.abs(goalY - startY)) / 2;
+        int minX, maxX, minY, maxY;
+        while (true) {
+            minX = Math.max(Math.min(startX, goalX) - margin, -halfWidth);
+            maxX = Math.min(Math.max(startX, goalX) + margin, halfWidth);
+            minY = Math.max(Math.min(startY, goalY) - margin, -halfHeight);
+            maxY = Math.min(Math.max(startY, goalY) + margin, halfHeight);
+            if ((long) (maxX - minX + 1) * (maxY - minY + 1) <= MAX_AREA) break;
+            if (margin == 0) {
+                throw new IllegalArgumentException("Target (" + goalX + "," + goalY + ") is too far away to plan a route");
+            }
+            margin /= 2;
+        }
+        WorldSnapshot view = world.isSingleWriter() ? world.snapshot() : null;
+        if (!passable(self, view, goalX, goalY)) {
+            return null;
+        }
+        return search(self, view, startX, startY, goalX, goalY, minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    private List<Leg> search(String self, WorldSnapshot view, int startX, int startY, int goalX, int goalY,
+                             int minX, int minY, int width, int height) {
+        int area = width * height;
+        if (cost.length < area) {
+            cost = new int[area];
+            from = new byte[area];
+        }
+        Arrays.fill(cost, 0, area, Integer.MAX_VALUE);
+        Arrays.fill(from, 0, area, (byte) 0);
+        open.clear();
+
+        int start = (startY - minY) * width + (startX - minX);
+        int goal = (goalY - minY) * width + (goalX - minX);
+        cost[start] = 0;
+        int h = Math.abs(goalX - startX) + Math.abs(goalY - startY);
+        open.push(h, h, start);
+
+        while (!open.isEmpty()) {
+            int cell = open.pop();
+            if ((from[cell] & CLOSED) != 0) continue; // stale entry for a cell already expanded
+            if (cell == goal) {
+                return legs(from, goal, goalX, goalY, width);
+            }
+            from[cell] |= CLOSED;
+
+            int x = minX + cell % width;
+            int y = minY + cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (nx < minX || nx >= minX + width || ny < minY || ny >= minY + height) continue;
+                int next = cell + DX[d] + DY[d] * width;
+                int g = cost[cell] + 1;
+                if ((from[next] & CLOSED) != 0 || g >= cost[next]) continue;
+                if (!passable(self, view, nx, ny)) {
+                    from[next] |= CLOSED; // never look it up again
+                    continue;
+                }
+                cost[next] = g;
+                from[next] = (byte) (d + 1);
+                h = Math.abs(goalX - nx) + Math.abs(goalY - ny);
+                open.push(g + h, h, next);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Walks back from the goal and merges runs in one direction into legs.
+     */
+    private static List<Leg> legs(byte[] from, int goal, int goalX, int goalY, int width) {
+        List<Leg> legs = new ArrayList<>();
+        int cell = goal;
+        int x = goalX;
+        int y = goalY;
+        int direction = (from[cell] & DIRECTION) - 1;
+        int endX = x;
+        int endY = y;
+        int steps = 0;
+        while (direction >= 0) {
+            int d = (from[cell] & DIRECTION) - 1;
+            if (d != direction) {
+                legs.add(new Leg(NAMES[direction], steps, endX, endY));
+                direction = d;
+                endX = x;
+                endY = y;
+                steps = 0;
+                if (d < 0) break; // reached the start
+            }
+            x -= DX[d];
+            y -= DY[d];
+            cell -= DX[d] + DY[d] * width;
+            steps++;
+        }
+        Collections.reverse(legs);
+        return legs;
+    }
+
+    // view is null when the plan may read the live occupancy table
+    private boolean passable(String self, WorldSnapshot view, int x, int y) {
+        if (world.blocksMovement(x, y) || world.killsRobot(x, y)) {
+            return false;
+        }
+        if (view != null) {
+            WorldSnapshot.RobotView other = view.robotAt(x, y); // live robots only
+            return other == null || other.getName().equals(self);
+        }
+        Robot other = world.robotAt(x, y);
+        return other == null || other.getName().equals(self) || "DEAD".equals(other.getStatus());
+    }
+
+    /**
+     * Binary min-heap of cells ordered by estimated total cost, then by distance to the goal.
+     * Cells are pushed again when a cheaper way to them is found; the search skips stale entries.
+     */
+    private static class OpenSet {
+        private long[] keys = new long[256]; // estimate in the high half, distance to goal in the low
+        private int[] cells = new int[256];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int estimate, int distance, int cell) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            long key = ((long) estimate << 32) | distance;
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                keys[i] = keys[parent];
+                cells[i] = cells[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            cells[i] = cell;
+        }
+
+        int pop() {
+            int top = cells[0];
+            size--;
+            long key = keys[size];
+            int cell = cells[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= key) break;
+                keys[i] = keys[child];
+                cells[i] = cells[child];
+                i = child;
+            }
+            keys[i] = key;
+            cells[i] = cell;
+            return top;
+        }
+    }
+}
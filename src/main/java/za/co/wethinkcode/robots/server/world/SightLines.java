@@ -0,0 +1,181 @@
+package za.co.wethinkcode.robots.server.world;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable line-of-sight tables for the static obstacles.
+ * For every row and every column of the world it keeps the sorted runs of obstacle cells,
+ * each run being consecutive cells with identical obstacle flags. A look along an axis is
+ * then one binary search for the first run past the viewer and a walk over only the cells
+ * that actually hold obstacles, instead of probing every cell up to the visibility limit.
+ * Built once per world from the ObstacleGrid, so a cell covered by several obstacles reports
+ * each of their types once, in ObstacleType order.
+ */
+public class SightLines {
+    private static final Line EMPTY = new Line(new int[0], new int[0], new byte[0]);
+
+    private final int minX;
+    private final int minY;
+    private final Line[] rows;    // index y - minY, runs along x
+    private final Line[] columns; // index x - minX, runs along y
+    private final List<List<Obstacle.ObstacleType>> typesByFlags;
+
+    /**
+     * Receives each obstacle cell on a traced ray, nearest first.
+     */
+    public interface Sink {
+        void accept(int distance, List<Obstacle.ObstacleType> types);
+    }
+
+    /**
+     * Builds the tables for a world of the given size.
+     *
+     * @param width  World width.
+     * @param height World height.
+     * @param grid   The world's obstacle index.
+     */
+    public SightLines(int width, int height, ObstacleGrid grid) {
+        this.minX = -(width / 2);
+        this.minY = -(height / 2);
+        int maxX = width / 2;
+        int maxY = height / 2;
+
+        this.rows = new Line[maxY - minY + 1];
+        for (int y = minY; y <= maxY; y++) {
+            int row = y;
+            rows[y - minY] = Line.build(minX, maxX, x -> grid.flagsAt(x, row));
+        }
+        this.columns = new Line[maxX - minX + 1];
+        for (int x = minX; x <= maxX; x++) {
+            int column = x;
+            columns[x - minX] = Line.build(minY, maxY, y -> grid.flagsAt(column, y));
+        }
+
+        List<List<Obstacle.ObstacleType>> types = new ArrayList<>(256);
+        for (int flags = 0; flags < 256; flags++) {
+            types.add(Collections.unmodifiableList(ObstacleGrid.typesOf(flags)));
+        }
+        this.typesByFlags = List.copyOf(types);
+    }
+
+    /**
+     * Walks a ray from (x, y) along one axis and reports every obstacle cell on it, nearest
+     * first, up to maxDistance. Stops after the first cell that blocks sight.
+     *
+     * @param dx      -1, 0 or 1; exactly one of dx and dy is non-zero.
+     * @param dy      -1, 0 or 1.
+     * @param sink    Receives each obstacle cell's distance and types.
+     * @return the distance of the cell that blocked sight, or -1 if nothing blocked it.
+     */
+    public int trace(int x, int y, int dx, int dy, int maxDistance, Sink sink) {
+        Line line;
+        int position;
+        int step;
+        if (dx != 0) {
+            int index = y - minY;
+            if (index < 0 || index >= rows.length) return -1;
+            line = rows[index];
+            position = x;
+            step = dx;
+        } else {
+            int index = x - minX;
+            if (index < 0 || index >= columns.length) return -1;
+            line = columns[index];
+            position = y;
+            step = dy;
+        }
+        return step > 0 ? line.forward(position, maxDistance, sink, typesByFlags)
+                : line.backward(position, maxDistance, sink, typesByFlags);
+    }
+
+    /**
+     * The runs of obstacle cells on one row or column, sorted by start.
+     */
+    private static final class Line {
+        private final int[] starts;
+        private final int[] ends;   // inclusive
+        private final byte[] flags;
+
+        private Line(int[] starts, int[] ends, byte[] flags) {
+            this.starts = starts;
+            this.ends = ends;
+            this.flags = flags;
+        }
+
+        private interface Cells {
+            int flagsAt(int position);
+        }
+
+        static Line build(int from, int to, Cells cells) {
+            int count = 0;
+            int previous = 0;
+            for (int p = from; p <= to; p++) {
+                int f = cells.flagsAt(p);
+                if (f != 0 && f != previous) count++;
+                previous = f;
+            }
+            if (count == 0) return EMPTY;
+
+            int[] starts = new int[count];
+            int[] ends = new int[count];
+            byte[] flags = new byte[count];
+            int run = -1;
+            previous = 0;
+            for (int p = from; p <= to; p++) {
+                int f = cells.flagsAt(p);
+                if (f != 0) {
+                    if (f != previous) {
+                        run++;
+                        starts[run] = p;
+                        flags[run] = (byte) f;
+                    }
+                    ends[run] = p;
+                }
+                previous = f;
+            }
+            return new Line(starts, ends, flags);
+        }
+
+        int forward(int position, int maxDistance, Sink sink, List<List<Obstacle.ObstacleType>> types) {
+            // First run that ends past the viewer
+            int low = 0;
+            int high = ends.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] <= position) low = mid + 1; else high = mid;
+            }
+            for (int i = low; i < starts.length; i++) {
+                int f = flags[i] & 0xFF;
+                for (int c = Math.max(starts[i], position + 1); c <= ends[i]; c++) {
+                    int distance = c - position;
+                    if (distance > maxDistance) return -1;
+                    sink.accept(distance, types.get(f));
+                    if (ObstacleGrid.blocksSight(f)) return distance;
+                }
+            }
+            return -1;
+        }
+
+        int backward(int position, int maxDistance, Sink sink, List<List<Obstacle.ObstacleType>> types) {
+            // Last run that starts before the viewer
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < position) low = mid + 1; else high = mid;
+            }
+            for (int i = low - 1; i >= 0; i--) {
+                int f = flags[i] & 0xFF;
+                for (int c = Math.min(ends[i], position - 1); c >= starts[i]; c--) {
+                    int distance = position - c;
+                    if (distance > maxDistance) return -1;
+                    sink.accept(distance, types.get(f));
+                    if (ObstacleGrid.blocksSight(f)) return distance;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package za.co.wethinkcode.robots.server.world;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-tick game loop that is the only thread allowed to mutate the world.
+ * Client threads enqueue work on a lock-free multi-producer queue; once per tick the
+ * simulation thread drains the queue and applies the batch in arrival order, which makes
+ * the outcome of simultaneous commands deterministic and lets the world skip its locks.
+ * At the end of each tick it publishes the world's snapshot, the only one readers see until the next.
+ */
+public class SimulationLoop implements Executor {
+    private static final int MAX_BATCH = 10_000; // bounds one tick so a flood cannot stall the next
+
+    private final Queue<Runnable> inbox;
+    private final int tickMillis;
+    private final ScheduledExecutorService ticker;
+    private volatile World world;
+
+    // Written only by the simulation thread
+    private volatile long ticks;
+    private volatile long tasksRun;
+    private volatile int lastBatchSize;
+    private volatile long longestTickNanos;
+
+    /**
+     * Constructs a loop that ticks at a fixed rate.
+     *
+     * @param tickMillis Milliseconds between ticks; must be positive.
+     */
+    public SimulationLoop(int tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be positive: " + tickMillis);
+        }
+        this.inbox = new ConcurrentLinkedQueue<>();
+        this.tickMillis = tickMillis;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "simulation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Hands the world to this loop and starts ticking.
+     * Call before the server accepts clients.
+     *
+     * @param world The world this loop will own.
+     */
+    public void start(World world) {
+        this.world = world;
+        world.useSingleWriter(this);
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues work for the next tick. Safe to call from any thread.
+     *
+     * @param task The work to apply to the world.
+     */
+    @Override
+    public void execute(Runnable task) {
+        inbox.add(task);
+    }
+
+    /**
+     * Stops ticking; work still queued is dropped.
+     */
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Applies everything queued since the last tick, up to MAX_BATCH tasks.
+     */
+    void tick() {
+        long start = System.nanoTime();
+        World w = world;
+        int batch = 0;
+        Runnable task;
+        while (batch < MAX_BATCH && (task = inbox.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // A failing command must not cancel the fixed-rate schedule
+                System.err.println("Simulation error: " + e.getMessage());
+            }
+            batch++;
+        }
+        // One snapshot per tick, however many commands changed the world; readers,
+        // including commands run in this tick, only ever see published snapshots
+        if (w != null) {
+            w.publishSnapshot();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        ticks++;
+        tasksRun += batch;
+        lastBatchSize = batch;
+        if (elapsed > longestTickNanos) {
+            longestTickNanos = elapsed;
+        }
+    }
+
+    public int getTickMillis() {
+        return tickMillis;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getTasksRun() {
+        return tasksRun;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public long getLongestTickNanos() {
+        return longestTickNanos;
+    }
+}
@@ -0,0 +1,211 @@
+package za.co.wethinkcode.robots.server.world;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe robot occupancy, split into lock stripes by spatial region.
+ * The world is cut into square regions; each region hashes to one of a fixed number of
+ * stripes, and each stripe owns a lock and the RobotOccupancy table for its cells.
+ * Commands that touch several cells (a move, a shot) lock the whole area up front with
+ * {@link #lockArea}, which takes the stripes in ascending order so two areas can never
+ * deadlock. Moves and shots in unrelated regions therefore run in parallel.
+ * <p>
+ * Uses ReentrantLock rather than synchronized so virtual threads never pin while waiting.
+ * When a single simulation thread owns the world, {@link #disableLocking} turns every lock
+ * into a no-op.
+ * <p>
+ * When given a {@link FreeCells} index, every cell that changes between empty and occupied is
+ * reported to it while that cell's stripe is held.
+ */
+public class StripedOccupancy {
+    private static final int STRIPES = 64; // one bit each in a long mask
+    private static final int REGION_SHIFT = 4; // 16 x 16 cell regions
+
+    private final ReentrantLock[] locks;
+    private final RobotOccupancy[] tables;
+    private final AreaLock unlocked;
+    private final FreeCells freeCells; // may be null
+    private boolean locking;
+
+    public StripedOccupancy() {
+        this(null);
+    }
+
+    /**
+     * @param freeCells Index to keep in step with occupancy, or null for none.
+     */
+    public StripedOccupancy(FreeCells freeCells) {
+        this.locks = new ReentrantLock[STRIPES];
+        this.tables = new RobotOccupancy[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            tables[i] = new RobotOccupancy();
+        }
+        this.unlocked = new AreaLock(0);
+        this.freeCells = freeCells;
+        this.locking = true;
+    }
+
+    /**
+     * Stops taking locks, for worlds mutated only by one thread.
+     * Must be called before that thread starts, so the thread start publishes the change.
+     */
+    void disableLocking() {
+        this.locking = false;
+    }
+
+    private static int stripeOfRegion(int regionX, int regionY) {
+        int h = regionX * 0x9E3779B1 + regionY * 0x85EBCA77;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static int stripe(int x, int y) {
+        return stripeOfRegion(x >> REGION_SHIFT, y >> REGION_SHIFT);
+    }
+
+    /**
+     * Locks every stripe covering the rectangle between two corners (in any order).
+     * The returned lock must be closed by the same thread, normally via try-with-resources.
+     *
+     * @return a handle that releases the stripes when closed.
+     */
+    public AreaLock lockArea(int x0, int y0, int x1, int y1) {
+        if (!locking) return unlocked;
+
+        long mask = 0;
+        int minRegionX = Math.min(x0, x1) >> REGION_SHIFT;
+        int maxRegionX = Math.max(x0, x1) >> REGION_SHIFT;
+        int minRegionY = Math.min(y0, y1) >> REGION_SHIFT;
+        int maxRegionY = Math.max(y0, y1) >> REGION_SHIFT;
+
+        outer:
+        for (int rx = minRegionX; rx <= maxRegionX; rx++) {
+            for (int ry = minRegionY; ry <= maxRegionY; ry++) {
+                mask |= 1L << stripeOfRegion(rx, ry);
+                if (mask == -1L) break outer;
+            }
+        }
+
+        for (long m = mask; m != 0; m &= m - 1) {
+            locks[Long.numberOfTrailingZeros(m)].lock();
+        }
+        return new AreaLock(mask);
+    }
+
+    /**
+     * Locks every stripe, pausing all moves and shots until closed.
+     * Used to copy the robots into a consistent snapshot.
+     *
+     * @return a handle that releases the stripes when closed.
+     */
+    public AreaLock lockAll() {
+        if (!locking) return unlocked;
+
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        return new AreaLock(-1L);
+    }
+
+    /**
+     * Returns the robot registered at the cell, or null.
+     */
+    public Robot get(int x, int y) {
+        int s = stripe(x, y);
+        if (!locking) {
+            return tables[s].get(x, y);
+        }
+        locks[s].lock();
+        try {
+            return tables[s].get(x, y);
+        } finally {
+            locks[s].unlock();
+        }
+    }
+
+    /**
+     * Registers a robot at the cell.
+     */
+    public void put(int x, int y, Robot robot) {
+        int s = stripe(x, y);
+        if (!locking) {
+            putInStripe(s, x, y, robot);
+            return;
+        }
+        locks[s].lock();
+        try {
+            putInStripe(s, x, y, robot);
+        } finally {
+            locks[s].unlock();
+        }
+    }
+
+    /**
+     * Removes the cell's entry if it still belongs to the given robot.
+     */
+    public void remove(int x, int y, Robot robot) {
+        int s = stripe(x, y);
+        if (!locking) {
+            removeFromStripe(s, x, y, robot);
+            return;
+        }
+        locks[s].lock();
+        try {
+            removeFromStripe(s, x, y, robot);
+        } finally {
+            locks[s].unlock();
+        }
+    }
+
+    private void putInStripe(int s, int x, int y, Robot robot) {
+        if (tables[s].put(x, y, robot) == null && freeCells != null) {
+            freeCells.occupy(x, y);
+        }
+    }
+
+    private void removeFromStripe(int s, int x, int y, Robot robot) {
+        if (tables[s].remove(x, y, robot) && freeCells != null) {
+            freeCells.release(x, y);
+        }
+    }
+
+    /**
+     * Moves a robot's entry between cells. Callers moving across regions should already
+     * hold both cells via {@link #lockArea} so the move is atomic to other readers.
+     */
+    public void move(Robot robot, int oldX, int oldY, int newX, int newY) {
+        remove(oldX, oldY, robot);
+        put(newX, newY, robot);
+    }
+
+    /**
+     * Releases the stripes taken by {@link #lockArea}.
+     */
+    public class AreaLock implements AutoCloseable {
+        private final long mask;
+
+        private AreaLock(long mask) {
+            this.mask = mask;
+        }
+
+        /**
+         * Returns true while the calling thread holds every stripe this handle locked, which is
+         * always the case once locking is disabled. Lets a try-with-resources body check its lock.
+         */
+        public boolean held() {
+            for (long m = mask; m != 0; m &= m - 1) {
+                if (!locks[Long.numberOfTrailingZeros(m)].isHeldByCurrentThread()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() {
+            for (long m = mask; m != 0; m &= m - 1) {
+                locks[Long.numberOfTrailingZeros(m)].unlock();
+            }
+        }
+    }
+}
@@ -1,25 +1,90 @@
 package za.co.wethinkcode.robots.server.world;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import za.co.wethinkcode.robots.server.Json;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the game world, containing robots and obstacles.
  * Provides methods for adding/removing robots and querying world state.
+ * <p>
+ * Concurrency: the name registry is a ConcurrentHashMap and the robot list is copy-on-write,
+ * so listing robots never throws while others launch or quit. Cell-level state is guarded by
+ * the region stripes in StripedOccupancy; multi-cell commands hold {@link #lockArea} for the
+ * cells they touch, so moves and shots in unrelated regions run in parallel.
+ * With {@link #useSingleWriter} all of that is bypassed and one SimulationLoop thread applies
+ * every command instead.
+ * <p>
+ * Virtual-thread note: on Java 21 a virtual thread that blocks inside synchronized pins its
+ * carrier, so World has no synchronized methods or blocks and every lock a handler can wait on
+ * is a ReentrantLock:
+ * <ul>
+ *   <li>StripedOccupancy's stripe locks, held while a launch, move or shot checks and updates
+ *       its cells; handlers in the same region queue on them.</li>
+ *   <li>{@code publishing}, held while a snapshot copies the world under every stripe; a
+ *       publish waits behind the one in progress.</li>
+ *   <li>{@code seeding}, held only to split a thread's launch stream off the shared seed.</li>
+ * </ul>
+ * The only monitor left is inside ConcurrentHashMap, which locks one bin for the length of a
+ * putIfAbsent and never blocks while holding it. Any locking added here must also use
+ * java.util.concurrent.locks.
  */
 public class World {
 
+    // One daemon timer thread drives every timed robot action (repair, reload) for the whole server
+    private static final ScheduledExecutorService TIMERS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "world-timers");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // One daemon thread publishes snapshots for every world that has no SimulationLoop
+    private static final ScheduledExecutorService PUBLISHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "world-snapshots");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int PUBLISH_MILLIS = 10; // most a snapshot lags a change without a SimulationLoop
+
+    private static final int LAUNCH_ATTEMPTS = 64; // picks that can lose a race before giving up
+    private static final long LAUNCH_STREAM = 0x6C61756E6368L; // keeps launches off the obstacle stream
+
     private final int width;
     private final int height;
     private final WorldConfig config;
-    private final Map<String, Robot> robotsMap; // preserves insertion order
-    private final List<Robot> robots;
+    private final Map<String, Robot> robotsMap; // name -> robot, safe for concurrent lookups
+    private final List<Robot> robots; // preserves insertion order
     private final List<Obstacle> obstacles;
+    private final ObstacleGrid obstacleGrid;
+    private final SightLines sightLines;
+    private final StripedOccupancy occupancy; // packed (x, y) -> live robot, locked by region
+    private final FreeCells freeCells; // cells a robot could launch into
+    private volatile Executor writer; // set in single-writer mode; runs every mutation
+    private final AtomicLong version; // bumped after every change a snapshot can see
+    private final AtomicBoolean publishQueued; // a publish is scheduled on PUBLISHER
+    private final ReentrantLock publishing;
+    private volatile WorldSnapshot snapshot; // last published; readers only ever take this
     private final Map<String, int[]> makes; // makeName -> [shots, shields, maxShots]
+    private final SplittableRandom seeds; // parent of every thread's launch stream
+    private final ReentrantLock seeding; // guards seeds
+    private final ThreadLocal<SplittableRandom> launchRandom;
 
     /**
      * Constructs a new World based on the given configuration.
@@ -30,10 +95,21 @@ public class World {
         this.config = config;
         this.width = config.getSize();
         this.height = config.getSize();
-        this.robotsMap = new LinkedHashMap<>();
-        this.robots = new ArrayList<>();
-        this.obstacles = config.getObstacles();
+        this.robotsMap = new ConcurrentHashMap<>();
+        this.robots = new CopyOnWriteArrayList<>();
+        this.obstacles = Collections.unmodifiableList(new ArrayList<>(config.getObstacles()));
+        this.obstacleGrid = new ObstacleGrid(width, height, obstacles);
+        this.sightLines = new SightLines(width, height, obstacleGrid);
+        this.freeCells = new FreeCells(width, height, obstacleGrid);
+        this.occupancy = new StripedOccupancy(freeCells);
         this.makes = config.getMakes();
+        this.version = new AtomicLong();
+        this.publishQueued = new AtomicBoolean();
+        this.publishing = new ReentrantLock();
+        this.seeds = new SplittableRandom(config.getSeed() ^ LAUNCH_STREAM);
+        this.seeding = new ReentrantLock();
+        this.launchRandom = ThreadLocal.withInitial(this::splitSeed);
+        this.snapshot = new WorldSnapshot(0, width, height, robots, obstacles, obstacleGrid, sightLines);
     }
 
     /**
@@ -63,8 +139,73 @@ public class World {
         return config.getReloadTime();
     }
 
+    /**
+     * Runs a task after a delay on the shared timer thread without blocking the caller.
+     *
+     * @param task    The state transition to apply when the timer fires.
+     * @param seconds Delay in seconds; zero or less runs the task immediately.
+     * @return a future completed once the task has run.
+     */
+    public CompletableFuture<Void> schedule(Runnable task, int seconds) {
+        if (seconds <= 0) {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Runnable complete = () -> {
+            try {
+                task.run();
+                done.complete(null);
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        };
+        // In single-writer mode the timer only waits; the writer applies the change
+        TIMERS.schedule(() -> {
+            Executor w = writer;
+            if (w == null) complete.run(); else w.execute(complete);
+        }, seconds, TimeUnit.SECONDS);
+        return done;
+    }
+
+    /**
+     * Switches the world to single-writer mode: every action passed to {@link #submit}
+     * and every timed task runs on the given executor, and region locks become no-ops.
+     * Must be called before any client can reach the world.
+     *
+     * @param writer Executor backed by the one thread allowed to mutate the world.
+     */
+    public void useSingleWriter(Executor writer) {
+        occupancy.disableLocking();
+        this.writer = writer;
+    }
+
+    /**
+     * Returns true once a SimulationLoop owns the world.
+     */
+    public boolean isSingleWriter() {
+        return writer != null;
+    }
+
+    /**
+     * Runs an action that reads or mutates the world.
+     * Runs it on the caller's thread by default, or hands it to the single writer.
+     *
+     * @param action Starts the work and returns its eventual result.
+     * @return a future holding the action's result.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> action) {
+        Executor w = writer;
+        if (w == null) {
+            return action.get();
+        }
+        return CompletableFuture.supplyAsync(action, w).thenCompose(Function.identity());
+    }
+
     /**
      * Attempts to add a robot at a random valid position in the world.
+     * The position is drawn uniformly from the free-cell index and re-checked under its cell
+     * lock, so only a pick that races with another launch or move needs a retry.
      *
      * @param robot The robot to add.
      * @return true if added successfully; false if the world is full or no valid position found.
@@ -74,23 +215,61 @@ public class World {
         robot.setRepairTime(getRepairTime());
         robot.setReloadTime(getReloadTime());
 
-        Random random = new Random();
-        int maxAttempts = width * height;
-        while (maxAttempts-- > 0) {
-            int x = random.nextInt(width) - (width / 2);
-            int y = random.nextInt(height) - (height / 2);
+        if (isRobotNameTaken(robot.getName())) {
+            return false;
+        }
+
+        RandomGenerator random = launchRandom.get();
+        for (int attempt = 0; attempt < LAUNCH_ATTEMPTS; attempt++) {
+            int picked = freeCells.pick(random);
+            if (picked < 0) {
+                if (freeCells.isFull()) {
+                    return false;
+                }
+                continue; // the count changed under the pick; draw again
+            }
+            int x = freeCells.xOf(picked);
+            int y = freeCells.yOf(picked);
             Position position = new Position(x, y);
-            boolean valid = position.isPositionValid(width, height, obstacles, robots);
-            if (valid && !isRobotNameTaken(robot.getName())) {
+            try (StripedOccupancy.AreaLock cell = occupancy.lockArea(x, y, x, y)) {
+                assert cell.held();
+                if (!position.isPositionValid(this)) {
+                    continue;
+                }
+                // Claim the name atomically; a concurrent launch with the same name loses here
+                if (robotsMap.putIfAbsent(robot.getName(), robot) != null) {
+                    return false;
+                }
                 robot.setPosition(x, y);
+                robot.attach(occupancy, this::changed);
                 robots.add(robot);
-                robotsMap.put(robot.getName(), robot);
+                changed();
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Gives a thread its own launch stream, split from the world seed.
+     * With a SimulationLoop only its thread launches robots, so positions replay exactly.
+     */
+    private SplittableRandom splitSeed() {
+        seeding.lock();
+        try {
+            return seeds.split();
+        } finally {
+            seeding.unlock();
+        }
+    }
+
+    /**
+     * Returns true if no cell is left for another robot to launch into.
+     */
+    public boolean isFull() {
+        return freeCells.isFull();
+    }
+
     /**
      * Removes all robots that are dead from the world.
      */
@@ -105,73 +284,93 @@ public class World {
 
         // Remove each dead robot from both the map and the list
         for (Robot dead : deadRobots) {
-            robotsMap.remove(dead.getName());
+            dead.detach();
+            robotsMap.remove(dead.getName(), dead);
             robots.remove(dead);
         }
+        if (!deadRobots.isEmpty()) {
+            changed();
+        }
     }
 
 
     /**
      * Returns a JSON representation of the world's current state, including all robots and obstacles.
+     * Builds the whole tree in memory; use {@link #writeWorldState} for large worlds.
      *
      * @return JsonNode representing world state.
      */
     public JsonNode getWorldState() {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode worldNode = mapper.createObjectNode();
-
-        worldNode.put("width", width);
-        worldNode.put("height", height);
-
-        // Robots
-        ArrayNode robotArray = mapper.createArrayNode();
-        for (Robot robot : robotsMap.values()) {
-            ObjectNode robotNode = mapper.createObjectNode();
-            robotNode.put("name", robot.getName());
-            robotNode.put("x", robot.getX());
-            robotNode.put("y", robot.getY());
-            robotArray.add(robotNode);
-        }
-        worldNode.put("numRobots", robotsMap.size());
-        worldNode.set("robots", robotArray);
-
-        // Obstacles
-        ArrayNode obstacleArray = mapper.createArrayNode();
-        for (Obstacle o : obstacles) {
-            ObjectNode obsNode = mapper.createObjectNode();
-            obsNode.put("obstacleType", o.getType().name());
-
-            ObjectNode cornersNode = mapper.createObjectNode();
-            cornersNode.set("topLeft", createPointNode(mapper, o.getTopLeftX(), o.getTopLeftY()));
-            cornersNode.set("topRight", createPointNode(mapper, o.getTopRightX(), o.getTopRightY()));
-            cornersNode.set("bottomLeft", createPointNode(mapper, o.getBottomLeftX(), o.getBottomLeftY()));
-            cornersNode.set("bottomRight", createPointNode(mapper, o.getBottomRightX(), o.getBottomRightY()));
-            obsNode.set("corners", cornersNode);
-
-            obsNode.put("canKillYou", o.canKillYou());
-            obsNode.put("canWalkThrough", o.canWalkThrough());
-            obsNode.put("canSeePast", o.canSeePast());
-            obstacleArray.add(obsNode);
-        }
-        worldNode.put("numObstacles", obstacles.size());
-        worldNode.set("obstacles", obstacleArray);
+        return Json.toTree(out -> writeWorldState(out, DumpFilter.ALL));
+    }
 
-        return worldNode;
+    /**
+     * Streams the world state as one JSON object with the same shape as {@link #getWorldState()}.
+     * Reads the last published snapshot, so the counts and entries always agree.
+     *
+     * @param out    Generator to write to.
+     * @param filter Which robots and obstacles to include.
+     * @throws IOException If writing fails.
+     */
+    public void writeWorldState(JsonGenerator out, DumpFilter filter) throws IOException {
+        snapshot().writeWorldState(out, filter);
     }
 
     /**
-     * Helper method to create a JSON point object.
+     * Returns the last published snapshot: a consistent, immutable view of the world for
+     * read-only commands. Never blocks and never copies anything.
+     * <p>
+     * Snapshots are published from the writer side. A SimulationLoop publishes once at the end
+     * of each tick, so a snapshot is at most one tick old. Without one, every change queues a
+     * publish on a shared thread that runs a few milliseconds later, so a burst of changes
+     * costs one copy and a reader may see the world up to that long ago.
      *
-     * @param mapper ObjectMapper instance.
-     * @param x      X-coordinate.
-     * @param y      Y-coordinate.
-     * @return ObjectNode representing the point.
+     * @return the latest published snapshot.
+     */
+    public WorldSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Bumps the version after a change a snapshot can see. Without a SimulationLoop, also
+     * queues a publish unless one is already waiting.
      */
-    private ObjectNode createPointNode(ObjectMapper mapper, int x, int y) {
-        ObjectNode node = mapper.createObjectNode();
-        node.put("x", x);
-        node.put("y", y);
-        return node;
+    void changed() {
+        version.incrementAndGet();
+        if (writer == null && !publishQueued.get() && publishQueued.compareAndSet(false, true)) {
+            PUBLISHER.schedule(this::publishQueued, PUBLISH_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void publishQueued() {
+        publishQueued.set(false); // changes from here on queue the next publish
+        if (writer == null) { // a SimulationLoop took over after this was queued
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Publishes a snapshot of the world as it is now, if anything changed since the last one.
+     * The copy holds every region lock so no move is half-applied; with a SimulationLoop the
+     * locks are off and this must run on its thread. Readers never call this; a command that
+     * changes the world and then lists it, or a test, may call it to see the change at once.
+     * Never call it while holding {@link #lockArea}.
+     */
+    public void publishSnapshot() {
+        publishing.lock();
+        try {
+            if (snapshot.getVersion() == version.get()) {
+                return;
+            }
+            try (StripedOccupancy.AreaLock all = occupancy.lockAll()) {
+                assert all.held();
+                // Read before copying: a change that races the copy then gets a publish of its own
+                long current = version.get();
+                snapshot = new WorldSnapshot(current, width, height, robots, obstacles, obstacleGrid, sightLines);
+            }
+        } finally {
+            publishing.unlock();
+        }
     }
 
     /**
@@ -181,7 +380,7 @@ public class World {
      * @return true if taken; false otherwise.
      */
     private boolean isRobotNameTaken(String name) {
-        return robots.stream().anyMatch(r -> r.getName().equals(name));
+        return robotsMap.containsKey(name);
     }
 
     /**
@@ -209,7 +408,11 @@ public class World {
      * @return List of names.
      */
     public List<String> getRobotNames() {
-        return new ArrayList<>(robotsMap.keySet());
+        List<String> names = new ArrayList<>();
+        for (Robot robot : robots) {
+            names.add(robot.getName());
+        }
+        return names;
     }
 
     /**
@@ -220,7 +423,9 @@ public class World {
     public void removeOneRobot(String robotName) {
         Robot removed = robotsMap.remove(robotName);
         if(removed != null){
+            removed.detach();
             robots.remove(removed);
+            changed();
         }
     }
 
@@ -228,8 +433,12 @@ public class World {
      * Removes all robots from the world.
      */
     public void clearRobots() {
-        robotsMap.clear();
-        robots.clear();
+        for (Robot robot : robots) {
+            robotsMap.remove(robot.getName(), robot);
+            robot.detach();
+            robots.remove(robot);
+        }
+        changed();
     }
 
     /**
@@ -245,6 +454,77 @@ public class World {
         return obstacles;
     }
 
+    /**
+     * Locks every cell in the rectangle between two corners against concurrent moves and shots.
+     * Use with try-with-resources; keep the locked area to the cells the command touches.
+     *
+     * @return a handle that releases the lock when closed.
+     */
+    public StripedOccupancy.AreaLock lockArea(int x0, int y0, int x1, int y1) {
+        return occupancy.lockArea(x0, y0, x1, y1);
+    }
+
+    /**
+     * Applies a change to one robot while holding the lock for the cell it stands on, so the
+     * change cannot interleave with a shot or move that touches that cell. Timed actions such
+     * as repair and reload complete through here instead of changing the robot on the timer
+     * thread directly.
+     *
+     * @param robot  The robot to change.
+     * @param change The change; it must check the robot's status itself, under the lock.
+     */
+    public void updateRobot(Robot robot, Consumer<Robot> change) {
+        while (true) {
+            int x = robot.getX();
+            int y = robot.getY();
+            try (StripedOccupancy.AreaLock cell = occupancy.lockArea(x, y, x, y)) {
+                assert cell.held();
+                // A move between the read and the lock leaves us holding the wrong stripe
+                if (robot.getX() == x && robot.getY() == y) {
+                    change.accept(robot);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the live robot standing on the cell.
+     *
+     * @return the robot, or null if the cell is empty or only holds a dead robot.
+     */
+    public Robot robotAt(int x, int y) {
+        return occupancy.get(x, y);
+    }
+
+    /**
+     * Returns true if a solid obstacle stops robots entering the cell.
+     */
+    public boolean blocksMovement(int x, int y) {
+        return obstacleGrid.blocksMovement(x, y);
+    }
+
+    /**
+     * Returns true if a robot entering the cell dies.
+     */
+    public boolean killsRobot(int x, int y) {
+        return obstacleGrid.killsRobot(x, y);
+    }
+
+    /**
+     * Returns true unless an obstacle in the cell blocks line of sight.
+     */
+    public boolean canSeePast(int x, int y) {
+        return obstacleGrid.canSeePast(x, y);
+    }
+
+    /**
+     * Returns the types of all obstacles covering the cell.
+     */
+    public List<Obstacle.ObstacleType> obstacleTypesAt(int x, int y) {
+        return obstacleGrid.typesAt(x, y);
+    }
+
     public int worldWidth(){
         return width;
     }
@@ -1,15 +1,21 @@
 package za.co.wethinkcode.robots.server.world;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import za.co.wethinkcode.robots.server.Json;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the configuration of a World, including its size, robot makes, and obstacles.
  * Supports loading configuration from a JSON file.
+ * <p>
+ * The seed drives every random choice the world makes: obstacle generation here and launch
+ * positions in World. Two runs with the same seed, config and command order see the same map
+ * and spawn positions.
  */
 public class WorldConfig {
 
@@ -19,14 +25,21 @@ public class WorldConfig {
     private final int reloadTime;
     private final Map<String, int[]> makes;
     private final List<Obstacle> obstacles;
+    private final long seed;
 
     public WorldConfig(int size, int visibility, int repairTime, int reloadTime, Map<String, int[]> makes, List<Obstacle> obstacles) {
+        this(size, visibility, repairTime, reloadTime, makes, obstacles, ThreadLocalRandom.current().nextLong());
+    }
+
+    public WorldConfig(int size, int visibility, int repairTime, int reloadTime, Map<String, int[]> makes,
+                       List<Obstacle> obstacles, long seed) {
         this.size = size;
         this.visibility = visibility;
         this.repairTime = repairTime;
         this.reloadTime = reloadTime;
         this.makes = makes;
         this.obstacles = obstacles;
+        this.seed = seed;
     }
 
     public int getSize() { return size; }
@@ -35,6 +48,7 @@ public class WorldConfig {
     public int getReloadTime() { return reloadTime; }
     public Map<String, int[]> getMakes() { return makes; }
     public List<Obstacle> getObstacles() { return obstacles; }
+    public long getSeed() { return seed; }
 
     /**
      * Loads a WorldConfig from a JSON file.
@@ -44,8 +58,20 @@ public class WorldConfig {
      * @throws IOException if the file cannot be read
      */
     public static WorldConfig loadFromFile(String path) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(new File(path));
+        return loadFromFile(path, null);
+    }
+
+    /**
+     * Loads a WorldConfig from a JSON file, optionally overriding its seed.
+     *
+     * @param path Path to the JSON configuration file.
+     * @param seed Seed to use instead of the file's "world.seed", or null to keep it.
+     *             If neither is set, a random seed is chosen.
+     * @return a configured WorldConfig object
+     * @throws IOException if the file cannot be read
+     */
+    public static WorldConfig loadFromFile(String path, Long seed) throws IOException {
+        JsonNode root = Json.reader().readValue(new File(path));
 
         JsonNode worldNode = root.path("world");
         int size = worldNode.path("size").asInt();
@@ -58,11 +84,14 @@ public class WorldConfig {
         int shields = worldNode.path("shields").asInt(15); // default 15
         int shots = worldNode.path("shots").asInt(15); // default 15
         int maxshot = 5; // Always set to 5 as per requirement
+        long worldSeed = seed != null ? seed
+                : worldNode.has("seed") ? worldNode.get("seed").asLong()
+                : ThreadLocalRandom.current().nextLong();
 
         Map<String, int[]> makes = parseMakes(root.path("makes"), shields, shots, maxshot);
-        List<Obstacle> obstacles = parseObstacles(root.path("obstacles"), size);
+        List<Obstacle> obstacles = parseObstacles(root.path("obstacles"), size, new SplittableRandom(worldSeed));
 
-        return new WorldConfig(size, visibility, repairTime, reloadTime, makes, obstacles);
+        return new WorldConfig(size, visibility, repairTime, reloadTime, makes, obstacles, worldSeed);
     }
 
     /**
@@ -98,15 +127,19 @@ public class WorldConfig {
      *
      * @param obstaclesRoot JSON node containing obstacles config
      * @param worldSize     size of the world (width = height = worldSize)
+     * @param random        the seed's random stream
      * @return list of obstacles
      */
-    private static List<Obstacle> parseObstacles(JsonNode obstaclesRoot, int worldSize) {
+    private static List<Obstacle> parseObstacles(JsonNode obstaclesRoot, int worldSize, SplittableRandom random) {
         List<Obstacle> obstacles = new ArrayList<>();
+        ObstacleIndex index = new ObstacleIndex(obstacles);
 
         boolean defaultPlacement = obstaclesRoot.has("defaultPlacement")
                 && obstaclesRoot.get("defaultPlacement").asBoolean();
         if (defaultPlacement) {
-            obstacles.addAll(ObstacleGenerator.generate(worldSize, worldSize));
+            for (Obstacle o : ObstacleGenerator.generate(worldSize, worldSize, random.nextLong())) {
+                index.add(o);
+            }
         }
 
         JsonNode obstacleTypes = obstaclesRoot.path("types");
@@ -115,8 +148,8 @@ public class WorldConfig {
             int count = obstacleNode.path("count").asInt();
             int obstacleSize = obstacleNode.path("size").asInt();
 
-            addFixedObstacles(obstacleNode, type, obstacles);
-            addRandomObstacles(obstacleNode, type, count, obstacleSize, worldSize, obstacles);
+            addFixedObstacles(obstacleNode, type, index);
+            addRandomObstacles(obstacleNode, type, count, obstacleSize, worldSize, index, random);
         }
 
         return obstacles;
@@ -125,7 +158,7 @@ public class WorldConfig {
     /**
      * Adds obstacles with fixed positions.
      */
-    private static void addFixedObstacles(JsonNode obstacleNode, Obstacle.ObstacleType type, List<Obstacle> obstacles) {
+    private static void addFixedObstacles(JsonNode obstacleNode, Obstacle.ObstacleType type, ObstacleIndex obstacles) {
         if (!obstacleNode.has("positions")) return;
         for (JsonNode posNode : obstacleNode.path("positions")) {
             Obstacle candidate = new Obstacle(
@@ -135,7 +168,7 @@ public class WorldConfig {
                     posNode.path("bottomLeft").path("x").asInt(), posNode.path("bottomLeft").path("y").asInt(),
                     posNode.path("bottomRight").path("x").asInt(), posNode.path("bottomRight").path("y").asInt()
             );
-            if (!ObstacleGenerator.collides(candidate, obstacles)) {
+            if (!obstacles.collides(candidate)) {
                 obstacles.add(candidate);
             }
         }
@@ -145,10 +178,10 @@ public class WorldConfig {
      * Adds randomly placed obstacles according to the count specified.
      */
     private static void addRandomObstacles(JsonNode obstacleNode, Obstacle.ObstacleType type, int count, int size,
-                                           int worldSize, List<Obstacle> obstacles) {
+                                           int worldSize, ObstacleIndex obstacles, RandomGenerator random) {
         if (obstacleNode.has("positions") || count <= 0) return;
         for (int i = 0; i < count; i++) {
-            ObstacleGenerator.placeObstacle(type, worldSize, worldSize, obstacles, size);
+            ObstacleGenerator.placeObstacle(type, worldSize, worldSize, obstacles, size, random);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package za.co.wethinkcode.robots.server.world;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the world for read-only commands.
+ * Holds a flat array of robot records copied in one pass, per-row and per-column sorted robot
+ * positions, and the world's static obstacle indexes, so readers never see a robot half-way
+ * through a move and never need a lock.
+ * World publishes a new snapshot from the writer side, at most once per tick or publish
+ * interval however many changes it holds; see {@link World#snapshot()}.
+ */
+public final class WorldSnapshot {
+    private static final int DUMP_CHUNK = 256; // entries written between flushes of a streamed dump
+
+    private final long version;
+    private final int width;
+    private final int height;
+    private final RobotView[] robots; // insertion order, dead robots included
+    private final Map<String, RobotView> byName;
+    private final Map<Long, RobotView> byCell; // live robots only
+    private final Map<Integer, int[]> robotXsByRow;    // y -> sorted x of live robots
+    private final Map<Integer, int[]> robotYsByColumn; // x -> sorted y of live robots
+    private final List<Obstacle> obstacles;
+    private final ObstacleGrid obstacleGrid;
+    private final SightLines sightLines;
+
+    WorldSnapshot(long version, int width, int height, Collection<Robot> robots,
+                  List<Obstacle> obstacles, ObstacleGrid obstacleGrid, SightLines sightLines) {
+        this.version = version;
+        this.width = width;
+        this.height = height;
+        this.obstacles = obstacles;
+        this.obstacleGrid = obstacleGrid;
+        this.sightLines = sightLines;
+
+        Robot[] live = robots.toArray(new Robot[0]);
+        this.robots = new RobotView[live.length];
+        this.byName = new HashMap<>(live.length * 2);
+        this.byCell = new HashMap<>(live.length * 2);
+        for (int i = 0; i < live.length; i++) {
+            RobotView view = new RobotView(live[i]);
+            this.robots[i] = view;
+            byName.put(view.getName(), view);
+            if (!view.isDead()) {
+                byCell.put(cell(view.getX(), view.getY()), view);
+            }
+        }
+
+        long[] byRow = new long[byCell.size()];
+        long[] byColumn = new long[byCell.size()];
+        int n = 0;
+        for (RobotView view : byCell.values()) {
+            byRow[n] = sortKey(view.getY(), view.getX());
+            byColumn[n++] = sortKey(view.getX(), view.getY());
+        }
+        this.robotXsByRow = group(byRow);
+        this.robotYsByColumn = group(byColumn);
+    }
+
+    private static long cell(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    // Sorts by line, then by position along it; flipping the sign bit keeps negatives in order
+    private static long sortKey(int line, int position) {
+        return ((long) line << 32) | ((position ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+    }
+
+    private static Map<Integer, int[]> group(long[] keys) {
+        Arrays.sort(keys);
+        Map<Integer, int[]> lines = new HashMap<>();
+        int start = 0;
+        while (start < keys.length) {
+            int line = (int) (keys[start] >> 32);
+            int end = start;
+            while (end < keys.length && (int) (keys[end] >> 32) == line) end++;
+            int[] positions = new int[end - start];
+            for (int i = start; i < end; i++) {
+                positions[i - start] = (int) keys[i] ^ Integer.MIN_VALUE;
+            }
+            lines.put(line, positions);
+            start = end;
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the world version this snapshot was taken at; higher is newer.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns every robot in launch order, including dead robots not yet removed.
+     */
+    public List<RobotView> getRobots() {
+        return Collections.unmodifiableList(Arrays.asList(robots));
+    }
+
+    /**
+     * Returns the named robot's record, or null if it was not in the world.
+     */
+    public RobotView getRobot(String name) {
+        return byName.get(name);
+    }
+
+    /**
+     * Returns the live robot standing on the cell, or null.
+     */
+    public RobotView robotAt(int x, int y) {
+        return byCell.get(cell(x, y));
+    }
+
+    /**
+     * Returns the distance to the nearest live robot on a ray along one axis.
+     *
+     * @param dx -1, 0 or 1; exactly one of dx and dy is non-zero.
+     * @param dy -1, 0 or 1.
+     * @return the distance, or Integer.MAX_VALUE if no robot is on the ray.
+     */
+    public int nearestRobot(int x, int y, int dx, int dy) {
+        int[] positions = dx != 0 ? robotXsByRow.get(y) : robotYsByColumn.get(x);
+        if (positions == null) return Integer.MAX_VALUE;
+        int position = dx != 0 ? x : y;
+        int step = dx != 0 ? dx : dy;
+
+        // Index of the first robot strictly after the position
+        int i = Arrays.binarySearch(positions, position);
+        int after = i >= 0 ? i + 1 : -i - 1;
+        if (step > 0) {
+            return after < positions.length ? positions[after] - position : Integer.MAX_VALUE;
+        }
+        int before = i >= 0 ? i - 1 : after - 1;
+        return before >= 0 ? position - positions[before] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the distance to the nearest live robot on a ray along one axis, looking past
+     * one robot's record. A robot that moved since this snapshot was published passes its own
+     * record here, so it never sees where it used to stand.
+     *
+     * @param ignored The record to look past, or null.
+     * @return the distance, or Integer.MAX_VALUE if no other robot is on the ray.
+     */
+    public int nearestRobot(int x, int y, int dx, int dy, RobotView ignored) {
+        int distance = nearestRobot(x, y, dx, dy);
+        if (ignored == null || ignored.isDead() || distance == Integer.MAX_VALUE
+                || ignored.getX() != x + dx * distance || ignored.getY() != y + dy * distance) {
+            return distance;
+        }
+        int beyond = nearestRobot(ignored.getX(), ignored.getY(), dx, dy);
+        return beyond == Integer.MAX_VALUE ? beyond : distance + beyond;
+    }
+
+    /**
+     * Reports the obstacle cells on a ray along one axis; see {@link SightLines#trace}.
+     */
+    public int traceObstacles(int x, int y, int dx, int dy, int maxDistance, SightLines.Sink sink) {
+        return sightLines.trace(x, y, dx, dy, maxDistance, sink);
+    }
+
+    public List<Obstacle> getObstacles() {
+        return obstacles;
+    }
+
+    /**
+     * Returns true unless an obstacle in the cell blocks line of sight.
+     */
+    public boolean canSeePast(int x, int y) {
+        return obstacleGrid.canSeePast(x, y);
+    }
+
+    /**
+     * Returns the types of all obstacles covering the cell.
+     */
+    public List<Obstacle.ObstacleType> obstacleTypesAt(int x, int y) {
+        return obstacleGrid.typesAt(x, y);
+    }
+
+    /**
+     * Streams the snapshot as one JSON world-state object.
+     * Only one robot or obstacle is held at a time, and the generator is flushed every
+     * DUMP_CHUNK entries so the output reaches its destination while the dump is still running.
+     *
+     * @param out    Generator to write to.
+     * @param filter Which robots and obstacles to include.
+     * @throws IOException If writing fails.
+     */
+    public void writeWorldState(JsonGenerator out, DumpFilter filter) throws IOException {
+        out.writeStartObject();
+        out.writeNumberField("width", width);
+        out.writeNumberField("height", height);
+        int written = 0;
+
+        if (filter.includesRobots()) {
+            int count = 0;
+            for (RobotView robot : robots) {
+                if (filter.includes(robot.getX(), robot.getY())) count++;
+            }
+            out.writeNumberField("numRobots", count);
+            out.writeArrayFieldStart("robots");
+            for (RobotView robot : robots) {
+                if (!filter.includes(robot.getX(), robot.getY())) continue;
+                out.writeStartObject();
+                out.writeStringField("name", robot.getName());
+                out.writeNumberField("x", robot.getX());
+                out.writeNumberField("y", robot.getY());
+                out.writeEndObject();
+                if (++written % DUMP_CHUNK == 0) out.flush();
+            }
+            out.writeEndArray();
+        }
+
+        if (filter.includesObstacles()) {
+            int count = 0;
+            for (Obstacle o : obstacles) {
+                if (filter.includes(o)) count++;
+            }
+            out.writeNumberField("numObstacles", count);
+            out.writeArrayFieldStart("obstacles");
+            for (Obstacle o : obstacles) {
+                if (!filter.includes(o)) continue;
+                writeObstacle(out, o);
+                if (++written % DUMP_CHUNK == 0) out.flush();
+            }
+            out.writeEndArray();
+        }
+
+        out.writeEndObject();
+    }
+
+    private static void writeObstacle(JsonGenerator out, Obstacle o) throws IOException {
+        out.writeStartObject();
+        out.writeStringField("obstacleType", o.getType().name());
+
+        out.writeObjectFieldStart("corners");
+        writePoint(out, "topLeft", o.getTopLeftX(), o.getTopLeftY());
+        writePoint(out, "topRight", o.getTopRightX(), o.getTopRightY());
+        writePoint(out, "bottomLeft", o.getBottomLeftX(), o.getBottomLeftY());
+        writePoint(out, "bottomRight", o.getBottomRightX(), o.getBottomRightY());
+        out.writeEndObject();
+
+        out.writeBooleanField("canKillYou", o.canKillYou());
+        out.writeBooleanField("canWalkThrough", o.canWalkThrough());
+        out.writeBooleanField("canSeePast", o.canSeePast());
+        out.writeEndObject();
+    }
+
+    private static void writePoint(JsonGenerator out, String name, int x, int y) throws IOException {
+        out.writeObjectFieldStart(name);
+        out.writeNumberField("x", x);
+        out.writeNumberField("y", y);
+        out.writeEndObject();
+    }
+
+    /**
+     * A robot's state as it was when the snapshot was taken.
+     */
+    public static final class RobotView {
+        private final String name;
+        private final int x;
+        private final int y;
+        private final String direction;
+        private final int shields;
+        private final int shots;
+        private final int maxShots;
+        private final String status;
+
+        RobotView(Robot robot) {
+            this.name = robot.getName();
+            this.x = robot.getX();
+            this.y = robot.getY();
+            this.direction = robot.getDirection();
+            this.shields = robot.getShields();
+            this.shots = robot.getShots();
+            this.maxShots = robot.getMaxShots();
+            this.status = robot.getStatus();
+        }
+
+        public String getName() { return name; }
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public String getDirection() { return direction; }
+        public int getShields() { return shields; }
+        public int getShots() { return shots; }
+        public int getMaxShots() { return maxShots; }
+        public String getStatus() { return status; }
+        public boolean isDead() { return "DEAD".equals(status); }
+    }
+}
@@ -0,0 +1,45 @@
+package za.co.wethinkcode.robots.client.command;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NavigateCommandBuilderTest {
+
+    private NavigateCommandBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        builder = new NavigateCommandBuilder();
+    }
+
+    @Test
+    void testValidCommand() {
+        String[] parts = {"navigate", "10", "-4"};
+        JsonNode result = builder.build(parts);
+
+        assertEquals("navigate", result.get("command").asText());
+        assertEquals(2, result.get("arguments").size());
+        assertEquals(10, result.get("arguments").get(0).asInt());
+        assertEquals(-4, result.get("arguments").get(1).asInt());
+    }
+
+    @Test
+    void testMissingCoordinate() {
+        String[] parts = {"navigate", "10"};
+        JsonNode result = builder.build(parts);
+
+        assertEquals("ERROR", result.get("result").asText());
+        assertEquals("Usage: navigate <x> <y>", result.get("data").get("message").asText());
+    }
+
+    @Test
+    void testInvalidCoordinate() {
+        String[] parts = {"navigate", "ten", "4"};
+        JsonNode result = builder.build(parts);
+
+        assertEquals("ERROR", result.get("result").asText());
+        assertEquals("Invalid number format for position", result.get("data").get("message").asText());
+    }
+}
@@ -0,0 +1,133 @@
+package za.co.wethinkcode.robots.client.connection;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import za.co.wethinkcode.robots.server.networking.ClientHandler;
+import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldConfig;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncServerConnectionTest {
+
+    @Test
+    void testManyRequestsInFlightAreAnsweredInOrder() throws Exception {
+        World world = new World(new WorldConfig(10, 5, 0, 0, Map.of("sniper", new int[]{5, 5, 2}), List.of()));
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread handler = new Thread(() -> {
+                try {
+                    new ClientHandler(server.accept(), world).run();
+                } catch (Exception ignored) {}
+            });
+            handler.start();
+
+            try (AsyncServerConnection connection = new AsyncServerConnection("127.0.0.1", server.getLocalPort())) {
+                CompletableFuture<JsonNode> launch = connection.send("launch sniper Hal");
+                List<CompletableFuture<JsonNode>> states = new ArrayList<>();
+                for (int i = 0; i < 40; i++) {
+                    connection.send("turn right");
+                    states.add(connection.send("state"));
+                }
+
+                assertEquals("OK", launch.get(5, TimeUnit.SECONDS).get("result").asText());
+                String[] compass = {"EAST", "SOUTH", "WEST", "NORTH"};
+                for (int i = 0; i < states.size(); i++) {
+                    JsonNode state = states.get(i).get(5, TimeUnit.SECONDS);
+                    assertEquals(compass[i % 4], state.get("state").get("direction").asText(), "state " + i);
+                }
+                assertEquals(0, connection.inFlight());
+            }
+            handler.join(2000);
+        }
+    }
+
+    @Test
+    void testPushedEventsGoToTheListenerAndDisconnectFailsPending() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            CountDownLatch requestSeen = new CountDownLatch(1);
+            Thread fake = new Thread(() -> {
+                try (Socket socket = server.accept()) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                    PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                    in.readLine();
+                    out.println("{\"event\":\"hit\",\"by\":\"Sam\"}");
+                    out.println("{\"result\":\"OK\"}");
+                    in.readLine();
+                    requestSeen.countDown();
+                    // close without answering the second request
+                } catch (Exception ignored) {}
+            });
+            fake.start();
+
+            AtomicReference<JsonNode> pushed = new AtomicReference<>();
+            try (AsyncServerConnection connection = new AsyncServerConnection("127.0.0.1", server.getLocalPort(), pushed::set)) {
+                assertEquals("OK", connection.send("look").get(5, TimeUnit.SECONDS).get("result").asText());
+                assertEquals("Sam", pushed.get().get("by").asText());
+
+                CompletableFuture<JsonNode> unanswered = connection.send("state");
+                assertTrue(requestSeen.await(5, TimeUnit.SECONDS));
+                ExecutionException failure = assertThrows(ExecutionException.class,
+                        () -> unanswered.get(5, TimeUnit.SECONDS));
+                assertEquals("Server disconnected", failure.getCause().getMessage());
+                assertTrue(connection.send("look").isCompletedExceptionally());
+            }
+            fake.join(2000);
+        }
+    }
+
+    @Test
+    void testThrowingListenerDoesNotStopLaterResponses() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread fake = new Thread(() -> {
+                try (Socket socket = server.accept()) {
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                    PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                    in.readLine();
+                    out.println("{\"event\":\"hit\",\"by\":\"Sam\"}");
+                    out.println("{\"result\":\"OK\"}");
+                    in.readLine();
+                    out.println("{\"result\":\"OK\",\"data\":{\"steps\":2}}");
+                    in.readLine(); // wait for the client to close
+                } catch (Exception ignored) {}
+            });
+            fake.start();
+
+            try (AsyncServerConnection connection = new AsyncServerConnection("127.0.0.1", server.getLocalPort(),
+                    event -> { throw new IllegalStateException("listener broke"); })) {
+                assertEquals("OK", connection.send("look").get(5, TimeUnit.SECONDS).get("result").asText());
+                JsonNode next = connection.send("forward 2").get(5, TimeUnit.SECONDS);
+                assertEquals(2, next.get("data").get("steps").asInt());
+            }
+
+            // The shared loop thread is still serving other connections
+            try (ServerSocket other = new ServerSocket(0)) {
+                Thread echo = new Thread(() -> {
+                    try (Socket socket = other.accept()) {
+                        new BufferedReader(new InputStreamReader(socket.getInputStream())).readLine();
+                        new PrintWriter(socket.getOutputStream(), true).println("{\"result\":\"OK\"}");
+                    } catch (Exception ignored) {}
+                });
+                echo.start();
+                try (AsyncServerConnection connection = new AsyncServerConnection("127.0.0.1", other.getLocalPort())) {
+                    assertEquals("OK", connection.send("state").get(5, TimeUnit.SECONDS).get("result").asText());
+                }
+                echo.join(2000);
+            }
+            fake.join(2000);
+        }
+    }
+}
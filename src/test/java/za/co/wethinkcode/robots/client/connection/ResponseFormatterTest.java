@@ -0,0 +1,119 @@
+package za.co.wethinkcode.robots.client.connection;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseFormatterTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ResponseFormatter formatter = new ResponseFormatter();
+
+    private JsonNode format(String json) throws Exception {
+        return mapper.readTree(formatter.format(mapper.getFactory().createParser(json)));
+    }
+
+    @Test
+    void testPrettyPrintsRenamedResult() throws Exception {
+        String text = formatter.format(mapper.getFactory().createParser("{\"result\":\"OK\"}"));
+
+        assertEquals("{\n  \"Result\" : \"OK\"\n}", text.replace(System.lineSeparator(), "\n"));
+    }
+
+    @Test
+    void testStateFieldsRenamedWithDefaults() throws Exception {
+        JsonNode state = format("{\"result\":\"OK\",\"state\":{\"position\":[3,-4],\"shields\":2}}").get("State");
+
+        assertEquals(3, state.get("Position").get(0).asInt());
+        assertEquals(-4, state.get("Position").get(1).asInt());
+        assertEquals(2, state.get("Shields").asInt());
+        assertEquals("Unknown", state.get("Direction").asText());
+        assertEquals(0, state.get("Shots").asInt());
+        assertEquals(0, state.get("MaxShots").asInt());
+        assertEquals("Unknown", state.get("Status").asText());
+        assertFalse(state.get("Dead").asBoolean());
+        assertFalse(state.has("GameOverMessage"));
+    }
+
+    @Test
+    void testDeadRobotGetsGameOverMessage() throws Exception {
+        JsonNode state = format("{\"result\":\"OK\",\"state\":{\"status\":\"DEAD\",\"dead\":true}}").get("State");
+
+        assertTrue(state.get("Dead").asBoolean());
+        assertTrue(state.get("GameOverMessage").asText().contains("YOU DIED"));
+    }
+
+    @Test
+    void testMissingResultIsUnknown() throws Exception {
+        assertEquals("Unknown", format("{}").get("Result").asText());
+    }
+
+    @Test
+    void testReloadMessageAddsHint() throws Exception {
+        JsonNode formatted = format("{\"result\":\"OK\",\"data\":{\"message\":\"Out of ammo, Reload\"}}");
+
+        assertEquals("Please reload before firing again", formatted.get("ActionRequired").asText());
+        assertFalse(format("{\"result\":\"OK\",\"data\":{\"message\":\"Done\"}}").has("ActionRequired"));
+    }
+
+    @Test
+    void testUnknownFieldsAreSkipped() throws Exception {
+        JsonNode formatted = format("{\"result\":\"OK\",\"secret\":{\"a\":[1,{\"b\":2}]},"
+                + "\"data\":{\"junk\":[1,2],\"steps\":4,\"objects\":[{\"type\":\"EDGE\",\"distance\":3,\"x\":{}}]}}");
+
+        assertFalse(formatted.has("secret"));
+        assertEquals(2, formatted.get("Data").size()); // steps and Objects
+        JsonNode seen = formatted.get("Data").get("Objects").get(0);
+        assertEquals("EDGE", seen.get("type").asText());
+        assertEquals(3, seen.get("distance").asInt());
+        assertEquals("Unknown", seen.get("direction").asText());
+        assertFalse(seen.has("x"));
+    }
+
+    @Test
+    void testMakesAndStartEnd() throws Exception {
+        JsonNode formatted = format("{\"result\":\"OK\","
+                + "\"available_makes\":[{\"make\":\"sniper\",\"shots\":3,\"shields\":2,\"maxshot\":3}],"
+                + "\"data\":{\"start\":{\"x\":1,\"y\":2},\"end\":{\"x\":5}}}");
+
+        JsonNode make = formatted.get("AvailableMakes").get(0);
+        assertEquals("sniper", make.get("make").asText());
+        assertEquals(3, make.get("maxShots").asInt());
+        assertEquals(2, formatted.get("Data").get("Start").get("y").asInt());
+        assertEquals(5, formatted.get("Data").get("End").get("x").asInt());
+        assertEquals(-1, formatted.get("Data").get("End").get("y").asInt());
+    }
+
+    @Test
+    void testWrongShapesAreLeftOut() throws Exception {
+        JsonNode formatted = format("{\"result\":\"OK\",\"data\":{\"robots\":\"none\",\"position\":{\"x\":1}},\"state\":null}");
+
+        assertFalse(formatted.get("Data").has("Robots"));
+        assertFalse(formatted.get("Data").has("Position"));
+        assertFalse(formatted.has("State"));
+    }
+
+    @Test
+    void testFormatLeavesWriterOpen() throws Exception {
+        StringWriter out = new StringWriter();
+
+        formatter.format(mapper.getFactory().createParser("{\"result\":\"OK\"}"), out);
+        out.write("!");
+
+        assertTrue(out.toString().endsWith("}!"));
+    }
+
+    @Test
+    void testCopyTurnsSmileIntoCompactJson() throws Exception {
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        byte[] frame = smile.writeValueAsBytes(mapper.readTree("{\"result\":\"OK\",\"data\":{\"extra\":[1,2]}}"));
+
+        String json = formatter.copy(smile.getFactory().createParser(frame));
+
+        assertEquals("{\"result\":\"OK\",\"data\":{\"extra\":[1,2]}}", json);
+    }
+}
@@ -2,15 +2,15 @@ package za.co.wethinkcode.robots.client.connection;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import za.co.wethinkcode.robots.client.command.CommandBuilder;
 
 import java.io.BufferedReader;
 import java.io.PrintWriter;
-import java.lang.reflect.Method;
 import java.net.Socket;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -48,6 +48,26 @@ public class ServerConnectionTest {
         verify(mockWriter).println(anyString());
     }
 
+    @Test
+    void testSendCommandsPipelinesThenReadsInOrder() throws Exception {
+        when(mockBuilder.buildCommand("state")).thenReturn(mapper.createObjectNode().put("command", "state"));
+        when(mockBuilder.buildCommand("look")).thenReturn(mapper.createObjectNode().put("command", "look"));
+        when(mockBuilder.buildCommand("bad")).thenReturn(null);
+        when(mockReader.readLine()).thenReturn("{\"result\":\"OK\"}", "{\"result\":\"ERROR\"}");
+
+        List<String> responses = connection.sendCommands(List.of("state", "bad", "look"));
+
+        assertEquals(3, responses.size());
+        assertTrue(responses.get(0).contains("\"Result\" : \"OK\""));
+        assertEquals("Invalid command format", responses.get(1));
+        assertTrue(responses.get(2).contains("\"Result\" : \"ERROR\""));
+
+        // both requests go out before the first response is read
+        InOrder order = inOrder(mockWriter, mockReader);
+        order.verify(mockWriter, times(2)).println(anyString());
+        order.verify(mockReader, times(2)).readLine();
+    }
+
     @Test
     void testSendCommandInvalid() throws Exception {
         when(mockBuilder.buildCommand("bad")).thenReturn(null);
@@ -70,31 +90,32 @@ public class ServerConnectionTest {
         verify(mockWriter).println(anyString());
     }
 
-    // -------------------- Private helper tests --------------------
-
     @Test
-    void testAddRobots() throws Exception {
-        String json = "{\"robots\":[{\"name\":\"Robo1\",\"position\":[1,2],\"direction\":\"N\",\"shields\":5,\"shots\":3,\"status\":\"OK\"}]}";
-        JsonNode data = mapper.readTree(json);
-        ObjectNode dataNode = mapper.createObjectNode();
+    void testRawModeReturnsServerLineUntouched() throws Exception {
+        String line = "{\"result\":\"OK\",\"data\":{\"extra\":1}}";
+        when(mockBuilder.buildCommand("state")).thenReturn(mapper.createObjectNode().put("command", "state"));
+        when(mockReader.readLine()).thenReturn(line);
 
-        Method method = ServerConnection.class.getDeclaredMethod("addRobots", JsonNode.class, ObjectNode.class);
-        method.setAccessible(true);
-        method.invoke(connection, data, dataNode);
+        connection.setRaw(true);
+
+        assertEquals(line, connection.sendCommand("state"));
+    }
+
+    // -------------------- Formatting tests --------------------
+
+    @Test
+    void testFormatRobots() throws Exception {
+        String json = "{\"data\":{\"robots\":[{\"name\":\"Robo1\",\"position\":[1,2],\"direction\":\"N\",\"shields\":5,\"shots\":3,\"status\":\"OK\"}]}}";
+        JsonNode dataNode = format(json).get("Data");
 
         assertTrue(dataNode.has("Robots"));
         assertEquals("Robo1", dataNode.get("Robots").get(0).get("name").asText());
     }
 
     @Test
-    void testAddObstacles() throws Exception {
-        String json = "{\"obstacles\":[{\"obstacleType\":\"Wall\",\"corners\":{\"topLeft\":{\"x\":0,\"y\":0}},\"canKillYou\":true,\"canWalkThrough\":false,\"canSeePast\":true}]}";
-        JsonNode data = mapper.readTree(json);
-        ObjectNode dataNode = mapper.createObjectNode();
-
-        Method method = ServerConnection.class.getDeclaredMethod("addObstacles", JsonNode.class, ObjectNode.class);
-        method.setAccessible(true);
-        method.invoke(connection, data, dataNode);
+    void testFormatObstacles() throws Exception {
+        String json = "{\"data\":{\"obstacles\":[{\"obstacleType\":\"Wall\",\"corners\":{\"topLeft\":{\"x\":0,\"y\":0}},\"canKillYou\":true,\"canWalkThrough\":false,\"canSeePast\":true}]}}";
+        JsonNode dataNode = format(json).get("Data");
 
         assertTrue(dataNode.has("Obstacles"));
         assertEquals("Wall", dataNode.get("Obstacles").get(0).get("type").asText());
@@ -102,17 +123,16 @@ public class ServerConnectionTest {
     }
 
     @Test
-    void testAddNumbers() throws Exception {
-        String json = "{\"maxDistance\":10,\"distanceTraveled\":5,\"shotsUsed\":3,\"steps\":2,\"shields\":7}";
-        JsonNode data = mapper.readTree(json);
-        ObjectNode dataNode = mapper.createObjectNode();
-
-        Method method = ServerConnection.class.getDeclaredMethod("addNumbers", JsonNode.class, ObjectNode.class);
-        method.setAccessible(true);
-        method.invoke(connection, data, dataNode);
+    void testFormatNumbers() throws Exception {
+        String json = "{\"data\":{\"maxDistance\":10,\"distanceTraveled\":5,\"shotsUsed\":3,\"steps\":2,\"shields\":7}}";
+        JsonNode dataNode = format(json).get("Data");
 
         assertEquals(10, dataNode.get("maxDistance").asInt());
         assertEquals(5, dataNode.get("distanceTraveled").asInt());
         assertEquals(7, dataNode.get("shields").asInt());
     }
+
+    private JsonNode format(String json) throws Exception {
+        return mapper.readTree(connection.formatResponse(mapper.readTree(json)));
+    }
 }
@@ -0,0 +1,44 @@
+package za.co.wethinkcode.robots.client.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandMixTest {
+
+    @Test
+    void testPicksFollowWeights() {
+        CommandMix mix = CommandMix.parse("look=3, forward=1");
+        SplittableRandom random = new SplittableRandom(1);
+        Map<String, Integer> picks = new HashMap<>();
+        for (int i = 0; i < 8_000; i++) {
+            picks.merge(mix.next(random), 1, Integer::sum);
+        }
+        assertEquals(2, picks.size());
+        assertTrue(picks.get("look") > 5_600 && picks.get("look") < 6_400, picks.toString());
+        assertTrue(picks.containsKey("forward 1"));
+    }
+
+    @Test
+    void testBuildsCommandLines() {
+        CommandMix mix = CommandMix.parse("turn");
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(List.of("turn left", "turn right").contains(mix.next(random)));
+        }
+        assertEquals(List.of("turn"), mix.getNames());
+    }
+
+    @Test
+    void testRejectsBadSpecs() {
+        assertThrows(IllegalArgumentException.class, () -> CommandMix.parse("dance=1"));
+        assertThrows(IllegalArgumentException.class, () -> CommandMix.parse("look=0"));
+        assertThrows(IllegalArgumentException.class, () -> CommandMix.parse("look=x"));
+        assertThrows(IllegalArgumentException.class, () -> CommandMix.parse(" , "));
+    }
+}
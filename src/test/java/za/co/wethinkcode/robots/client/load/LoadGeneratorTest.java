@@ -0,0 +1,46 @@
+package za.co.wethinkcode.robots.client.load;
+
+import org.junit.jupiter.api.Test;
+import za.co.wethinkcode.robots.server.networking.ClientHandler;
+import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldConfig;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    @Test
+    void testBotsLaunchAndRunTheMixAgainstARealServer() throws Exception {
+        World world = new World(new WorldConfig(40, 5, 0, 0, Map.of("sniper", new int[]{5, 5, 2}), List.of()));
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread acceptor = Thread.ofVirtual().start(() -> {
+                try {
+                    while (true) {
+                        Socket socket = server.accept();
+                        Thread.ofVirtual().start(new ClientHandler(socket, world));
+                    }
+                } catch (Exception ignored) {
+                    // server socket closed
+                }
+            });
+
+            LoadGenerator generator = new LoadGenerator("127.0.0.1", server.getLocalPort(), 5, 200,
+                    Duration.ofMillis(700), CommandMix.parse("look=2,state=1,turn=1"), "sniper", false);
+            LoadReport report = generator.run();
+
+            assertEquals(5, report.count("launch"));
+            assertEquals(0, report.errors("launch"));
+            long sent = report.count("look") + report.count("state") + report.count("turn");
+            assertTrue(sent > 50, "only " + sent + " requests");
+            assertEquals(0, report.errors("look") + report.errors("state") + report.errors("turn"));
+            assertTrue(report.format(generator.getElapsedNanos()).contains("total"));
+            acceptor.interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package za.co.wethinkcode.robots.client.load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadReportTest {
+
+    @Test
+    void testCountsErrorsAndPercentilesPerCommand() {
+        LoadReport report = new LoadReport();
+        for (int i = 1; i <= 100; i++) {
+            report.record("look", i * 1_000_000L, i > 95);
+        }
+        report.record("fire", 5_000, false);
+
+        assertEquals(100, report.count("look"));
+        assertEquals(5, report.errors("look"));
+        assertEquals(1, report.count("fire"));
+        assertEquals(0, report.count("state"));
+
+        // 50 ms and 99 ms, within the histogram's bucket precision
+        assertEquals(50_000, report.percentile("look", 50), 50_000 * 0.07);
+        assertEquals(99_000, report.percentile("look", 99), 99_000 * 0.07);
+    }
+
+    @Test
+    void testFormatHasARowPerCommandAndATotal() {
+        LoadReport report = new LoadReport();
+        report.record("look", 1_000_000, false);
+        report.record("fire", 1_000_000, true);
+
+        String table = report.format(1_000_000_000L);
+        String[] lines = table.split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[1].startsWith("fire"));
+        assertTrue(lines[2].startsWith("look"));
+        assertTrue(lines[3].startsWith("total"));
+        assertTrue(lines[3].contains("50.00%"), lines[3]);
+    }
+}
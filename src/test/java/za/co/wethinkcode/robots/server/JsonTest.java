@@ -0,0 +1,31 @@
+package za.co.wethinkcode.robots.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTest {
+
+    @Test
+    void testSharedInstancesAreReused() {
+        assertSame(Json.mapper(), Json.mapper());
+        assertSame(Json.reader(), Json.reader());
+        assertSame(Json.writer(), Json.writer());
+    }
+
+    @Test
+    void testReaderAndWriterRoundTrip() throws Exception {
+        ObjectNode node = Json.mapper().createObjectNode();
+        node.put("result", "OK");
+        node.putArray("position").add(1).add(-2);
+
+        String compact = Json.writer().writeValueAsString(node);
+        assertEquals("{\"result\":\"OK\",\"position\":[1,-2]}", compact);
+
+        JsonNode parsed = Json.reader().readTree(compact);
+        assertEquals(node, parsed);
+        assertTrue(Json.prettyWriter().writeValueAsString(node).contains("\"result\" : \"OK\""));
+    }
+}
@@ -3,11 +3,13 @@ package za.co.wethinkcode.robots.server;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
 import za.co.wethinkcode.robots.server.world.WorldConfig;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -89,6 +91,34 @@ class ServerTest {
         assertEquals("quit", req.get("command").asText());
     }
 
+    @Test
+    void testCreateServerCommandRequestKeepsArgumentCase() {
+        JsonNode req = Server.createServerCommandRequest("DUMP robots >  Out.json");
+        assertEquals("dump", req.get("command").asText());
+        assertEquals(3, req.get("arguments").size());
+        assertEquals("Out.json", req.get("arguments").get(2).asText());
+    }
+
+    @Test
+    void testCreateHandlerExecutorUsesVirtualThreads() throws Exception {
+        ExecutorService executor = Server.createHandlerExecutor(true);
+        try {
+            assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testCreateHandlerExecutorDefaultsToPlatformThreads() throws Exception {
+        ExecutorService executor = Server.createHandlerExecutor(false);
+        try {
+            assertFalse(executor.submit(() -> Thread.currentThread().isVirtual()).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     void testStaticRecorderInitialization() {
         // Just ensure static block does not throw
@@ -96,4 +126,14 @@ class ServerTest {
             new Server();
         });
     }
+
+    @Test
+    void testVirtualThreadsWithNioIsRejected() {
+        CommandLine.ParameterException e = assertThrows(CommandLine.ParameterException.class,
+                () -> Server.parseOptions("--nio", "--virtual-threads"));
+        assertTrue(e.getMessage().contains("--virtual-threads"));
+
+        assertDoesNotThrow(() -> Server.parseOptions("--virtual-threads"));
+        assertDoesNotThrow(() -> Server.parseOptions("--nio", "--event-loops", "2"));
+    }
 }
@@ -28,6 +28,10 @@ class BackCommandTest {
         when(world.worldWidth()).thenReturn(10);
         when(world.worldHeight()).thenReturn(10);
         when(world.getRobot("R1")).thenReturn(robot);
+        // Real stripe locks, so the command's held-lock check has something to check
+        StripedOccupancy cells = new StripedOccupancy();
+        when(world.lockArea(anyInt(), anyInt(), anyInt(), anyInt())).thenAnswer(call ->
+                cells.lockArea(call.getArgument(0), call.getArgument(1), call.getArgument(2), call.getArgument(3)));
 
         when(robot.getName()).thenReturn("R1");
         when(robot.getStatus()).thenReturn("NORMAL");
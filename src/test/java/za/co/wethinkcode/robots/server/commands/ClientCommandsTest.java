@@ -1,5 +1,6 @@
 package za.co.wethinkcode.robots.server.commands;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import za.co.wethinkcode.robots.server.world.*;
@@ -7,6 +8,8 @@ import za.co.wethinkcode.robots.server.world.*;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -70,6 +73,19 @@ class ClientCommandsTest {
         assertEquals(testRobot.getMaxShots(), testRobot.getShots());
     }
 
+    @Test
+    void testRepairCompletesAsynchronously() {
+        testRobot.damage(3);
+
+        CompletableFuture<JsonNode> pending = new RepairCommand("Robo1", world).executeAsync();
+        assertFalse(pending.isDone(), "Response is sent when the repair timer fires");
+        assertEquals("REPAIR", testRobot.getStatus());
+
+        JsonNode response = pending.join();
+        assertEquals("OK", response.get("result").asText());
+        assertEquals("NORMAL", response.get("state").get("status").asText());
+        assertEquals(testRobot.getMaxShields(), testRobot.getShields());
+    }
 
     @Test
     void testRepairAndReloadDeadRobotHasNoEffect() {
@@ -88,4 +104,27 @@ class ClientCommandsTest {
         assertEquals(shotsBefore, testRobot.getShots());
     }
 
+    @Test
+    void testLoopKeepsTickingDuringRepair() throws Exception {
+        SimulationLoop loop = new SimulationLoop(5);
+        loop.start(world);
+        try {
+            RepairCommand repair = new RepairCommand("Robo1", world);
+            assertThrows(IllegalStateException.class, repair::execute);
+            assertThrows(IllegalStateException.class, new ReloadCommand("Robo1", world)::execute);
+
+            testRobot.setRepairTime(1);
+            CompletableFuture<JsonNode> pending = world.submit(repair::executeAsync);
+            Thread.sleep(100); // let the repair start
+            long ticks = loop.getTicks();
+            Thread.sleep(300);
+
+            assertFalse(pending.isDone());
+            assertTrue(loop.getTicks() > ticks + 10, "loop stalled during the repair");
+            assertEquals("OK", pending.get(5, TimeUnit.SECONDS).get("result").asText());
+            assertEquals(testRobot.getMaxShields(), testRobot.getShields());
+        } finally {
+            loop.shutdown();
+        }
+    }
 }
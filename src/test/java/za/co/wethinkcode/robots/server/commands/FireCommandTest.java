@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import za.co.wethinkcode.robots.server.world.Robot;
+import za.co.wethinkcode.robots.server.world.StripedOccupancy;
 import za.co.wethinkcode.robots.server.world.World;
 
 import java.util.List;
@@ -25,7 +26,13 @@ class FireCommandTest {
         target = mock(Robot.class);
 
         when(world.getRobotsInWorld()).thenReturn(List.of(shooter, target));
+        when(world.robotAt(5, 7)).thenReturn(target);
         when(world.getRobot("Shooter")).thenReturn(shooter);
+        when(world.canSeePast(anyInt(), anyInt())).thenReturn(true);
+        // Real stripe locks, so the command's held-lock check has something to check
+        StripedOccupancy cells = new StripedOccupancy();
+        when(world.lockArea(anyInt(), anyInt(), anyInt(), anyInt())).thenAnswer(call ->
+                cells.lockArea(call.getArgument(0), call.getArgument(1), call.getArgument(2), call.getArgument(3)));
 
         when(shooter.getName()).thenReturn("Shooter");
         when(shooter.getShots()).thenReturn(5);
@@ -59,6 +66,8 @@ class FireCommandTest {
         when(shooter.getMaxShotDistance()).thenReturn(1);
         when(target.getX()).thenReturn(10);
         when(target.getY()).thenReturn(10);
+        when(world.robotAt(5, 7)).thenReturn(null);
+        when(world.robotAt(10, 10)).thenReturn(target);
 
         FireCommand cmd = new FireCommand("Shooter", JsonNodeFactory.instance.arrayNode(), world);
         JsonNode result = cmd.execute();
@@ -132,4 +141,19 @@ class FireCommandTest {
         verify(target, never()).damage(anyInt());
         verify(shooter).consumeShots(anyInt());
     }
+
+    @Test
+    void testShotStopsAtMountain() {
+        when(shooter.getMaxShotDistance()).thenReturn(3);
+        when(world.canSeePast(5, 6)).thenReturn(false);
+
+        FireCommand cmd = new FireCommand("Shooter", JsonNodeFactory.instance.arrayNode(), world);
+        JsonNode result = cmd.execute();
+
+        assertEquals("OK", result.get("result").asText());
+        assertFalse(result.get("data").get("hit").asBoolean());
+        assertTrue(result.get("data").get("blocked").asBoolean());
+        assertEquals(1, result.get("data").get("distanceTraveled").asInt());
+        verify(target, never()).damage(anyInt());
+    }
 }
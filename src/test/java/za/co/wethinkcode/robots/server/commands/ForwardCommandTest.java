@@ -1,16 +1,25 @@
 package za.co.wethinkcode.robots.server.commands;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import za.co.wethinkcode.robots.server.world.Obstacle;
 import za.co.wethinkcode.robots.server.world.Robot;
+import za.co.wethinkcode.robots.server.world.StripedOccupancy;
 import za.co.wethinkcode.robots.server.world.World;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class ForwardCommandTest {
@@ -30,6 +39,10 @@ class ForwardCommandTest {
         when(world.getRobotsInWorld()).thenReturn(List.of(robot));
         when(world.worldWidth()).thenReturn(20);
         when(world.worldHeight()).thenReturn(20);
+        // Real stripe locks, so the command's held-lock check has something to check
+        StripedOccupancy cells = new StripedOccupancy();
+        when(world.lockArea(anyInt(), anyInt(), anyInt(), anyInt())).thenAnswer(call ->
+                cells.lockArea(call.getArgument(0), call.getArgument(1), call.getArgument(2), call.getArgument(3)));
     }
 
     @Test
@@ -94,6 +107,7 @@ class ForwardCommandTest {
         when(other.getY()).thenReturn(6); // in front
 
         when(world.getRobotsInWorld()).thenReturn(List.of(robot, other));
+        when(world.robotAt(5, 6)).thenReturn(other);
 
         when(robot.getX()).thenReturn(5);
         when(robot.getY()).thenReturn(5);
@@ -106,4 +120,96 @@ class ForwardCommandTest {
         assertEquals("Blocked by another robot", result.get("data").get("outcome").asText());
     }
 
+    @Test
+    void obstacleAnywhereOnPathRefusesMove() {
+        Robot other = mock(Robot.class);
+        when(other.getStatus()).thenReturn("ALIVE");
+        when(world.robotAt(5, 6)).thenReturn(other); // robot first, mountain further on
+        when(world.blocksMovement(5, 8)).thenReturn(true);
+
+        when(robot.getX()).thenReturn(5);
+        when(robot.getY()).thenReturn(5);
+        when(robot.getDirection()).thenReturn("NORTH");
+
+        ArrayNode args = JsonNodeFactory.instance.arrayNode().add(4);
+        var result = new ForwardCommand("R1", args, world).execute();
+
+        assertEquals("Blocked by obstacle", result.get("data").get("outcome").asText());
+        verify(robot, never()).setPosition(anyInt(), anyInt());
+    }
+
+    @Test
+    void pitStopsRobotAndKillsIt() {
+        when(world.killsRobot(7, 5)).thenReturn(true);
+
+        when(robot.getX()).thenReturn(5);
+        when(robot.getY()).thenReturn(5);
+        when(robot.getDirection()).thenReturn("EAST");
+
+        ArrayNode args = JsonNodeFactory.instance.arrayNode().add(4);
+        var result = new ForwardCommand("R1", args, world).execute();
+
+        assertEquals("Fell into a bottomless pit", result.get("data").get("outcome").asText());
+        assertEquals(2, result.get("data").get("steps").asInt());
+        verify(robot).setPosition(7, 5);
+        verify(robot).setStatus("DEAD");
+        verify(world, never()).robotAt(8, 5); // stopped, so later cells skip the occupancy lookup
+    }
+
+    @Test
+    void obstacleBeforeEdgeIsReportedAndNothingIsLocked() {
+        when(world.blocksMovement(5, 7)).thenReturn(true);
+
+        when(robot.getX()).thenReturn(5);
+        when(robot.getY()).thenReturn(5);
+        when(robot.getDirection()).thenReturn("NORTH");
+
+        ArrayNode args = JsonNodeFactory.instance.arrayNode().add(50);
+        var result = new ForwardCommand("R1", args, world).execute();
+
+        assertEquals("Blocked by obstacle", result.get("data").get("outcome").asText());
+        verify(world, never()).lockArea(anyInt(), anyInt(), anyInt(), anyInt());
+        verify(robot, never()).setPosition(anyInt(), anyInt());
+    }
+
+    @Test
+    void longMoveLocksOnlyThePath() {
+        when(robot.getX()).thenReturn(-10);
+        when(robot.getY()).thenReturn(0);
+        when(robot.getDirection()).thenReturn("EAST");
+
+        ArrayNode args = JsonNodeFactory.instance.arrayNode().add(20);
+        var result = new ForwardCommand("R1", args, world).execute();
+
+        assertEquals("Moved successfully", result.get("data").get("outcome").asText());
+        verify(world).lockArea(-10, 0, 10, 0);
+        verify(robot).setPosition(10, 0);
+    }
+
+    @Test
+    void responseIsWrittenAfterThePathIsUnlocked() throws Exception {
+        when(robot.getX()).thenReturn(5);
+        when(robot.getY()).thenReturn(5);
+        when(robot.getDirection()).thenReturn("NORTH");
+        StripedOccupancy cells = new StripedOccupancy();
+        when(world.lockArea(anyInt(), anyInt(), anyInt(), anyInt()))
+                .thenAnswer(call -> cells.lockArea(5, 5, 5, 6));
+
+        // Another thread can take the path's lock by the time the response starts
+        JsonGenerator out = new JsonGeneratorDelegate(new ObjectMapper().createGenerator(new StringWriter())) {
+            @Override
+            public void writeStartObject() throws IOException {
+                boolean free = CompletableFuture.supplyAsync(() -> {
+                    try (var path = cells.lockArea(5, 5, 5, 6)) {
+                        return path.held();
+                    }
+                }).completeOnTimeout(false, 1, TimeUnit.SECONDS).join();
+                assertTrue(free, "path is still locked while writing");
+                super.writeStartObject();
+            }
+        };
+
+        assertTrue(new ForwardCommand("R1", JsonNodeFactory.instance.arrayNode().add(1), world).writeResponse(out));
+        verify(robot).setPosition(5, 6);
+    }
 }
@@ -0,0 +1,191 @@
+package za.co.wethinkcode.robots.server.commands;
+
+import org.junit.jupiter.api.Test;
+import za.co.wethinkcode.robots.server.world.ObjectInView;
+import za.co.wethinkcode.robots.server.world.Obstacle;
+import za.co.wethinkcode.robots.server.world.Robot;
+import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LookCommandTest {
+
+    /**
+     * The original look, ported unchanged from before the sight-line tables, kept as the
+     * reference they must match. It reads the live robot list and walks the obstacle list
+     * for every cell.
+     */
+    private static List<String> walk(World gameWorld, Robot robot) {
+        List<ObjectInView> objects = new ArrayList<>();
+        int x = robot.getX();
+        int y = robot.getY();
+        int visibility = gameWorld.getVisibility(); // use world visibility
+
+        for (String direction : new String[]{"NORTH", "SOUTH", "EAST", "WEST"}) {
+            objects.addAll(lookInDirection(gameWorld, x, y, direction, visibility));
+        }
+        List<String> seen = new ArrayList<>();
+        for (ObjectInView object : objects) {
+            seen.add(object.direction + " " + object.type + " " + object.distance);
+        }
+        return seen;
+    }
+
+    private static List<ObjectInView> lookInDirection(World gameWorld, int x, int y, String direction, int visibility) {
+        List<ObjectInView> objects = new ArrayList<>();
+        int width = gameWorld.worldWidth();
+        int height = gameWorld.worldHeight();
+
+        List<Robot> robots = gameWorld.getRobotsInWorld();
+        List<Obstacle> obstacles = gameWorld.getWorldObstacles();
+
+        int dx = 0, dy = 0;
+        switch (direction) {
+            case "NORTH": dy = 1; break;
+            case "SOUTH": dy = -1; break;
+            case "EAST":  dx = 1; break;
+            case "WEST":  dx = -1; break;
+        }
+
+        int distance = 1;
+        while (distance <= visibility) { // stop at visibility distance
+            int newX = x + dx * distance;
+            int newY = y + dy * distance;
+
+            // Look for world edge
+            if (newX < -(width / 2) || newX >= width / 2 ||
+                    newY < -(height / 2) || newY >= height / 2) {
+                objects.add(new ObjectInView(direction, "EDGE", distance));
+                break;
+            }
+
+            // Check robots (ignore dead ones)
+            for (Robot r : robots) {
+                if (!"DEAD".equals(r.getStatus()) && r.getX() == newX && r.getY() == newY) {
+                    objects.add(new ObjectInView(direction, "ROBOT", distance));
+                    return objects; // cannot see past robot
+                }
+            }
+
+            // Check obstacles
+            for (Obstacle o : obstacles) {
+                if (o.blocksPosition(newX, newY)) {
+                    String type = o.getType().toString();
+                    String obstacleType = Obstacle.ObstacleType.fromString(type).toString();
+                    objects.add(new ObjectInView(direction, obstacleType.toUpperCase(), distance));
+                    if (!o.canSeePast()) {
+                        return objects; // cannot see past solid obstacle
+                    }
+                }
+            }
+
+            distance++;
+        }
+        return objects;
+    }
+
+    private static List<String> looked(World world, Robot robot) {
+        List<String> seen = new ArrayList<>();
+        for (ObjectInView object : new LookCommand(robot.getName(), world).look(robot)) {
+            seen.add(object.direction + " " + object.type + " " + object.distance);
+        }
+        return seen;
+    }
+
+    @Test
+    void testMatchesOriginalWalkOnRandomWorlds() {
+        Random random = new Random(42);
+        Obstacle.ObstacleType[] types = Obstacle.ObstacleType.values();
+        for (int round = 0; round < 40; round++) {
+            int size = 9 + random.nextInt(40);
+            List<Obstacle> obstacles = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Obstacle obstacle = new Obstacle(types[random.nextInt(types.length)],
+                        random.nextInt(size) - size / 2, random.nextInt(size) - size / 2, random.nextInt(4));
+                if (obstacles.stream().noneMatch(other -> overlap(obstacle, other))) {
+                    obstacles.add(obstacle);
+                }
+            }
+            World world = new World(new WorldConfig(size, 1 + random.nextInt(size), 0, 0,
+                    Map.of("Sniper", new int[]{5, 5, 2}), obstacles));
+
+            List<Robot> robots = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                Robot robot = new Robot("R" + i, "Sniper", 5, 5, 2);
+                if (world.addRobot(robot)) robots.add(robot);
+            }
+            robots.get(robots.size() - 1).setStatus("DEAD"); // dead robots are not seen
+            world.publishSnapshot();
+
+            for (Robot robot : robots) {
+                assertEquals(walk(world, robot), looked(world, robot), "round " + round + " robot " + robot.getName());
+            }
+        }
+    }
+
+    // Overlapping obstacles are the one place the tables differ from the original walk; see below
+    private static boolean overlap(Obstacle a, Obstacle b) {
+        return a.getTopLeftX() <= b.getTopRightX() && b.getTopLeftX() <= a.getTopRightX()
+                && a.getBottomLeftY() <= b.getTopLeftY() && b.getBottomLeftY() <= a.getTopLeftY();
+    }
+
+    private static World worldWith(Obstacle... obstacles) {
+        return new World(new WorldConfig(20, 10, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of(obstacles)));
+    }
+
+    private static Robot robotAtOrigin(World world) {
+        Robot robot = new Robot("Hal", "Sniper", 5, 5, 2);
+        world.addRobot(robot);
+        robot.setPosition(0, 0);
+        world.publishSnapshot();
+        return robot;
+    }
+
+    private static List<String> north(List<String> seen) {
+        return seen.stream().filter(object -> object.startsWith("NORTH")).toList();
+    }
+
+    /**
+     * Where obstacles overlap, look reports each type on a cell once, in ObstacleType order,
+     * and a mountain still hides the cells beyond it but not the other types on its own cell.
+     * The original walk listed one entry per obstacle, in the order the obstacles were
+     * configured, and stopped at the first mountain in that order.
+     */
+    @Test
+    void testOverlappingObstaclesAreReportedOncePerTypeInTypeOrder() {
+        World mountainFirst = worldWith(
+                new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 0, 3, 0),
+                new Obstacle(Obstacle.ObstacleType.LAKE, 0, 3, 0),
+                new Obstacle(Obstacle.ObstacleType.LAKE, 0, 3, 0));
+        Robot hal = robotAtOrigin(mountainFirst);
+        assertEquals(List.of("NORTH MOUNTAIN 3"), north(walk(mountainFirst, hal)));
+        assertEquals(List.of("NORTH MOUNTAIN 3", "NORTH LAKE 3"), north(looked(mountainFirst, hal)));
+
+        World lakesFirst = worldWith(
+                new Obstacle(Obstacle.ObstacleType.LAKE, 0, 3, 0),
+                new Obstacle(Obstacle.ObstacleType.LAKE, 0, 3, 0),
+                new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 0, 3, 0));
+        hal = robotAtOrigin(lakesFirst);
+        assertEquals(List.of("NORTH LAKE 3", "NORTH LAKE 3", "NORTH MOUNTAIN 3"), north(walk(lakesFirst, hal)));
+        assertEquals(List.of("NORTH MOUNTAIN 3", "NORTH LAKE 3"), north(looked(lakesFirst, hal)));
+    }
+
+    @Test
+    void testResponseIncludesObjectsAndState() {
+        World world = new World(new WorldConfig(10, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of()));
+        Robot robot = new Robot("Hal", "Sniper", 5, 5, 2);
+        world.addRobot(robot);
+
+        var response = new LookCommand("Hal", world).execute();
+
+        assertEquals("OK", response.get("result").asText());
+        assertTrue(response.get("data").get("objects").isArray());
+        assertEquals(robot.getX(), response.get("state").get("position").get(0).asInt());
+    }
+}
@@ -0,0 +1,138 @@
+package za.co.wethinkcode.robots.server.commands;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.api.Test;
+import za.co.wethinkcode.robots.server.world.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NavigateCommandTest {
+
+    private World world;
+    private Robot robot;
+
+    private void setup(List<Obstacle> obstacles) {
+        world = new World(new WorldConfig(21, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), obstacles));
+        robot = new Robot("R1", "Sniper", 5, 5, 2);
+        assertTrue(world.addRobot(robot));
+        robot.setPosition(0, 0);
+        robot.setDirection("NORTH");
+    }
+
+    private JsonNode navigate(Object... args) {
+        ArrayNode arguments = JsonNodeFactory.instance.arrayNode();
+        for (Object arg : args) {
+            arguments.add(arg.toString());
+        }
+        return ClientCommands.create(
+                JsonNodeFactory.instance.objectNode().put("command", "navigate").set("arguments", arguments),
+                world, "R1").execute();
+    }
+
+    @Test
+    void drivesAroundWallToTarget() {
+        List<Obstacle> wall = new ArrayList<>();
+        for (int y = -10; y <= 8; y++) {
+            wall.add(new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 2, y, 0));
+        }
+        setup(wall);
+
+        JsonNode result = navigate(4, 0);
+
+        assertEquals("OK", result.get("result").asText());
+        assertEquals("Arrived at destination", result.get("data").get("outcome").asText());
+        assertEquals(22, result.get("data").get("steps").asInt());
+        assertEquals(4, robot.getX());
+        assertEquals(0, robot.getY());
+
+        JsonNode path = result.get("data").get("path");
+        assertEquals(0, path.get(0).get("x").asInt());
+        assertEquals(0, path.get(0).get("y").asInt());
+        assertEquals(4, path.get(path.size() - 1).get("x").asInt());
+        assertEquals(0, path.get(path.size() - 1).get("y").asInt());
+        assertTrue(path.size() >= 4); // start plus at least three stretches
+    }
+
+    @Test
+    void noRouteLeavesRobotInPlace() {
+        setup(List.of(new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 5, 5, 0)));
+
+        JsonNode result = navigate(5, 5);
+
+        assertEquals("No route to destination", result.get("data").get("outcome").asText());
+        assertEquals(0, result.get("data").get("steps").asInt());
+        assertEquals(0, robot.getX());
+        assertEquals(0, robot.getY());
+    }
+
+    @Test
+    void badArgumentsAreErrors() {
+        setup(List.of());
+
+        assertEquals("ERROR", navigate(4).get("result").asText());
+        assertEquals("ERROR", navigate("x", 4).get("result").asText());
+        assertTrue(navigate(40, 0).get("data").get("message").asText().contains("outside the world"));
+    }
+
+    @Test
+    void alreadyAtTarget() {
+        setup(List.of());
+
+        JsonNode result = navigate(0, 0);
+
+        assertEquals("Arrived at destination", result.get("data").get("outcome").asText());
+        assertEquals(0, result.get("data").get("steps").asInt());
+    }
+
+    @Test
+    void missingRobotErrorNamesIt() {
+        setup(List.of());
+
+        JsonNode result = new NavigateCommand("Ghost", JsonNodeFactory.instance.arrayNode().add(1).add(1), world).execute();
+
+        assertEquals("ERROR", result.get("result").asText());
+        assertEquals("Robot not found.", result.get("data").get("message").asText());
+        assertEquals("Ghost", result.get("data").get("robotName").asText());
+    }
+
+    @Test
+    void plansOffTheSimulationLoop() throws Exception {
+        Set<String> planners = ConcurrentHashMap.newKeySet();
+        world = new World(new WorldConfig(21, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of(
+                new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 0, 3, 0)))) {
+            @Override
+            public WorldSnapshot snapshot() {
+                planners.add(Thread.currentThread().getName()); // only the planner reads it here
+                return super.snapshot();
+            }
+        };
+        robot = new Robot("R1", "Sniper", 5, 5, 2);
+        assertTrue(world.addRobot(robot));
+        robot.setPosition(0, 0);
+        SimulationLoop loop = new SimulationLoop(5);
+        loop.start(world);
+        try {
+            NavigateCommand navigate = new NavigateCommand("R1",
+                    JsonNodeFactory.instance.arrayNode().add(0).add(6), world);
+            JsonNode result = world.submit(navigate::executeAsync).get(2, TimeUnit.SECONDS);
+
+            assertEquals("Arrived at destination", result.get("data").get("outcome").asText());
+            assertEquals(8, result.get("data").get("steps").asInt());
+            assertFalse(planners.isEmpty());
+            assertFalse(planners.contains("simulation"));
+        } finally {
+            loop.shutdown();
+        }
+        assertEquals(0, robot.getX());
+        assertEquals(6, robot.getY());
+    }
+}
@@ -6,9 +6,13 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedConstruction;
+import za.co.wethinkcode.robots.server.world.Robot;
 import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldConfig;
+import za.co.wethinkcode.robots.server.world.WorldSnapshot;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,20 +28,30 @@ public class RobotsCommandTest {
         robotsCommand = new RobotsCommand(mockWorld);
     }
 
+    // Snapshots come from a real world holding the named robots
+    private WorldSnapshot snapshotOf(String... names) {
+        World world = new World(new WorldConfig(10, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of()));
+        for (String name : names) {
+            world.addRobot(new Robot(name, "Sniper", 5, 5, 2));
+        }
+        world.publishSnapshot();
+        return world.snapshot();
+    }
+
     @Test
     void testNoRobotsReturnsEmptyArray() {
-        when(mockWorld.getRobotNames()).thenReturn(List.of());
+        when(mockWorld.snapshot()).thenReturn(snapshotOf());
 
         JsonNode result = robotsCommand.execute();
 
         assertEquals("OK", result.get("result").asText());
         assertEquals(0, result.get("data").get("robots").size());
-        verify(mockWorld, times(1)).getRobotNames();
+        verify(mockWorld, times(1)).snapshot();
     }
 
     @Test
     void testRobotsArrayContainsRobotNames() {
-        when(mockWorld.getRobotNames()).thenReturn(List.of("Alpha", "Beta"));
+        when(mockWorld.snapshot()).thenReturn(snapshotOf("Alpha", "Beta"));
 
         try (MockedConstruction<StateNode> mockedStateNode = mockConstruction(
                 StateNode.class,
@@ -60,7 +74,7 @@ public class RobotsCommandTest {
             assertTrue(names.contains("Alpha"));
             assertTrue(names.contains("Beta"));
 
-            verify(mockWorld, times(1)).getRobotNames();
+            verify(mockWorld, times(1)).snapshot();
             assertEquals(2, mockedStateNode.constructed().size(),
                     "StateNode should be constructed once per robot");
         }
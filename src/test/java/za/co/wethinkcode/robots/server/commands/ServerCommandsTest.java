@@ -2,11 +2,14 @@ package za.co.wethinkcode.robots.server.commands;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import za.co.wethinkcode.robots.server.world.*;
 
+import java.nio.file.Path;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +38,44 @@ class ServerCommandsTest {
         assertEquals("World terminated", response.get("data").get("message").asText());
     }
 
+    @Test
+    void testStatsCommandReportsCountersAndWindows() {
+        JsonNode request = mapper.createObjectNode().put("command", "stats");
+        Command command = ServerCommands.create(request, world);
+        assertInstanceOf(StatsCommand.class, command);
+
+        JsonNode response = command.execute();
+        assertEquals("OK", response.get("result").asText());
+        JsonNode data = response.get("data");
+        assertTrue(data.has("requests"));
+        assertTrue(data.has("errors"));
+        assertTrue(data.has("disconnects"));
+        assertTrue(data.get("windows").has("10s"));
+        assertTrue(data.get("windows").has("1m"));
+        assertFalse(data.has("simulation"));
+    }
+
+    @Test
+    void testStatsCommandReportsSimulationTicks() throws Exception {
+        SimulationLoop loop = new SimulationLoop(5);
+        loop.start(world);
+        try {
+            while (loop.getTicks() == 0) {
+                Thread.sleep(1);
+            }
+            JsonNode request = mapper.createObjectNode().put("command", "stats");
+            JsonNode simulation = ServerCommands.create(request, world, loop).execute().get("data").get("simulation");
+
+            assertEquals(5, simulation.get("tickMillis").asInt());
+            assertTrue(simulation.get("ticks").asLong() > 0);
+            assertTrue(simulation.has("tasksRun"));
+            assertTrue(simulation.has("lastBatchSize"));
+            assertTrue(simulation.has("longestTickMicros"));
+        } finally {
+            loop.shutdown();
+        }
+    }
+
     @Test
     void testDumpCommandEmptyWorld() {
         DumpCommand dump = new DumpCommand(world);
@@ -56,6 +97,7 @@ class ServerCommandsTest {
         Robot r2 = new Robot("R2", "Sniper", 10, 5, 3);
         world.addRobot(r1);
         world.addRobot(r2);
+        world.publishSnapshot();
 
         DumpCommand dump = new DumpCommand(world);
         JsonNode response = dump.execute();
@@ -65,6 +107,64 @@ class ServerCommandsTest {
         assertTrue(response.get("data").get("worldState").get("robots").toString().contains("R2"));
     }
 
+    @Test
+    void testDumpCommandFiltersRobotsByBox() {
+        Robot r1 = new Robot("R1", "Sniper", 15, 5, 3);
+        Robot r2 = new Robot("R2", "Sniper", 10, 5, 3);
+        world.addRobot(r1);
+        world.addRobot(r2);
+        r1.setPosition(0, 0);
+        r2.setPosition(2, 2);
+        world.publishSnapshot();
+
+        ObjectNode request = mapper.createObjectNode().put("command", "dump");
+        request.putArray("arguments").add("robots").add("-1").add("-1").add("1").add("1");
+        JsonNode response = ServerCommands.create(request, world).execute();
+
+        JsonNode worldState = response.get("data").get("worldState");
+        assertEquals(1, worldState.get("numRobots").asInt());
+        assertEquals("R1", worldState.get("robots").get(0).get("name").asText());
+        assertFalse(worldState.has("obstacles"));
+    }
+
+    @Test
+    void testDumpCommandRejectsBadArguments() {
+        ObjectNode request = mapper.createObjectNode().put("command", "dump");
+        request.putArray("arguments").add("1").add("2");
+        JsonNode response = ServerCommands.create(request, world).execute();
+
+        assertEquals("ERROR", response.get("result").asText());
+        assertEquals(DumpCommand.USAGE, response.get("data").get("message").asText());
+    }
+
+    @Test
+    void testDumpCommandRejectsBothKinds() {
+        for (String[] kinds : new String[][]{{"robots", "obstacles"}, {"obstacles", "robots"}}) {
+            ArrayNode arguments = mapper.createArrayNode().add(kinds[0]).add(kinds[1]);
+
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> DumpCommand.parse(world, arguments));
+            assertEquals(DumpCommand.USAGE, e.getMessage());
+        }
+        assertDoesNotThrow(() -> DumpCommand.parse(world, mapper.createArrayNode().add("robots").add("0")
+                .add("0").add("1").add("1")));
+    }
+
+    @Test
+    void testDumpCommandWritesToFile(@TempDir Path dir) throws Exception {
+        world.addRobot(new Robot("R1", "Sniper", 15, 5, 3));
+        world.publishSnapshot();
+        Path file = dir.resolve("dump.json");
+
+        ObjectNode request = mapper.createObjectNode().put("command", "dump");
+        request.putArray("arguments").add(">").add(file.toString());
+        JsonNode response = ServerCommands.create(request, world).execute();
+
+        assertEquals("OK", response.get("result").asText());
+        assertFalse(response.get("data").has("worldState"));
+        assertEquals(world.getWorldState(), mapper.readTree(file.toFile()));
+    }
+
     @Test
     void testRobotsCommandRemovesDeadRobots() {
         Robot r1 = new Robot("R1", "Sniper", 15, 5, 3);
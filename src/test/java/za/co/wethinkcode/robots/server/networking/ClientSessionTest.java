@@ -0,0 +1,196 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.TreeNode;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import za.co.wethinkcode.robots.server.world.SimulationLoop;
+import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientSessionTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private World world;
+    private ClientSession session;
+
+    @BeforeEach
+    void setup() {
+        WorldConfig config = new WorldConfig(10, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of());
+        world = new World(config);
+        session = new ClientSession(world);
+    }
+
+    @Test
+    void testCommandBeforeLaunchIsRejected() throws Exception {
+        JsonNode response = session.handle(mapper.readTree("{\"command\":\"state\",\"arguments\":[]}"));
+        assertEquals("ERROR", response.get("result").asText());
+        assertNull(session.getRobotName());
+    }
+
+    @Test
+    void testLaunchRemembersRobotName() throws Exception {
+        session.handle(mapper.readTree("{\"command\":\"launch\",\"arguments\":[\"sniper\",\"Hal\"]}"));
+        assertEquals("Hal", session.getRobotName());
+
+        JsonNode state = session.handle(mapper.readTree("{\"command\":\"state\",\"arguments\":[]}"));
+        assertEquals("OK", state.get("result").asText());
+        assertFalse(session.isFinished());
+    }
+
+    @Test
+    void testDeadRobotFinishesSession() throws Exception {
+        session.handle(mapper.readTree("{\"command\":\"launch\",\"arguments\":[\"sniper\",\"Hal\"]}"));
+        world.getRobot("Hal").damage(100);
+
+        session.handle(mapper.readTree("{\"command\":\"state\",\"arguments\":[]}"));
+        assertTrue(session.isFinished());
+    }
+
+    private String written(String request) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator out = mapper.createGenerator(bytes)) {
+            session.write(mapper.readTree(request), out);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testStreamedResponsesMatchTreeResponses() throws Exception {
+        session.handle(mapper.readTree("{\"command\":\"launch\",\"arguments\":[\"sniper\",\"Hal\"]}"));
+        String[] requests = {
+                "{\"command\":\"state\",\"arguments\":[]}",
+                "{\"command\":\"forward\",\"arguments\":[\"0\"]}",
+                "{\"command\":\"back\",\"arguments\":[\"0\"]}",
+                "{\"command\":\"forward\",\"arguments\":[\"nope\"]}",
+                "{\"command\":\"orientation\",\"arguments\":[]}"
+        };
+        for (String request : requests) {
+            JsonNode tree = session.handle(mapper.readTree(request));
+            assertEquals(mapper.writeValueAsString(tree), written(request), request);
+        }
+    }
+
+    @Test
+    void testStreamedFireMatchesTreeFire() throws Exception {
+        session.handle(mapper.readTree("{\"command\":\"launch\",\"arguments\":[\"sniper\",\"Hal\"]}"));
+        JsonNode tree = session.handle(mapper.readTree("{\"command\":\"fire\",\"arguments\":[]}"));
+        JsonNode streamed = mapper.readTree(written("{\"command\":\"fire\",\"arguments\":[]}"));
+
+        List<String> treeFields = new ArrayList<>();
+        tree.get("data").fieldNames().forEachRemaining(treeFields::add);
+        List<String> streamedFields = new ArrayList<>();
+        streamed.get("data").fieldNames().forEachRemaining(streamedFields::add);
+        assertEquals(treeFields, streamedFields);
+
+        int shotsUsed = tree.get("data").get("shotsUsed").asInt();
+        assertEquals(tree.get("data").get("hitY"), streamed.get("data").get("hitY"));
+        assertEquals(tree.get("data").get("remainingShots").asInt() - shotsUsed,
+                streamed.get("data").get("remainingShots").asInt());
+        assertEquals(streamed.get("data").get("remainingShots"), streamed.get("state").get("shots"));
+    }
+
+    @Test
+    void testStreamedResponseDetectsDeath() throws Exception {
+        session.handle(mapper.readTree("{\"command\":\"launch\",\"arguments\":[\"sniper\",\"Hal\"]}"));
+        world.getRobot("Hal").damage(100);
+
+        String streamed = written("{\"command\":\"state\",\"arguments\":[]}");
+        assertTrue(streamed.contains("\"dead\":true"));
+        assertTrue(session.isFinished());
+    }
+
+    private static final String BATCH = "[{\"command\":\"launch\",\"arguments\":[\"sniper\",\"Hal\"]},"
+            + "{\"command\":\"turn\",\"arguments\":[\"right\"]},"
+            + "{\"command\":\"state\",\"arguments\":[]}]";
+
+    @Test
+    void testBatchRespondsWithArrayInOrder() throws Exception {
+        JsonNode responses = mapper.readTree(written(BATCH));
+
+        assertTrue(responses.isArray());
+        assertEquals(3, responses.size());
+        assertEquals("Hal", responses.get(0).get("data").get("robotName").asText());
+        assertEquals("EAST", responses.get(2).get("state").get("direction").asText());
+        assertEquals("Hal", session.getRobotName());
+    }
+
+    @Test
+    void testBatchRunsAsOneTaskOnSimulationLoop() throws Exception {
+        SimulationLoop loop = new SimulationLoop(5);
+        loop.start(world);
+        try {
+            long before = loop.getTasksRun();
+            JsonNode responses = mapper.readTree(written(BATCH));
+
+            assertEquals(3, responses.size());
+            assertEquals("EAST", responses.get(2).get("state").get("direction").asText());
+            // The responses complete inside the tick; its counters update when it ends
+            long tick = loop.getTicks();
+            while (loop.getTicks() == tick) {
+                Thread.sleep(1);
+            }
+            assertEquals(1, loop.getTasksRun() - before);
+        } finally {
+            loop.shutdown();
+        }
+    }
+
+    @Test
+    void testBatchStopsWhenRobotDies() throws Exception {
+        session.handle(mapper.readTree("{\"command\":\"launch\",\"arguments\":[\"sniper\",\"Hal\"]}"));
+        world.getRobot("Hal").damage(100);
+
+        JsonNode responses = mapper.readTree(written(
+                "[{\"command\":\"state\",\"arguments\":[]},{\"command\":\"look\",\"arguments\":[]}]"));
+        assertEquals(1, responses.size());
+        assertTrue(session.isFinished());
+    }
+
+    /** A generator that records which thread writes each response. */
+    private JsonGenerator recordingWriters(List<String> threads) throws Exception {
+        return new JsonGeneratorDelegate(mapper.createGenerator(new ByteArrayOutputStream())) {
+            @Override
+            public void writeTree(TreeNode response) throws IOException {
+                threads.add(Thread.currentThread().getName());
+                super.writeTree(response);
+            }
+        };
+    }
+
+    @Test
+    void testSimulationLoopNeverWritesResponses() throws Exception {
+        session.handle(mapper.readTree("{\"command\":\"launch\",\"arguments\":[\"sniper\",\"Hal\"]}"));
+        SimulationLoop loop = new SimulationLoop(5);
+        ExecutorService connection = Executors.newSingleThreadExecutor(task -> new Thread(task, "connection"));
+        loop.start(world);
+        try {
+            List<String> threads = new CopyOnWriteArrayList<>();
+            JsonGenerator out = recordingWriters(threads);
+            session.writeAsync(mapper.readTree("{\"command\":\"state\",\"arguments\":[]}"), out, connection)
+                    .get(5, TimeUnit.SECONDS);
+            session.write(mapper.readTree("{\"command\":\"state\",\"arguments\":[]}"), out);
+
+            assertEquals(List.of("connection", Thread.currentThread().getName()), threads);
+        } finally {
+            loop.shutdown();
+            connection.shutdown();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LengthFramerTest {
+
+    private static byte[] frame(String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).array();
+    }
+
+    private static List<String> feed(LengthFramer framer, byte[]... chunks) throws IOException {
+        List<String> frames = new ArrayList<>();
+        for (byte[] chunk : chunks) {
+            framer.feed(ByteBuffer.wrap(chunk), f -> frames.add(new String(f, StandardCharsets.UTF_8)));
+        }
+        return frames;
+    }
+
+    @Test
+    void testSplitsFramesInOneBuffer() throws IOException {
+        byte[] a = frame("look");
+        byte[] b = frame("state");
+        byte[] both = ByteBuffer.allocate(a.length + b.length).put(a).put(b).array();
+        assertEquals(List.of("look", "state"), feed(new LengthFramer(1024), both));
+    }
+
+    @Test
+    void testJoinsFrameSplitInsideHeaderAndBody() throws IOException {
+        byte[] f = frame("forward");
+        LengthFramer framer = new LengthFramer(1024);
+        assertTrue(feed(framer, new byte[]{f[0], f[1]}).isEmpty());
+        assertTrue(feed(framer, new byte[]{f[2], f[3], f[4], f[5]}).isEmpty());
+        byte[] rest = new byte[f.length - 6];
+        System.arraycopy(f, 6, rest, 0, rest.length);
+        assertEquals(List.of("forward"), feed(framer, rest));
+    }
+
+    @Test
+    void testEmitsEmptyFrames() throws IOException {
+        assertEquals(List.of("", "x"), feed(new LengthFramer(1024), frame(""), frame("x")));
+    }
+
+    @Test
+    void testRejectsOversizedFrame() {
+        LengthFramer framer = new LengthFramer(4);
+        assertThrows(IOException.class, () -> feed(framer, frame("too long")));
+    }
+}
@@ -0,0 +1,57 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineFramerTest {
+
+    private static ByteBuffer bytes(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> feed(LineFramer framer, String... chunks) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String chunk : chunks) {
+            framer.feed(bytes(chunk), line -> lines.add(new String(line, StandardCharsets.UTF_8)));
+        }
+        return lines;
+    }
+
+    @Test
+    void testSplitsMultipleLinesInOneBuffer() throws IOException {
+        List<String> lines = feed(new LineFramer(1024), "{\"a\":1}\n{\"b\":2}\n");
+        assertEquals(List.of("{\"a\":1}", "{\"b\":2}"), lines);
+    }
+
+    @Test
+    void testJoinsLineSplitAcrossBuffers() throws IOException {
+        List<String> lines = feed(new LineFramer(1024), "{\"comm", "and\":\"look\"", "}\n");
+        assertEquals(List.of("{\"command\":\"look\"}"), lines);
+    }
+
+    @Test
+    void testStripsCarriageReturnAndSkipsBlankLines() throws IOException {
+        List<String> lines = feed(new LineFramer(1024), "{}\r\n\n\r\n[]\n");
+        assertEquals(List.of("{}", "[]"), lines);
+    }
+
+    @Test
+    void testKeepsPartialLineUntilNewline() throws IOException {
+        LineFramer framer = new LineFramer(1024);
+        assertTrue(feed(framer, "{\"x\":").isEmpty());
+        assertEquals(List.of("{\"x\":1}"), feed(framer, "1}\n"));
+    }
+
+    @Test
+    void testRejectsOverlongLine() {
+        LineFramer framer = new LineFramer(8);
+        assertThrows(IOException.class, () -> feed(framer, "0123456789\n"));
+    }
+}
@@ -0,0 +1,88 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldConfig;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioConnectionTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExecutorService workers;
+    private Selector selector;
+    private SocketChannel client;
+    private SelectionKey key;
+    private NioConnection connection;
+
+    @BeforeEach
+    void setup() throws IOException {
+        World world = new World(new WorldConfig(10, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of()));
+        workers = Executors.newSingleThreadExecutor();
+        workers.execute(() -> {
+            try {
+                release.await(); // holds every request in the pool's queue
+            } catch (InterruptedException ignored) {}
+        });
+
+        selector = Selector.open();
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("localhost", 0));
+            client = SocketChannel.open(server.getLocalAddress());
+            SocketChannel channel = server.accept();
+            channel.configureBlocking(false);
+            key = channel.register(selector, SelectionKey.OP_READ);
+        }
+        // The loop is never run; responses handed back to it just queue up
+        connection = new NioConnection((SocketChannel) key.channel(), key, new EventLoop(workers, world), workers, world);
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        release.countDown();
+        workers.shutdownNow();
+        connection.close();
+        client.close();
+        selector.close();
+    }
+
+    private void send(int requests) throws IOException {
+        String line = "{\"command\":\"help\",\"arguments\":[]}\n";
+        client.write(ByteBuffer.wrap(line.repeat(requests).getBytes(StandardCharsets.UTF_8)));
+        assertTrue(selector.select(2000) > 0);
+        selector.selectedKeys().clear();
+        connection.onReadable();
+    }
+
+    @Test
+    void testKeepsReadingWhileQueueHasRoom() throws IOException {
+        send(3);
+
+        assertTrue(key.isValid());
+        assertNotEquals(0, key.interestOps() & SelectionKey.OP_READ);
+    }
+
+    @Test
+    void testStopsReadingWhenQueueIsFull() throws IOException {
+        send(NioConnection.MAX_QUEUED_REQUESTS + 5);
+
+        assertTrue(key.isValid());
+        assertEquals(0, key.interestOps() & SelectionKey.OP_READ);
+    }
+}
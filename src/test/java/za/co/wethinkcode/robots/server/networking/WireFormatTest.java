@@ -0,0 +1,65 @@
+package za.co.wethinkcode.robots.server.networking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import za.co.wethinkcode.robots.client.connection.ServerConnection;
+import za.co.wethinkcode.robots.server.Json;
+import za.co.wethinkcode.robots.server.world.World;
+import za.co.wethinkcode.robots.server.world.WorldConfig;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatTest {
+
+    @Test
+    void testRecognisesSmileRequest() {
+        ObjectNode request = Json.mapper().createObjectNode().put("command", "protocol");
+        request.putArray("arguments").add("SMILE");
+        assertTrue(WireFormat.requestsSmile(request));
+
+        assertFalse(WireFormat.requestsSmile(Json.mapper().createObjectNode().put("command", "protocol")));
+        assertFalse(WireFormat.requestsSmile(Json.mapper().createObjectNode().put("command", "look")));
+        assertFalse(WireFormat.requestsSmile(null));
+    }
+
+    @Test
+    void testFramesRoundTripSmile() throws Exception {
+        JsonNode message = Json.mapper().readTree("{\"command\":\"forward\",\"arguments\":[\"10\"]}");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        WireFormat.writeFrame(new DataOutputStream(bytes), Json.smileMapper().writeValueAsBytes(message));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(message, Json.smileReader().readTree(WireFormat.readFrame(in)));
+        assertNull(WireFormat.readFrame(in), "clean end of stream between frames");
+    }
+
+    @Test
+    void testClientAndHandlerNegotiateSmile() throws Exception {
+        World world = new World(new WorldConfig(10, 5, 0, 0, Map.of("sniper", new int[]{5, 5, 2}), List.of()));
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread handler = new Thread(() -> {
+                try {
+                    new ClientHandler(server.accept(), world).run();
+                } catch (Exception ignored) {}
+            });
+            handler.start();
+
+            try (ServerConnection connection = new ServerConnection("127.0.0.1", server.getLocalPort(), true)) {
+                assertTrue(connection.isBinary());
+                assertTrue(connection.sendCommand("launch sniper Hal").contains("\"Result\" : \"OK\""));
+                String state = connection.sendCommand("state");
+                assertTrue(state.contains("\"Direction\" : \"NORTH\""), state);
+            }
+            handler.join(2000);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package za.co.wethinkcode.robots.server.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsAreContiguousAndCoverTheirValues() {
+        for (long v = 0; v < 100_000; v++) {
+            int bucket = LatencyHistogram.bucketOf(v);
+            assertTrue(v <= LatencyHistogram.highestValueIn(bucket), "value " + v);
+            if (bucket > 0) {
+                assertTrue(v > LatencyHistogram.highestValueIn(bucket - 1), "value " + v);
+            }
+        }
+    }
+
+    @Test
+    void testPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 10_000; v++) {
+            histogram.record(v);
+        }
+        assertEquals(10_000, histogram.count());
+        assertEquals(5_000, histogram.valueAtPercentile(50), 5_000 * 0.07);
+        assertEquals(9_900, histogram.valueAtPercentile(99), 9_900 * 0.07);
+        assertEquals(9_990, histogram.valueAtPercentile(99.9), 9_990 * 0.07);
+    }
+
+    @Test
+    void testEmptyAndOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.valueAtPercentile(99));
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.valueAtPercentile(50));
+        assertTrue(histogram.valueAtPercentile(100) > 0);
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 500);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, histogram.count());
+    }
+}
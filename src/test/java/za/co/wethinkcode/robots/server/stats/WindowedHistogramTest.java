@@ -0,0 +1,52 @@
+package za.co.wethinkcode.robots.server.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedHistogramTest {
+
+    @Test
+    void testOldSlotsAgeOutOfTheWindow() {
+        AtomicLong now = new AtomicLong(0);
+        WindowedHistogram histogram = new WindowedHistogram(1_000, 10, now::get);
+
+        for (int i = 0; i < 100; i++) histogram.record(1_000);
+        now.set(5_000);
+        for (int i = 0; i < 10; i++) histogram.record(10);
+
+        assertEquals(10, histogram.summarize(1_000).getCount());
+        assertEquals(110, histogram.summarize(10_000).getCount());
+
+        now.set(10_500);
+        assertEquals(10, histogram.summarize(10_000).getCount(), "slot 0 is now outside the window");
+        assertEquals(10, histogram.summarize(10_000).getP50(), 1);
+    }
+
+    @Test
+    void testRecycledSlotStartsEmpty() {
+        AtomicLong now = new AtomicLong(500);
+        WindowedHistogram histogram = new WindowedHistogram(1_000, 4, now::get);
+        histogram.record(100);
+
+        now.set(4_500); // same ring slot, four periods later
+        histogram.record(7);
+
+        WindowedHistogram.Summary summary = histogram.summarize(4_000);
+        assertEquals(1, summary.getCount());
+        assertEquals(7, summary.getP99());
+    }
+
+    @Test
+    void testThroughputUsesElapsedTime() {
+        AtomicLong now = new AtomicLong(0);
+        WindowedHistogram histogram = new WindowedHistogram(1_000, 10, now::get);
+        for (int i = 0; i < 20; i++) histogram.record(1);
+        now.set(1_999);
+        for (int i = 0; i < 20; i++) histogram.record(1);
+
+        assertEquals(20.0, histogram.summarize(2_000).getThroughput(), 0.01);
+    }
+}
@@ -0,0 +1,45 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DumpFilterTest {
+
+    @Test
+    void allIncludesEverything() {
+        assertTrue(DumpFilter.ALL.includesRobots());
+        assertTrue(DumpFilter.ALL.includesObstacles());
+        assertTrue(DumpFilter.ALL.includes(-1000, 1000));
+        assertTrue(DumpFilter.ALL.includes(new Obstacle(Obstacle.ObstacleType.LAKE, 50, 50, 3)));
+    }
+
+    @Test
+    void boxIncludesRobotsInsideInclusively() {
+        DumpFilter filter = DumpFilter.ALL.within(5, 5, -5, -5);
+
+        assertTrue(filter.includes(5, -5));
+        assertFalse(filter.includes(6, 0));
+    }
+
+    @Test
+    void boxIncludesObstaclesThatOverlapIt() {
+        DumpFilter filter = DumpFilter.ALL.within(0, 0, 10, 10);
+
+        // Spans x 9..12, y 12..9: only its bottom-left corner is inside
+        assertTrue(filter.includes(new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 9, 12, 3)));
+        assertFalse(filter.includes(new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 11, 5, 2)));
+    }
+
+    @Test
+    void sectionsCanBeSelected() {
+        DumpFilter robots = DumpFilter.ALL.within(0, 0, 1, 1).robotsOnly();
+        assertTrue(robots.includesRobots());
+        assertFalse(robots.includesObstacles());
+        assertFalse(robots.includes(3, 3), "box is kept when selecting a section");
+
+        DumpFilter obstacles = DumpFilter.ALL.obstaclesOnly();
+        assertFalse(obstacles.includesRobots());
+        assertTrue(obstacles.includesObstacles());
+    }
+}
@@ -0,0 +1,129 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FreeCellsTest {
+
+    private static FreeCells cells(int size, Obstacle... obstacles) {
+        return new FreeCells(size, size, new ObstacleGrid(size, size, List.of(obstacles)));
+    }
+
+    @Test
+    void testSolidObstaclesAreNeverFree() {
+        // A 2x2 mountain and a pit on a 4x4 world; the pit stays free
+        FreeCells cells = cells(4,
+                new Obstacle(Obstacle.ObstacleType.MOUNTAIN, -2, 1, 1),
+                new Obstacle(Obstacle.ObstacleType.PIT, 1, -2, 0));
+        assertEquals(12, cells.count());
+
+        cells.occupy(-2, 1); // under the mountain: ignored
+        cells.occupy(5, 5); // outside the world: ignored
+        assertEquals(12, cells.count());
+    }
+
+    @Test
+    void testPicksOnlyFreeCellsAndReportsFull() {
+        FreeCells cells = cells(3);
+        Random random = new Random(7);
+        Set<String> taken = new HashSet<>();
+        while (!cells.isFull()) {
+            int cell = cells.pick(random);
+            int x = cells.xOf(cell);
+            int y = cells.yOf(cell);
+            assertTrue(taken.add(x + "," + y), "picked a taken cell " + x + "," + y);
+            assertTrue(x >= -1 && x <= 1 && y >= -1 && y <= 1);
+            cells.occupy(x, y);
+        }
+        assertEquals(9, taken.size());
+        assertEquals(-1, cells.pick(random));
+
+        cells.release(0, 0);
+        assertEquals(1, cells.count());
+        int cell = cells.pick(random);
+        assertEquals(0, cells.xOf(cell));
+        assertEquals(0, cells.yOf(cell));
+    }
+
+    @Test
+    void testPicksAreUniform() {
+        FreeCells cells = cells(4);
+        cells.occupy(-2, -2);
+        Random random = new Random(11);
+        int[] hits = new int[16];
+        for (int i = 0; i < 15_000; i++) {
+            int cell = cells.pick(random);
+            hits[cell]++;
+        }
+        assertEquals(0, hits[0]);
+        for (int i = 1; i < hits.length; i++) {
+            assertTrue(hits[i] > 800 && hits[i] < 1200, "cell " + i + " picked " + hits[i] + " times");
+        }
+    }
+
+    @Test
+    void testWorldTracksMovesDeathsAndRemovals() {
+        World world = new World(new WorldConfig(2, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of()));
+        Robot[] robots = new Robot[4];
+        for (int i = 0; i < robots.length; i++) {
+            robots[i] = new Robot("R" + i, "Sniper", 5, 5, 2);
+            assertTrue(world.addRobot(robots[i]));
+        }
+        assertTrue(world.isFull());
+        assertFalse(world.addRobot(new Robot("Extra", "Sniper", 5, 5, 2)));
+
+        robots[0].setStatus("DEAD");
+        assertFalse(world.isFull());
+        assertTrue(world.addRobot(new Robot("Extra", "Sniper", 5, 5, 2)));
+        assertTrue(world.isFull());
+
+        world.removeOneRobot("R1");
+        assertFalse(world.isFull());
+    }
+
+    @Test
+    void testConcurrentLaunchesFillEveryLastCell() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            World world = new World(new WorldConfig(6, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of()));
+            int threads = 12;
+            int perThread = 3; // one launch for each of the 36 cells
+            AtomicInteger failed = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                Thread worker = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        if (!world.addRobot(new Robot("R" + id + "-" + i, "Sniper", 5, 5, 2))) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            assertEquals(0, failed.get(), "a launch failed with free cells left");
+            assertTrue(world.isFull());
+        }
+    }
+}
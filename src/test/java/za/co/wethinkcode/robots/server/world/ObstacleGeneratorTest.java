@@ -53,4 +53,29 @@ class ObstacleGeneratorTest {
         ObstacleGenerator.placeObstacle(Obstacle.ObstacleType.MOUNTAIN, 10, 10, list, 1);
         assertEquals(1, list.size());
     }
+
+    @Test
+    void testSeededGenerationIsDeterministicAndDisjoint() {
+        List<Obstacle> first = ObstacleGenerator.generate(150, 150, 42L);
+        List<Obstacle> second = ObstacleGenerator.generate(150, 150, 42L);
+
+        // 64 + 64 + 22 cells per side: four full regions, four strips and a corner, each at the usual density
+        assertEquals(3 * (4 * 41 + 4 * 14 + 4), first.size());
+        assertEquals(describe(first), describe(second));
+        assertNotEquals(describe(first), describe(ObstacleGenerator.generate(150, 150, 43L)));
+
+        for (Obstacle o : first) {
+            assertTrue(o.getTopLeftX() >= -75 && o.getBottomRightX() < 75);
+            assertTrue(o.getBottomRightY() >= -75 && o.getTopLeftY() < 75);
+        }
+        for (int i = 0; i < first.size(); i++) {
+            for (int j = i + 1; j < first.size(); j++) {
+                assertFalse(ObstacleGenerator.overlap(first.get(i), first.get(j)));
+            }
+        }
+    }
+
+    private static List<String> describe(List<Obstacle> obstacles) {
+        return obstacles.stream().map(o -> o.getType() + "@" + o.getTopLeftX() + "," + o.getTopLeftY()).toList();
+    }
 }
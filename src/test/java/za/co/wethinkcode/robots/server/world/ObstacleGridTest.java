@@ -0,0 +1,69 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObstacleGridTest {
+
+    @Test
+    void testMountainBlocksMovementAndSight() {
+        ObstacleGrid grid = new ObstacleGrid(20, 20,
+                List.of(new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 1, -1, 2)));
+
+        assertTrue(grid.blocksMovement(1, -1));
+        assertTrue(grid.blocksMovement(3, -3));
+        assertFalse(grid.canSeePast(2, -2));
+        assertFalse(grid.killsRobot(2, -2));
+        assertFalse(grid.hasObstacle(4, -1));
+        assertTrue(grid.canSeePast(4, -1));
+    }
+
+    @Test
+    void testLakeBlocksMovementButNotSight() {
+        ObstacleGrid grid = new ObstacleGrid(20, 20,
+                List.of(new Obstacle(Obstacle.ObstacleType.LAKE, -4, 5, 3)));
+
+        assertTrue(grid.blocksMovement(-4, 2));
+        assertTrue(grid.canSeePast(-4, 2));
+        assertEquals(List.of(Obstacle.ObstacleType.LAKE), grid.typesAt(-1, 5));
+    }
+
+    @Test
+    void testPitKillsButCanBeWalkedInto() {
+        ObstacleGrid grid = new ObstacleGrid(20, 20,
+                List.of(new Obstacle(Obstacle.ObstacleType.PIT, 0, 0, 0)));
+
+        assertTrue(grid.killsRobot(0, 0));
+        assertFalse(grid.blocksMovement(0, 0));
+        assertTrue(grid.canSeePast(0, 0));
+        assertFalse(grid.killsRobot(1, 0));
+    }
+
+    @Test
+    void testObstacleOverlappingEdgeIsClipped() {
+        ObstacleGrid grid = new ObstacleGrid(10, 10,
+                List.of(new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 4, 7, 4)));
+
+        assertTrue(grid.blocksMovement(5, 5));
+        assertFalse(grid.blocksMovement(6, 5), "cells outside the world are never indexed");
+        assertTrue(grid.typesAt(0, 0).isEmpty());
+    }
+
+    @Test
+    void testMatchesObstacleScan() {
+        List<Obstacle> obstacles = ObstacleGenerator.generate(30, 30);
+        ObstacleGrid grid = new ObstacleGrid(30, 30, obstacles);
+
+        for (int x = -15; x <= 15; x++) {
+            for (int y = -15; y <= 15; y++) {
+                int cx = x, cy = y;
+                assertEquals(obstacles.stream().anyMatch(o -> o.blocksMovement(cx, cy)), grid.blocksMovement(x, y));
+                assertEquals(obstacles.stream().anyMatch(o -> o.containsPosition(cx, cy) && o.killsRobot()),
+                        grid.killsRobot(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObstacleIndexTest {
+
+    @Test
+    void testIndexesExistingAndAddedObstacles() {
+        List<Obstacle> list = new ArrayList<>();
+        list.add(new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 0, 0, 2));
+        ObstacleIndex index = new ObstacleIndex(list);
+
+        assertTrue(index.collides(new Obstacle(Obstacle.ObstacleType.LAKE, 1, 0, 2)));
+        assertFalse(index.collides(new Obstacle(Obstacle.ObstacleType.LAKE, 3, 3, 2)));
+
+        index.add(new Obstacle(Obstacle.ObstacleType.PIT, -20, 30, 1));
+        assertEquals(2, list.size());
+        assertTrue(index.collides(new Obstacle(Obstacle.ObstacleType.LAKE, -21, 31, 1)));
+    }
+
+    @Test
+    void testLargeObstaclesAreFoundFromEveryBucketTheyCover() {
+        ObstacleIndex index = new ObstacleIndex(new ArrayList<>());
+        index.add(new Obstacle(Obstacle.ObstacleType.LAKE, -30, 30, 60));
+
+        assertTrue(index.collides(new Obstacle(Obstacle.ObstacleType.PIT, 29, -29, 0)));
+        assertTrue(index.collides(new Obstacle(Obstacle.ObstacleType.PIT, 0, 0, 0)));
+        assertFalse(index.collides(new Obstacle(Obstacle.ObstacleType.PIT, 31, 0, 0)));
+    }
+
+    @Test
+    void testAgreesWithLinearScan() {
+        Random random = new Random(3);
+        List<Obstacle> placed = new ArrayList<>();
+        ObstacleIndex index = new ObstacleIndex(new ArrayList<>());
+        for (int i = 0; i < 500; i++) {
+            Obstacle candidate = new Obstacle(Obstacle.ObstacleType.MOUNTAIN,
+                    random.nextInt(100) - 50, random.nextInt(100) - 50, random.nextInt(5));
+            boolean collides = ObstacleGenerator.collides(candidate, placed);
+            assertEquals(collides, index.collides(candidate));
+            if (!collides) {
+                placed.add(candidate);
+                index.add(candidate);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RobotOccupancyTest {
+
+    private static Robot robot(String name) {
+        return new Robot(name, "Sniper", 5, 5, 2);
+    }
+
+    @Test
+    void testPutGetAndNegativeCoordinates() {
+        RobotOccupancy occupancy = new RobotOccupancy();
+        Robot a = robot("A");
+        Robot b = robot("B");
+        occupancy.put(-3, 7, a);
+        occupancy.put(7, -3, b);
+
+        assertSame(a, occupancy.get(-3, 7));
+        assertSame(b, occupancy.get(7, -3));
+        assertNull(occupancy.get(3, 7));
+        assertEquals(2, occupancy.size());
+    }
+
+    @Test
+    void testRemoveOnlyRemovesMatchingRobot() {
+        RobotOccupancy occupancy = new RobotOccupancy();
+        Robot a = robot("A");
+        occupancy.put(1, 1, a);
+
+        occupancy.remove(1, 1, robot("Other"));
+        assertSame(a, occupancy.get(1, 1));
+
+        occupancy.remove(1, 1, a);
+        assertNull(occupancy.get(1, 1));
+        assertEquals(0, occupancy.size());
+    }
+
+    @Test
+    void testMove() {
+        RobotOccupancy occupancy = new RobotOccupancy();
+        Robot a = robot("A");
+        occupancy.put(0, 0, a);
+        occupancy.move(a, 0, 0, 0, 5);
+
+        assertNull(occupancy.get(0, 0));
+        assertSame(a, occupancy.get(0, 5));
+    }
+
+    @Test
+    void testMatchesHashMapUnderRandomChurn() {
+        RobotOccupancy occupancy = new RobotOccupancy();
+        Map<Long, Robot> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20_000; i++) {
+            int x = random.nextInt(40) - 20;
+            int y = random.nextInt(40) - 20;
+            long key = RobotOccupancy.pack(x, y);
+            if (random.nextBoolean()) {
+                Robot r = robot("R" + i);
+                occupancy.put(x, y, r);
+                expected.put(key, r);
+            } else if (expected.containsKey(key)) {
+                occupancy.remove(x, y, expected.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), occupancy.size());
+        for (int x = -20; x < 20; x++) {
+            for (int y = -20; y < 20; y++) {
+                assertSame(expected.get(RobotOccupancy.pack(x, y)), occupancy.get(x, y));
+            }
+        }
+    }
+}
@@ -87,6 +87,31 @@ class RobotTest {
         assertEquals("DEAD", robot.getStatus());
     }
 
+    @Test
+    void testStartRepairEntersRepairStatus() {
+        robot.damage(3);
+        robot.startRepair();
+        assertEquals("REPAIR", robot.getStatus());
+        assertEquals(2, robot.getShields()); // not repaired until the timer fires
+
+        robot.repair();
+        assertEquals(robot.getMaxShields(), robot.getShields());
+        assertEquals("NORMAL", robot.getStatus());
+    }
+
+    @Test
+    void testStartReloadBlocksFiringUntilReloaded() {
+        robot.consumeShots(5);
+        robot.startReload();
+        assertEquals("RELOAD", robot.getStatus());
+        assertFalse(robot.canFire());
+
+        robot.reload();
+        assertEquals(robot.getMaxShots(), robot.getShots());
+        assertEquals("NORMAL", robot.getStatus());
+        assertTrue(robot.canFire());
+    }
+
     @Test
     void testCanFire() {
         assertTrue(robot.canFire());
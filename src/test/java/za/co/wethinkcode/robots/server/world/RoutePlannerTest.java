@@ -0,0 +1,154 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutePlannerTest {
+
+    private static World world(List<Obstacle> obstacles) {
+        return new World(new WorldConfig(21, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), obstacles));
+    }
+
+    private static Robot robotAt(World world, String name, int x, int y) {
+        Robot robot = new Robot(name, "Sniper", 5, 5, 2);
+        assertTrue(world.addRobot(robot));
+        robot.setPosition(x, y);
+        return robot;
+    }
+
+    // Mountain cells down column x from y = fromY to toY
+    private static List<Obstacle> wall(int x, int fromY, int toY) {
+        List<Obstacle> cells = new ArrayList<>();
+        for (int y = fromY; y <= toY; y++) {
+            cells.add(new Obstacle(Obstacle.ObstacleType.MOUNTAIN, x, y, 0));
+        }
+        return cells;
+    }
+
+    private static int steps(List<RoutePlanner.Leg> route) {
+        return route.stream().mapToInt(RoutePlanner.Leg::steps).sum();
+    }
+
+    @Test
+    void straightRouteIsOneLeg() {
+        World world = world(List.of());
+        Robot robot = robotAt(world, "R1", 0, 0);
+
+        List<RoutePlanner.Leg> route = new RoutePlanner(world).plan(robot, 0, 7);
+
+        assertEquals(List.of(new RoutePlanner.Leg("NORTH", 7, 0, 7)), route);
+    }
+
+    @Test
+    void routeGoesAroundWall() {
+        World world = world(wall(2, -10, 8)); // gap at y = 9 and 10
+        Robot robot = robotAt(world, "R1", 0, 0);
+
+        List<RoutePlanner.Leg> route = new RoutePlanner(world).plan(robot, 4, 0);
+
+        assertEquals(4 + 2 * 9, steps(route)); // up to the gap and back down
+        RoutePlanner.Leg last = route.get(route.size() - 1);
+        assertEquals(4, last.x());
+        assertEquals(0, last.y());
+
+        // Walk the legs and check no step lands in the wall
+        int x = 0;
+        int y = 0;
+        for (RoutePlanner.Leg leg : route) {
+            for (int i = 0; i < leg.steps(); i++) {
+                switch (leg.direction()) {
+                    case "NORTH" -> y++;
+                    case "SOUTH" -> y--;
+                    case "EAST" -> x++;
+                    default -> x--;
+                }
+                assertFalse(world.blocksMovement(x, y), "stepped into wall at " + x + "," + y);
+            }
+            assertEquals(leg.x(), x);
+            assertEquals(leg.y(), y);
+        }
+    }
+
+    @Test
+    void routeAvoidsPitsAndRobots() {
+        World world = world(List.of(new Obstacle(Obstacle.ObstacleType.PIT, 0, 2, 0)));
+        Robot robot = robotAt(world, "R1", 0, 0);
+        robotAt(world, "R2", 0, 4);
+
+        List<RoutePlanner.Leg> route = new RoutePlanner(world).plan(robot, 0, 6);
+
+        assertEquals(8, steps(route)); // one step aside and back, around both
+    }
+
+    @Test
+    void noRouteToEnclosedOrBlockedTarget() {
+        List<Obstacle> ring = new ArrayList<>();
+        ring.add(new Obstacle(Obstacle.ObstacleType.LAKE, 5, 6, 0));
+        ring.add(new Obstacle(Obstacle.ObstacleType.LAKE, 5, 4, 0));
+        ring.add(new Obstacle(Obstacle.ObstacleType.LAKE, 4, 5, 0));
+        ring.add(new Obstacle(Obstacle.ObstacleType.LAKE, 6, 5, 0));
+        World world = world(ring);
+        Robot robot = robotAt(world, "R1", 0, 0);
+        RoutePlanner planner = new RoutePlanner(world);
+
+        assertNull(planner.plan(robot, 5, 5));
+        assertNull(planner.plan(robot, 5, 6));
+    }
+
+    @Test
+    void alreadyThereIsEmptyRoute() {
+        World world = world(List.of());
+        Robot robot = robotAt(world, "R1", 3, 3);
+
+        assertTrue(new RoutePlanner(world).plan(robot, 3, 3).isEmpty());
+    }
+
+    @Test
+    void targetOutsideWorldIsRejected() {
+        World world = world(List.of());
+        Robot robot = robotAt(world, "R1", 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> new RoutePlanner(world).plan(robot, 11, 0));
+    }
+
+    @Test
+    void targetTooFarToSearchIsRejected() {
+        World world = new World(new WorldConfig(1001, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of()));
+        Robot robot = robotAt(world, "R1", -500, -500);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new RoutePlanner(world).plan(robot, 500, 500));
+        assertTrue(e.getMessage().contains("too far away"));
+    }
+
+    @Test
+    void reusedPlannerMatchesFreshOne() {
+        World world = world(wall(2, -10, 8));
+        Robot robot = robotAt(world, "R1", 0, 0);
+        RoutePlanner planner = new RoutePlanner(world);
+
+        List<RoutePlanner.Leg> wide = planner.plan(robot, 4, 0);
+        assertEquals(new RoutePlanner(world).plan(robot, 0, 7), planner.plan(robot, 0, 7)); // smaller window
+        assertEquals(wide, planner.plan(robot, 4, 0));
+        assertEquals(new RoutePlanner(world).plan(robot, -6, -9), planner.plan(robot, -6, -9));
+    }
+
+    @Test
+    void singleWriterPlanReadsPublishedSnapshot() {
+        World world = world(List.of());
+        world.useSingleWriter(task -> {}); // nothing publishes but the test
+        Robot robot = robotAt(world, "R1", 0, 0);
+        world.publishSnapshot();
+        robotAt(world, "R2", 0, 4); // not published yet
+
+        assertEquals(7, steps(new RoutePlanner(world).plan(robot, 0, 7)));
+
+        world.publishSnapshot();
+        assertEquals(9, steps(new RoutePlanner(world).plan(robot, 0, 7)));
+    }
+}
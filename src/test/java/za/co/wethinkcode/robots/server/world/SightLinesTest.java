@@ -0,0 +1,63 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SightLinesTest {
+
+    private static SightLines lines(Obstacle... obstacles) {
+        return new SightLines(20, 20, new ObstacleGrid(20, 20, List.of(obstacles)));
+    }
+
+    private static List<String> trace(SightLines lines, int x, int y, int dx, int dy, int max, int[] blocked) {
+        List<String> seen = new ArrayList<>();
+        blocked[0] = lines.trace(x, y, dx, dy, max, (distance, types) -> seen.add(distance + ":" + types));
+        return seen;
+    }
+
+    @Test
+    void testReportsEveryCellOfARunAndStopsAtMountain() {
+        SightLines lines = lines(
+                new Obstacle(Obstacle.ObstacleType.LAKE, 2, 0, 1),
+                new Obstacle(Obstacle.ObstacleType.MOUNTAIN, 6, 0, 0),
+                new Obstacle(Obstacle.ObstacleType.PIT, 8, 0, 0));
+        int[] blocked = new int[1];
+
+        List<String> east = trace(lines, 0, 0, 1, 0, 10, blocked);
+        assertEquals(List.of("2:[lake]", "3:[lake]", "6:[mountain]"), east);
+        assertEquals(6, blocked[0]);
+    }
+
+    @Test
+    void testStopsAtMaxDistanceWithoutBlocking() {
+        SightLines lines = lines(new Obstacle(Obstacle.ObstacleType.LAKE, 2, 0, 1));
+        int[] blocked = new int[1];
+
+        assertEquals(List.of("2:[lake]"), trace(lines, 0, 0, 1, 0, 2, blocked));
+        assertEquals(-1, blocked[0]);
+    }
+
+    @Test
+    void testTracesBackwardsAndAlongColumns() {
+        SightLines lines = lines(new Obstacle(Obstacle.ObstacleType.MOUNTAIN, -5, 3, 0));
+        int[] blocked = new int[1];
+
+        assertEquals(List.of("5:[mountain]"), trace(lines, 0, 3, -1, 0, 10, blocked));
+        assertEquals(List.of("3:[mountain]"), trace(lines, -5, 0, 0, 1, 10, blocked));
+        assertTrue(trace(lines, -5, 0, 0, -1, 10, blocked).isEmpty());
+        assertEquals(-1, blocked[0]);
+    }
+
+    @Test
+    void testIgnoresCellsBehindTheViewer() {
+        SightLines lines = lines(new Obstacle(Obstacle.ObstacleType.LAKE, -3, 0, 6));
+        int[] blocked = new int[1];
+
+        // The lake spans x -3..3; looking east from inside it sees only the cells ahead
+        assertEquals(List.of("1:[lake]", "2:[lake]", "3:[lake]"), trace(lines, 0, 0, 1, 0, 10, blocked));
+    }
+}
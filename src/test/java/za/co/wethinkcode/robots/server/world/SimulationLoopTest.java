@@ -0,0 +1,96 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationLoopTest {
+
+    private World world;
+    private SimulationLoop loop;
+
+    @BeforeEach
+    void setup() {
+        world = new World(new WorldConfig(10, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of()));
+        loop = new SimulationLoop(5);
+        loop.start(world);
+    }
+
+    @AfterEach
+    void teardown() {
+        loop.shutdown();
+    }
+
+    @Test
+    void testSubmittedWorkRunsOnOneThreadInOrder() throws Exception {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        List<Integer> order = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int n = i;
+            results.add(world.submit(() -> {
+                threads.add(Thread.currentThread());
+                order.add(n);
+                return CompletableFuture.completedFuture(n);
+            }));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture<?>[]::new)).get(2, TimeUnit.SECONDS);
+
+        assertEquals(1, threads.size());
+        assertEquals("simulation", threads.iterator().next().getName());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, order.get(i));
+        }
+        assertEquals(50, loop.getTasksRun());
+        assertTrue(loop.getTicks() > 0);
+    }
+
+    @Test
+    void testSnapshotIsPublishedAfterTheTick() throws Exception {
+        Robot robot = new Robot("Hal", "Sniper", 5, 5, 2);
+        WorldSnapshot before = world.snapshot();
+        WorldSnapshot midTick = world.submit(() -> {
+            world.addRobot(robot);
+            robot.setDirection("WEST");
+            return CompletableFuture.completedFuture(world.snapshot());
+        }).get(2, TimeUnit.SECONDS);
+        assertSame(before, midTick, "reads inside a tick see the last published snapshot");
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (world.snapshot().getRobot("Hal") == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("WEST", world.snapshot().getRobot("Hal").getDirection());
+    }
+
+    @Test
+    void testLaunchWorksWithoutLocks() throws Exception {
+        Robot robot = new Robot("Hal", "Sniper", 5, 5, 2);
+        boolean added = world.submit(() -> CompletableFuture.completedFuture(world.addRobot(robot)))
+                .get(2, TimeUnit.SECONDS);
+        assertTrue(added);
+        assertSame(robot, world.robotAt(robot.getX(), robot.getY()));
+    }
+
+    @Test
+    void testTimedTasksCompleteOnTheSimulationThread() throws Exception {
+        Thread[] ranOn = new Thread[1];
+        world.schedule(() -> ranOn[0] = Thread.currentThread(), 1).get(3, TimeUnit.SECONDS);
+        assertEquals("simulation", ranOn[0].getName());
+    }
+
+    @Test
+    void testRejectsNonPositiveTick() {
+        assertThrows(IllegalArgumentException.class, () -> new SimulationLoop(0));
+    }
+}
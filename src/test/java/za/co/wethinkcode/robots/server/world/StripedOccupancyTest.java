@@ -0,0 +1,100 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedOccupancyTest {
+
+    private static Robot robot(String name) {
+        return new Robot(name, "Sniper", 5, 5, 2);
+    }
+
+    @Test
+    void testPutGetMoveAcrossRegions() {
+        StripedOccupancy occupancy = new StripedOccupancy();
+        Robot a = robot("A");
+        occupancy.put(-40, 3, a);
+        assertSame(a, occupancy.get(-40, 3));
+
+        occupancy.move(a, -40, 3, 90, -17);
+        assertNull(occupancy.get(-40, 3));
+        assertSame(a, occupancy.get(90, -17));
+
+        occupancy.remove(90, -17, robot("Other"));
+        assertSame(a, occupancy.get(90, -17));
+        occupancy.remove(90, -17, a);
+        assertNull(occupancy.get(90, -17));
+    }
+
+    @Test
+    void testAreaLockBlocksOverlappingWritersUntilClosed() throws InterruptedException {
+        StripedOccupancy occupancy = new StripedOccupancy();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean written = new AtomicBoolean(false);
+
+        Thread writer;
+        try (StripedOccupancy.AreaLock area = occupancy.lockArea(0, 0, 0, 20)) {
+            assertTrue(area.held());
+            writer = new Thread(() -> {
+                started.countDown();
+                occupancy.put(0, 10, robot("A"));
+                written.set(true);
+            });
+            writer.start();
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            assertFalse(written.get(), "writer must wait for the area lock");
+        }
+        writer.join(1000);
+        assertTrue(written.get());
+    }
+
+    @Test
+    void testHeldOnlyByTheLockingThreadUntilClosed() throws Exception {
+        StripedOccupancy occupancy = new StripedOccupancy();
+        StripedOccupancy.AreaLock area = occupancy.lockArea(0, 0, 40, 40);
+        assertTrue(area.held());
+        assertFalse(CompletableFuture.supplyAsync(area::held).get(1, TimeUnit.SECONDS));
+        area.close();
+        assertFalse(area.held());
+
+        occupancy.disableLocking();
+        try (StripedOccupancy.AreaLock none = occupancy.lockArea(0, 0, 40, 40)) {
+            assertTrue(none.held());
+        }
+    }
+
+    @Test
+    void testOverlappingAreasDoNotDeadlock() throws InterruptedException {
+        StripedOccupancy occupancy = new StripedOccupancy();
+        Runnable forward = () -> {
+            for (int i = 0; i < 2000; i++) {
+                try (StripedOccupancy.AreaLock area = occupancy.lockArea(-50, 0, 50, 0)) {
+                    assertTrue(area.held());
+                    occupancy.get(0, 0);
+                }
+            }
+        };
+        Runnable backward = () -> {
+            for (int i = 0; i < 2000; i++) {
+                try (StripedOccupancy.AreaLock area = occupancy.lockArea(50, 40, -50, -40)) {
+                    assertTrue(area.held());
+                    occupancy.get(0, 0);
+                }
+            }
+        };
+        Thread t1 = new Thread(forward);
+        Thread t2 = new Thread(backward);
+        t1.start();
+        t2.start();
+        t1.join(5000);
+        t2.join(5000);
+        assertFalse(t1.isAlive() || t2.isAlive(), "lock ordering must prevent deadlock");
+    }
+}
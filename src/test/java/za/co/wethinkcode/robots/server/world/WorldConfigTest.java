@@ -162,4 +162,28 @@ class WorldConfigTest {
         assertTrue(mountainCount > 0, "Should have MOUNTAIN obstacles");
     }
 
+    @Test
+    void testSeedFromFileAndOverride() throws Exception {
+        String json = """
+        {
+            "world": { "size": 60, "visibility": 5, "seed": 1234 },
+            "makes": {},
+            "obstacles": { "defaultPlacement": true, "types": [ { "type": "lake", "count": 5, "size": 2 } ] }
+        }
+        """;
+        try (FileWriter writer = new FileWriter(tempFile)) { writer.write(json); }
+
+        WorldConfig first = WorldConfig.loadFromFile(tempFile.getAbsolutePath());
+        WorldConfig second = WorldConfig.loadFromFile(tempFile.getAbsolutePath());
+        WorldConfig overridden = WorldConfig.loadFromFile(tempFile.getAbsolutePath(), 99L);
+
+        assertEquals(1234, first.getSeed());
+        assertEquals(99, overridden.getSeed());
+        assertEquals(corners(first.getObstacles()), corners(second.getObstacles()));
+        assertNotEquals(corners(first.getObstacles()), corners(overridden.getObstacles()));
+    }
+
+    private static List<String> corners(List<Obstacle> obstacles) {
+        return obstacles.stream().map(o -> o.getType() + "@" + o.getTopLeftX() + "," + o.getTopLeftY()).toList();
+    }
 }
@@ -0,0 +1,99 @@
+package za.co.wethinkcode.robots.server.world;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldSnapshotTest {
+
+    private World world;
+    private Robot robot;
+
+    @BeforeEach
+    void setup() {
+        world = new World(new WorldConfig(10, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of()));
+        robot = new Robot("Hal", "Sniper", 5, 5, 2);
+        world.addRobot(robot);
+        world.publishSnapshot();
+    }
+
+    @Test
+    void testReadsNeverRebuildTheSnapshot() {
+        world.useSingleWriter(task -> {}); // a writer that never ticks, so nothing publishes
+        WorldSnapshot first = world.snapshot();
+        robot.setDirection("EAST");
+
+        assertSame(first, world.snapshot());
+        assertEquals("NORTH", world.snapshot().getRobot("Hal").getDirection());
+    }
+
+    @Test
+    void testPublishTakesEveryChangeSoFar() {
+        WorldSnapshot first = world.snapshot();
+        world.publishSnapshot();
+        assertSame(first, world.snapshot()); // nothing changed
+
+        robot.setDirection("EAST");
+        world.publishSnapshot();
+        WorldSnapshot second = world.snapshot();
+        assertNotSame(first, second);
+        assertTrue(second.getVersion() > first.getVersion());
+        assertEquals("NORTH", first.getRobot("Hal").getDirection());
+        assertEquals("EAST", second.getRobot("Hal").getDirection());
+    }
+
+    @Test
+    void testChangesArePublishedWithoutAReader() throws Exception {
+        WorldSnapshot before = world.snapshot();
+        for (int i = 0; i < 100; i++) {
+            robot.setDirection(i % 2 == 0 ? "EAST" : "WEST");
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (world.snapshot() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals("WEST", world.snapshot().getRobot("Hal").getDirection());
+    }
+
+    @Test
+    void testRobotAtOnlyIndexesLiveRobots() {
+        WorldSnapshot alive = world.snapshot();
+        assertEquals("Hal", alive.robotAt(robot.getX(), robot.getY()).getName());
+
+        robot.damage(5);
+        world.publishSnapshot();
+        WorldSnapshot dead = world.snapshot();
+        assertNull(dead.robotAt(robot.getX(), robot.getY()));
+        assertTrue(dead.getRobot("Hal").isDead());
+        assertEquals(1, dead.getRobots().size());
+    }
+
+    @Test
+    void testRemovedRobotLeavesNextSnapshot() {
+        world.removeOneRobot("Hal");
+        world.publishSnapshot();
+        assertNull(world.snapshot().getRobot("Hal"));
+        assertTrue(world.snapshot().getRobots().isEmpty());
+    }
+
+    @Test
+    void testNearestRobotLooksPastAnIgnoredRecord() {
+        Robot other = new Robot("Marvin", "Sniper", 5, 5, 2);
+        world.addRobot(other);
+        robot.setPosition(0, 0);
+        other.setPosition(0, 2);
+        world.publishSnapshot();
+        WorldSnapshot view = world.snapshot();
+        WorldSnapshot.RobotView hal = view.getRobot("Hal");
+
+        // Hal has since moved to (0, -1): its old record is one step north, Marvin three
+        assertEquals(1, view.nearestRobot(0, -1, 0, 1));
+        assertEquals(3, view.nearestRobot(0, -1, 0, 1, hal));
+        assertEquals(Integer.MAX_VALUE, view.nearestRobot(0, 1, 0, -1, hal));
+    }
+}
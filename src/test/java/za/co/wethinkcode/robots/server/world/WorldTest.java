@@ -4,8 +4,14 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -105,6 +111,7 @@ class WorldTest {
     void testGetWorldStateJson() {
         Robot r = new Robot("Hal", "Sniper",5,5,2);
         world.addRobot(r);
+        world.publishSnapshot();
 
         JsonNode state = world.getWorldState();
         assertEquals(world.worldWidth(), state.get("width").asInt());
@@ -121,6 +128,68 @@ class WorldTest {
         assertTrue(state.get("obstacles").isArray());
     }
 
+    @Test
+    void testRobotAtTracksMovesDeathAndRemoval() {
+        Robot r = new Robot("Hal", "Sniper", 5, 5, 2);
+        world.addRobot(r);
+        assertSame(r, world.robotAt(r.getX(), r.getY()));
+
+        int oldX = r.getX(), oldY = r.getY();
+        int newX = oldX == 0 ? 1 : 0;
+        r.setPosition(newX, oldY);
+        assertNull(world.robotAt(oldX, oldY));
+        assertSame(r, world.robotAt(newX, oldY));
+
+        r.damage(100);
+        assertNull(world.robotAt(newX, oldY), "dead robots do not occupy cells");
+
+        Robot other = new Robot("Other", "Sniper", 5, 5, 2);
+        world.addRobot(other);
+        world.removeOneRobot("Other");
+        assertNull(world.robotAt(other.getX(), other.getY()));
+    }
+
+    @Test
+    void testConcurrentLaunchesKeepUniqueCellsAndNames() throws InterruptedException {
+        World big = new World(new WorldConfig(
+                40, 5, 3, 2,
+                Map.of("Sniper", new int[]{5, 5, 2}),
+                List.of()
+        ));
+        int threads = 8;
+        int perThread = 25;
+        List<Thread> workers = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    // every thread also tries a shared name, only one may win it
+                    big.addRobot(new Robot("Shared", "Sniper", 5, 5, 2));
+                    big.addRobot(new Robot("R" + id + "-" + i, "Sniper", 5, 5, 2));
+                    try {
+                        big.getWorldState();
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(0, failures.get());
+        assertEquals(threads * perThread + 1, big.getRobotNames().size());
+        Set<Long> cells = new HashSet<>();
+        for (Robot r : big.getRobotsInWorld()) {
+            assertTrue(cells.add(RobotOccupancy.pack(r.getX(), r.getY())), "two robots share a cell");
+            assertSame(r, big.robotAt(r.getX(), r.getY()));
+        }
+    }
+
     @Test
     void testGetRobotNotFoundReturnsNull() {
         assertNull(world.getRobot("NonExistent"));
@@ -137,4 +206,40 @@ class WorldTest {
         assertEquals(r2, world.getRobot("R2"));
         assertEquals(2, world.getRobotsInWorld().size());
     }
+
+    @Test
+    void testSameSeedGivesSameLaunchPositions() {
+        List<String> first = launchPositions(7L);
+        assertEquals(first, launchPositions(7L));
+        assertNotEquals(first, launchPositions(8L));
+    }
+
+    @Test
+    void testUpdateRobotWaitsForTheRobotsCell() throws Exception {
+        Robot robot = new Robot("Hal", "Sniper", 5, 5, 2);
+        world.addRobot(robot);
+        robot.damage(3);
+
+        CompletableFuture<Void> repaired;
+        try (StripedOccupancy.AreaLock cell = world.lockArea(robot.getX(), robot.getY(), robot.getX(), robot.getY())) {
+            assertTrue(cell.held());
+            repaired = CompletableFuture.runAsync(() -> world.updateRobot(robot, Robot::repair));
+            Thread.sleep(100);
+            assertFalse(repaired.isDone(), "Repair waits while a shot or move holds the cell");
+            assertEquals(2, robot.getShields());
+        }
+        repaired.get(5, TimeUnit.SECONDS);
+        assertEquals(5, robot.getShields());
+    }
+
+    private static List<String> launchPositions(long seed) {
+        World seeded = new World(new WorldConfig(50, 5, 0, 0, Map.of("Sniper", new int[]{5, 5, 2}), List.of(), seed));
+        List<String> positions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Robot robot = new Robot("R" + i, "Sniper", 5, 5, 2);
+            seeded.addRobot(robot);
+            positions.add(robot.getX() + "," + robot.getY());
+        }
+        return positions;
+    }
 }